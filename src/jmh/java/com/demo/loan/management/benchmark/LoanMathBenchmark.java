@@ -0,0 +1,61 @@
+package com.demo.loan.management.benchmark;
+
+import com.demo.loan.management.dto.AmortizationScheduleDTO;
+import com.demo.loan.management.service.AmortizationCalculator;
+import com.demo.loan.management.service.LoanService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pricing hot path: EMI, total repayable and full schedule generation across the tenure and rate ranges we
+ * offer. Run with {@code mvn -Pbenchmark -DskipTests test-compile exec:exec}; the gc profiler is on by default
+ * so every result also reports allocation rate and bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoanMathBenchmark {
+
+    @Param({"12", "36", "60", "120", "240", "360"})
+    private int tenureMonths;
+
+    @Param({"0", "7.5", "12.99", "24"})
+    private String annualRate;
+
+    @Param({"250000"})
+    private String principal;
+
+    private LoanService loanService;
+    private AmortizationCalculator amortizationCalculator;
+    private BigDecimal loanAmount;
+    private BigDecimal interestRate;
+
+    @Setup
+    public void setUp() {
+        amortizationCalculator = new AmortizationCalculator();
+        // The pricing methods only touch the calculator, so the repositories and pools can stay null
+        loanService = new LoanService(null, null, null, amortizationCalculator, null, null);
+        loanAmount = new BigDecimal(principal);
+        interestRate = new BigDecimal(annualRate);
+    }
+
+    @Benchmark
+    public BigDecimal calculateEmi() {
+        return loanService.calculateEmi(loanAmount, interestRate, tenureMonths);
+    }
+
+    @Benchmark
+    public BigDecimal calculateTotalRepayable() {
+        return loanService.calculateTotalRepayable(loanAmount, interestRate, tenureMonths);
+    }
+
+    @Benchmark
+    public AmortizationScheduleDTO buildSchedule() {
+        return amortizationCalculator.buildSchedule(loanAmount, interestRate, tenureMonths);
+    }
+}
@@ -0,0 +1,33 @@
+package com.demo.loan.management.config;
+
+import com.demo.loan.management.exception.TooManyRequestsException;
+import io.github.bucket4j.ConsumptionProbe;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Limits attempts against one account, keyed by the email or phone number in the request, however many IPs they
+ * come from. Callers check before any user lookup or password hashing so rejected attempts cost no database or
+ * BCrypt work.
+ */
+@Component
+@RequiredArgsConstructor
+public class CredentialRateLimiter {
+
+    private final RateLimitConfig rateLimitConfig;
+    private final RateLimitBucketStore bucketStore;
+
+    public void checkIdentity(String identity) {
+        if (identity == null || identity.isBlank()) {
+            return;
+        }
+        String key = "pre-auth|id:" + identity.trim().toLowerCase(Locale.ROOT);
+        ConsumptionProbe probe = bucketStore.tryConsume(key, rateLimitConfig.preAuthIdentityPolicy());
+        if (!probe.isConsumed()) {
+            throw new TooManyRequestsException("Too many attempts for this account. Try again later.",
+                    RateLimitingFilter.toSeconds(probe.getNanosToWaitForRefill()));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.demo.loan.management.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * CPU-bound pool for EMI schedule computation during bulk approvals, kept apart from the common pool
+     * so large approval runs don't starve parallel streams elsewhere in the application.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool scheduleComputationPool(
+            @Value("${loan.schedule.parallelism:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int parallelism) {
+        return new ForkJoinPool(parallelism);
+    }
+}
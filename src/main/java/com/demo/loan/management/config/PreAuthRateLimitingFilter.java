@@ -0,0 +1,50 @@
+package com.demo.loan.management.config;
+
+import io.github.bucket4j.ConsumptionProbe;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * First rate limiting stage: limits credential endpoints (login, registration, password reset) per client IP before
+ * JWT parsing, user lookups or BCrypt. The target email or phone number is limited separately by
+ * {@link CredentialRateLimiter}, and authenticated traffic by {@link RateLimitingFilter}.
+ */
+@Slf4j
+public class PreAuthRateLimitingFilter extends OncePerRequestFilter {
+
+    private final RateLimitConfig rateLimitConfig;
+    private final RateLimitBucketStore bucketStore;
+
+    public PreAuthRateLimitingFilter(RateLimitConfig rateLimitConfig, RateLimitBucketStore bucketStore) {
+        this.rateLimitConfig = rateLimitConfig;
+        this.bucketStore = bucketStore;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !rateLimitConfig.isPreAuthPath(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        String ip = request.getRemoteAddr();
+        RateLimitPolicy policy = rateLimitConfig.preAuthIpPolicy();
+        ConsumptionProbe probe = bucketStore.tryConsume("pre-auth|ip:" + ip, policy);
+
+        RateLimitingFilter.writeHeaders(response, policy, probe);
+        if (probe.isConsumed()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        log.debug("Pre-auth rate limit exceeded for {} on {}", ip, request.getRequestURI());
+        RateLimitingFilter.reject(response, probe);
+    }
+}
@@ -0,0 +1,102 @@
+package com.demo.loan.management.config;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One token bucket per rate limit key (principal or client IP, per endpoint group), held in a concurrent map.
+ * Buckets untouched for {@code rate.limiting.idle-timeout-ms} are full again anyway and are swept on a schedule;
+ * when the map reaches {@code rate.limiting.max-buckets} the idle ones go first, then the least recently used.
+ */
+@Slf4j
+@Component
+public class RateLimitBucketStore {
+
+    private final Map<String, Entry> buckets = new ConcurrentHashMap<>();
+    private final Object evictionLock = new Object();
+    private final int maxBuckets;
+    private final long idleTimeoutNanos;
+    private final Counter rejected;
+
+    public RateLimitBucketStore(@Value("${rate.limiting.max-buckets:100000}") int maxBuckets,
+                                @Value("${rate.limiting.idle-timeout-ms:600000}") long idleTimeoutMs,
+                                MeterRegistry meterRegistry) {
+        this.maxBuckets = maxBuckets;
+        this.idleTimeoutNanos = idleTimeoutMs * 1_000_000;
+        this.rejected = Counter.builder("rate.limit.rejected").register(meterRegistry);
+        Gauge.builder("rate.limit.buckets", this, RateLimitBucketStore::size).register(meterRegistry);
+    }
+
+    public ConsumptionProbe tryConsume(String key, RateLimitPolicy policy) {
+        long now = System.nanoTime();
+        Entry entry = buckets.get(key);
+        if (entry == null) {
+            if (buckets.size() >= maxBuckets) {
+                makeRoom(now);
+            }
+            entry = buckets.computeIfAbsent(key, k -> new Entry(policy.newBucket()));
+        }
+        entry.lastAccessNanos = now;
+
+        ConsumptionProbe probe = entry.bucket.tryConsumeAndReturnRemaining(1);
+        if (!probe.isConsumed()) {
+            rejected.increment();
+        }
+        return probe;
+    }
+
+    @Scheduled(fixedDelayString = "${rate.limiting.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        int before = buckets.size();
+        evictIdle(System.nanoTime());
+        log.debug("Evicted {} idle rate limit buckets", before - buckets.size());
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private void evictIdle(long now) {
+        buckets.values().removeIf(entry -> now - entry.lastAccessNanos >= idleTimeoutNanos);
+    }
+
+    // Drops a tenth of the map at a time so a full store does not rescan on every new key
+    private void makeRoom(long now) {
+        synchronized (evictionLock) {
+            if (buckets.size() < maxBuckets) {
+                return;
+            }
+            evictIdle(now);
+            int excess = buckets.size() - maxBuckets + Math.max(1, maxBuckets / 10);
+            if (excess <= 0) {
+                return;
+            }
+            buckets.entrySet().stream()
+                    .sorted(Comparator.comparingLong(e -> e.getValue().lastAccessNanos))
+                    .limit(excess)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(buckets::remove);
+        }
+    }
+
+    private static final class Entry {
+        private final Bucket bucket;
+        private volatile long lastAccessNanos;
+
+        Entry(Bucket bucket) {
+            this.bucket = bucket;
+        }
+    }
+}
@@ -1,33 +1,107 @@
 package com.demo.loan.management.config;
 
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.Refill;
-import org.springframework.context.annotation.Bean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 
-import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Rate limit policies per role and endpoint group.
+ * <p>
+ * {@code rate.limiting.groups} maps path prefixes to endpoint groups ({@code export=/api/transactions/export,...});
+ * paths matching no prefix belong to {@value #DEFAULT_GROUP}. {@code rate.limiting.policies} sets a policy per role
+ * ({@code USER=10/PT1M}) and optionally per role and group ({@code USER:export=2/PT1M}); a role without a
+ * group-specific policy falls back to its own, and an unknown role to the {@code USER} policy.
+ * <p>
+ * Credential endpoints ({@code rate.limiting.pre-auth.paths}) are additionally limited before authentication, per
+ * client IP and per target email or phone number, so credential stuffing is rejected before any BCrypt work.
+ */
 @Configuration
 public class RateLimitConfig {
 
-    private final Map<String, Bucket> bucketCache = new ConcurrentHashMap<>();
+    public static final String DEFAULT_GROUP = "default";
+    public static final String ANONYMOUS = "ANONYMOUS";
 
-    @Bean
-    public Map<String, Bucket> roleBasedBuckets() {
-        bucketCache.put("ADMIN", createBucket(20));
-        bucketCache.put("USER", createBucket(10));
-        return bucketCache;
+    private static final String FALLBACK_ROLE = "USER";
+
+    private final Map<String, RateLimitPolicy> policies = new HashMap<>();
+    private final List<Map.Entry<String, String>> groupsByPrefix = new ArrayList<>();
+    private final List<String> preAuthPaths = new ArrayList<>();
+    private final RateLimitPolicy preAuthIpPolicy;
+    private final RateLimitPolicy preAuthIdentityPolicy;
+
+    public RateLimitConfig(
+            @Value("${rate.limiting.policies:ADMIN=20/PT1M,USER=10/PT1M,ANONYMOUS=30/PT1M}") String policySpec,
+            @Value("${rate.limiting.groups:}") String groupSpec,
+            @Value("${rate.limiting.pre-auth.paths:/api/auth/login,/api/auth/register,/api/users/login,/api/password-reset/}") String preAuthPathSpec,
+            @Value("${rate.limiting.pre-auth.ip-policy:20/PT1M}") String preAuthIpPolicy,
+            @Value("${rate.limiting.pre-auth.identity-policy:10/PT15M}") String preAuthIdentityPolicy) {
+        for (Map.Entry<String, String> entry : parsePairs(policySpec)) {
+            policies.put(entry.getKey(), RateLimitPolicy.parse(entry.getValue()));
+        }
+        if (!policies.containsKey(FALLBACK_ROLE)) {
+            throw new IllegalArgumentException("rate.limiting.policies must define a USER policy");
+        }
+        for (Map.Entry<String, String> entry : parsePairs(groupSpec)) {
+            groupsByPrefix.add(Map.entry(entry.getValue(), entry.getKey()));
+        }
+        // Longest prefix wins, so /api/admin/portfolio can be grouped apart from /api/admin/
+        groupsByPrefix.sort(Comparator.comparingInt((Map.Entry<String, String> e) -> e.getKey().length()).reversed());
+
+        for (String path : preAuthPathSpec.split(",")) {
+            if (!path.isBlank()) {
+                preAuthPaths.add(path.trim());
+            }
+        }
+        this.preAuthIpPolicy = RateLimitPolicy.parse(preAuthIpPolicy);
+        this.preAuthIdentityPolicy = RateLimitPolicy.parse(preAuthIdentityPolicy);
+    }
+
+    public boolean isPreAuthPath(String path) {
+        return preAuthPaths.stream().anyMatch(path::startsWith);
+    }
+
+    public RateLimitPolicy preAuthIpPolicy() {
+        return preAuthIpPolicy;
+    }
+
+    public RateLimitPolicy preAuthIdentityPolicy() {
+        return preAuthIdentityPolicy;
+    }
+
+    public String groupFor(String path) {
+        for (Map.Entry<String, String> group : groupsByPrefix) {
+            if (path.startsWith(group.getKey())) {
+                return group.getValue();
+            }
+        }
+        return DEFAULT_GROUP;
     }
 
-    private Bucket createBucket(int capacity) {
-        Bandwidth limit = Bandwidth.classic(capacity, Refill.greedy(capacity, Duration.ofMinutes(1)));
-        return Bucket.builder().addLimit(limit).build();
+    public RateLimitPolicy policyFor(String role, String group) {
+        RateLimitPolicy policy = policies.get(role + ":" + group);
+        if (policy == null) {
+            policy = policies.get(role);
+        }
+        return policy != null ? policy : policies.get(FALLBACK_ROLE);
     }
 
-    public Bucket getBucketForRole(String role) {
-        return bucketCache.getOrDefault(role, bucketCache.get("USER"));
+    private static List<Map.Entry<String, String>> parsePairs(String spec) {
+        List<Map.Entry<String, String>> pairs = new ArrayList<>();
+        for (String pair : spec.split(",")) {
+            if (pair.isBlank()) {
+                continue;
+            }
+            String[] keyValue = pair.split("=", 2);
+            if (keyValue.length != 2) {
+                throw new IllegalArgumentException("Expected key=value in rate limit setting: " + pair);
+            }
+            pairs.add(Map.entry(keyValue[0].trim(), keyValue[1].trim()));
+        }
+        return pairs;
     }
 }
@@ -0,0 +1,41 @@
+package com.demo.loan.management.config;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+
+import java.time.Duration;
+
+/**
+ * {@code capacity} requests per {@code window}, refilled greedily.
+ */
+public record RateLimitPolicy(long capacity, Duration window) {
+
+    /**
+     * Parses {@code <capacity>/<ISO-8601 duration>}, e.g. {@code 10/PT1M}.
+     */
+    public static RateLimitPolicy parse(String spec) {
+        String[] parts = spec.trim().split("/", 2);
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Rate limit policy must look like 10/PT1M: " + spec);
+        }
+        RateLimitPolicy policy = new RateLimitPolicy(Long.parseLong(parts[0].trim()), Duration.parse(parts[1].trim()));
+        if (policy.capacity() <= 0 || policy.window().isZero() || policy.window().isNegative()) {
+            throw new IllegalArgumentException("Rate limit policy must be positive: " + spec);
+        }
+        return policy;
+    }
+
+    public Bucket newBucket() {
+        return Bucket.builder()
+                .addLimit(Bandwidth.classic(capacity, Refill.greedy(capacity, window)))
+                .build();
+    }
+
+    /**
+     * Value of the {@code RateLimit-Policy} header, e.g. {@code 10;w=60}.
+     */
+    public String toHeaderValue() {
+        return capacity + ";w=" + window.toSeconds();
+    }
+}
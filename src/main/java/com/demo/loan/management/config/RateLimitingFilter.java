@@ -1,76 +1,100 @@
 package com.demo.loan.management.config;
 
-import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
-import jakarta.servlet.ServletRequest;
-import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Profile;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
-import org.springframework.web.filter.GenericFilterBean;
+import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 
 /**
- * This filter applies rate limiting based on the user's role (USER or ADMIN).
+ * Applies a token bucket per authenticated principal, or per client IP for anonymous traffic, and per endpoint
+ * group, with the policy chosen by role and group in {@link RateLimitConfig}. Every response carries the
+ * {@code RateLimit-*} headers; rejected requests get a 429 with {@code Retry-After}.
  * It is disabled in the 'test' profile to prevent interference with integration tests.
  */
 @Slf4j
 @Component
 @Profile("!test")
-public class RateLimitingFilter extends GenericFilterBean {
+public class RateLimitingFilter extends OncePerRequestFilter {
 
     private final RateLimitConfig rateLimitConfig;
+    private final RateLimitBucketStore bucketStore;
 
-    public RateLimitingFilter(RateLimitConfig rateLimitConfig) {
+    public RateLimitingFilter(RateLimitConfig rateLimitConfig, RateLimitBucketStore bucketStore) {
         this.rateLimitConfig = rateLimitConfig;
+        this.bucketStore = bucketStore;
     }
 
     @Override
-    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
-            throws IOException, ServletException {
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String requestURI = request.getRequestURI();
+        return requestURI.startsWith("/swagger-ui") || requestURI.startsWith("/v3/api-docs");
+    }
 
-        HttpServletRequest httpRequest = (HttpServletRequest) request;
-        HttpServletResponse httpResponse = (HttpServletResponse) response;
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
 
-        String requestURI = httpRequest.getRequestURI();
+        String group = rateLimitConfig.groupFor(request.getRequestURI());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-        if (requestURI.startsWith("/swagger-ui") || requestURI.startsWith("/v3/api-docs")) {
-            chain.doFilter(request, response);
-            return;
+        String role;
+        String subject;
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            role = RateLimitConfig.ANONYMOUS;
+            // Behind a proxy, set server.forward-headers-strategy so this is the client rather than the proxy
+            subject = "ip:" + request.getRemoteAddr();
+        } else {
+            boolean admin = authentication.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .anyMatch("ROLE_ADMIN"::equals);
+            role = admin ? "ADMIN" : "USER";
+            subject = "user:" + authentication.getName();
         }
 
+        RateLimitPolicy policy = rateLimitConfig.policyFor(role, group);
+        ConsumptionProbe probe = bucketStore.tryConsume(group + "|" + role + "|" + subject, policy);
 
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
+        writeHeaders(response, policy, probe);
+        if (probe.isConsumed()) {
             chain.doFilter(request, response);
             return;
         }
 
-        // Determine user role
-        List<String> roles = authentication.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .toList();
+        log.debug("Rate limit exceeded for {} on {}", subject, group);
+        reject(response, probe);
+    }
 
-        String role = roles.contains("ROLE_ADMIN") ? "ADMIN" : "USER";
-        Bucket bucket = rateLimitConfig.getBucketForRole(role);
+    static void writeHeaders(HttpServletResponse response, RateLimitPolicy policy, ConsumptionProbe probe) {
+        response.setHeader("RateLimit-Limit", String.valueOf(policy.capacity()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(probe.getRemainingTokens()));
+        response.setHeader("RateLimit-Reset", String.valueOf(toSeconds(probe.getNanosToWaitForReset())));
+        response.setHeader("RateLimit-Policy", policy.toHeaderValue());
+    }
 
-        if (bucket.tryConsume(1)) {
-            chain.doFilter(request, response);
-        } else {
-            // Reject request if rate limit is exceeded
-            httpResponse.setStatus(429);
-            httpResponse.setContentType("application/json");
-            httpResponse.getWriter().write("{\"error\": \"Too many requests! Try again later.\"}");
-            httpResponse.getWriter().flush();
-        }
+    static void reject(HttpServletResponse response, ConsumptionProbe probe) throws IOException {
+        response.setStatus(429);
+        response.setHeader("Retry-After", String.valueOf(toSeconds(probe.getNanosToWaitForRefill())));
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\": \"Too many requests! Try again later.\"}");
+        response.getWriter().flush();
+    }
+
+    // Header values are whole seconds; round up so clients never retry too early
+    static long toSeconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
     }
 }
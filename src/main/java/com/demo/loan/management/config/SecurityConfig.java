@@ -1,8 +1,12 @@
 package com.demo.loan.management.config;
 
+import com.demo.loan.management.security.BoundedPasswordEncoder;
 import com.demo.loan.management.security.JwtAuthenticationFilter;
 import com.demo.loan.management.security.CustomAccessDeniedHandler;
+import com.demo.loan.management.security.CustomAuthenticationEntryPoint;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -20,10 +24,12 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final CustomAccessDeniedHandler customAccessDeniedHandler;
+    private final CustomAuthenticationEntryPoint customAuthenticationEntryPoint;
     private final RateLimitConfig rateLimitConfig;
+    private final RateLimitBucketStore rateLimitBucketStore;
 
     private static final String[] AUTH_WHITELIST = {
-            "/api/auth/**",  "/api/users/login**",
+            "/api/auth/**",  "/api/users/login**", "/api/loans/quote",
             "/swagger-ui/**", "/v3/api-docs/**", "/swagger-resources/**",
             "/webjars/**", "/swagger-ui.html", "/error"
     };
@@ -40,16 +46,24 @@ public class SecurityConfig {
                         .requestMatchers("/api/loans/**").hasAnyRole("USER", "ADMIN")
                         .anyRequest().authenticated()
                 )
-                .exceptionHandling(ex -> ex.accessDeniedHandler(customAccessDeniedHandler))  // Custom access denied handler
-                .addFilterBefore(rateLimitingFilter(), UsernamePasswordAuthenticationFilter.class) // Apply rate-limiting filter first
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class); // Apply JWT authentication next
+                .exceptionHandling(ex -> ex
+                        .accessDeniedHandler(customAccessDeniedHandler)  // Custom access denied handler
+                        .authenticationEntryPoint(customAuthenticationEntryPoint))  // 401 with the reason a token was not accepted
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class) // Apply JWT authentication
+                .addFilterBefore(preAuthRateLimitingFilter(), JwtAuthenticationFilter.class) // Limit credential endpoints per IP first
+                .addFilterAfter(rateLimitingFilter(), JwtAuthenticationFilter.class); // Rate-limit once the principal is known
 
         return http.build();
     }
 
     @Bean
     public RateLimitingFilter rateLimitingFilter() {
-        return new RateLimitingFilter(rateLimitConfig); // Explicitly create the bean
+        return new RateLimitingFilter(rateLimitConfig, rateLimitBucketStore); // Explicitly create the bean
+    }
+
+    @Bean
+    public PreAuthRateLimitingFilter preAuthRateLimitingFilter() {
+        return new PreAuthRateLimitingFilter(rateLimitConfig, rateLimitBucketStore);
     }
 
     @Bean
@@ -57,8 +71,20 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();  // Password encryption using BCrypt
+    /**
+     * BCrypt on a dedicated bounded pool, with the strength calibrated to the target hash latency at startup
+     * unless {@code security.password.bcrypt.strength} pins it.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public PasswordEncoder passwordEncoder(
+            @Value("${security.password.bcrypt.strength:0}") int strength,
+            @Value("${security.password.bcrypt.target-ms:250}") long targetMs,
+            @Value("${security.password.bcrypt.min-strength:10}") int minStrength,
+            @Value("${security.password.bcrypt.max-strength:14}") int maxStrength,
+            @Value("${security.password.hashing.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int threads,
+            @Value("${security.password.hashing.queue-capacity:64}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        int effectiveStrength = strength > 0 ? strength : BoundedPasswordEncoder.calibrateStrength(targetMs, minStrength, maxStrength);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(effectiveStrength), threads, queueCapacity, meterRegistry);
     }
 }
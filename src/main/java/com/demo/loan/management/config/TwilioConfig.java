@@ -2,10 +2,12 @@ package com.demo.loan.management.config;
 
 import lombok.Getter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 @Getter
+@ConditionalOnProperty(name = "sms.provider", havingValue = "twilio", matchIfMissing = true)
 public class TwilioConfig {
 
     @Value("${twilio.account.sid}")
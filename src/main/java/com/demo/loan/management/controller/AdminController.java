@@ -1,5 +1,7 @@
 package com.demo.loan.management.controller;
 
+import com.demo.loan.management.dto.PortfolioSnapshotDTO;
+import com.demo.loan.management.service.PortfolioAnalyticsService;
 import com.demo.loan.management.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -17,6 +19,7 @@ import java.util.Map;
 public class AdminController {
 
     private final UserService userService;
+    private final PortfolioAnalyticsService portfolioAnalyticsService;
 
     @GetMapping("/dashboard")
     @PreAuthorize("hasRole('ADMIN')")
@@ -32,4 +35,18 @@ public class AdminController {
         userService.deleteUser(userId);
         return ResponseEntity.ok(Map.of("message", "User deleted successfully"));
     }
+
+    @GetMapping("/portfolio")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Portfolio analytics", description = "Returns total outstanding, collections this month and delinquency buckets from precomputed aggregates")
+    public ResponseEntity<PortfolioSnapshotDTO> getPortfolio() {
+        return ResponseEntity.ok(portfolioAnalyticsService.snapshot());
+    }
+
+    @PostMapping("/portfolio/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Rebuild portfolio analytics", description = "Recomputes the portfolio aggregates from the database (Admin only)")
+    public ResponseEntity<PortfolioSnapshotDTO> rebuildPortfolio() {
+        return ResponseEntity.ok(portfolioAnalyticsService.rebuild());
+    }
 }
@@ -1,10 +1,14 @@
 package com.demo.loan.management.controller;
 
+import com.demo.loan.management.config.CredentialRateLimiter;
 import com.demo.loan.management.dto.LoginRequestDTO;
+import com.demo.loan.management.dto.RefreshTokenRequestDTO;
 import com.demo.loan.management.dto.RegisterRequest;
 import com.demo.loan.management.dto.UserDTO;
 import com.demo.loan.management.model.User;
 import com.demo.loan.management.security.JwtUtil;
+import com.demo.loan.management.security.UserEpochRegistry;
+import com.demo.loan.management.security.VerifiedToken;
 import com.demo.loan.management.service.TokenBlacklistService;
 import com.demo.loan.management.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -18,6 +22,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.regex.Pattern;
 
 @RestController
@@ -30,6 +35,8 @@ public class AuthController {
     private final UserService userService;
     private final JwtUtil jwtUtil;
     private final TokenBlacklistService tokenBlacklistService;
+    private final CredentialRateLimiter credentialRateLimiter;
+    private final UserEpochRegistry userEpochRegistry;
 
     private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@(.+)$");
 
@@ -42,6 +49,8 @@ public class AuthController {
             return error("Invalid email format");
         }
 
+        credentialRateLimiter.checkIdentity(registerRequest.getEmail());
+
         if (userService.existsByEmail(registerRequest.getEmail())) {
             return error("Email already registered");
         }
@@ -59,6 +68,9 @@ public class AuthController {
     public ResponseEntity<Map<String, Object>> login(@RequestBody LoginRequestDTO loginRequestDTO) {
         Map<String, Object> response = new HashMap<>();
 
+        // Before BCrypt, so one account cannot be brute-forced from many IPs
+        credentialRateLimiter.checkIdentity(loginRequestDTO.getEmail());
+
         try {
             authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
@@ -70,27 +82,49 @@ public class AuthController {
             return error("Invalid email or password", 401);
         }
 
-        User user = userService.getUserByEmail(loginRequestDTO.getEmail())
+        // Read past the user cache, so the new tokens carry the current epoch even if it was bumped on another node
+        User user = userService.loadUserByEmail(loginRequestDTO.getEmail())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        String token = jwtUtil.generateToken(user.getEmail(), user.getRole().name());
-
         response.put("status", "success");
-        response.put("token", token);
+        response.put("token", jwtUtil.generateToken(user));
+        response.put("refreshToken", jwtUtil.generateRefreshToken(user));
+        response.put("expiresIn", jwtUtil.getAccessTokenExpirationMs() / 1000);
         response.put("email", user.getEmail());
         response.put("role", user.getRole().name());
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/refresh")
+    @Operation(summary = "Exchange a refresh token for a new access token")
+    public ResponseEntity<Map<String, Object>> refresh(@RequestBody RefreshTokenRequestDTO request) {
+        Optional<User> user = jwtUtil.verify(request.getRefreshToken())
+                .filter(VerifiedToken::isRefresh)
+                .flatMap(this::currentHolder);
+        if (user.isEmpty()) {
+            return error("Invalid or expired refresh token", 401);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "success");
+        response.put("token", jwtUtil.generateToken(user.get()));
+        response.put("expiresIn", jwtUtil.getAccessTokenExpirationMs() / 1000);
+        return ResponseEntity.ok(response);
+    }
+
     @PostMapping("/logout")
     @Operation(summary = "Logout a user")
-    public ResponseEntity<Map<String, Object>> logout(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<Map<String, Object>> logout(@RequestHeader("Authorization") String authHeader,
+                                                      @RequestBody(required = false) RefreshTokenRequestDTO request) {
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             return error("Invalid token format");
         }
 
         String token = authHeader.substring(7);
         tokenBlacklistService.blacklistToken(token);
+        if (request != null && request.getRefreshToken() != null) {
+            tokenBlacklistService.blacklistToken(request.getRefreshToken());
+        }
 
         Map<String, Object> response = new HashMap<>();
         response.put("status", "success");
@@ -98,6 +132,40 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/logout-all")
+    @Operation(summary = "Logout a user from every device")
+    public ResponseEntity<Map<String, Object>> logoutAll(@RequestHeader("Authorization") String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return error("Invalid token format");
+        }
+
+        Optional<User> user = jwtUtil.verify(authHeader.substring(7))
+                .filter(token -> !token.isRefresh())
+                .flatMap(this::currentHolder);
+        if (user.isEmpty()) {
+            return error("Invalid or expired token", 401);
+        }
+
+        // Bumping the epoch revokes every issued token at once, without a blacklist entry per token
+        userService.revokeAllTokens(user.get().getEmail());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "success");
+        response.put("message", "Logged out from all devices");
+        return ResponseEntity.ok(response);
+    }
+
+    // The user a verified token belongs to, unless the token was revoked on its own or by an epoch bump. The epoch
+    // is read from the table, not the per-instance user cache, so a bump made on another node is never missed
+    private Optional<User> currentHolder(VerifiedToken token) {
+        if (tokenBlacklistService.isTokenBlacklisted(token)
+                || userEpochRegistry.isStale(token.getSubject(), token.getEpoch())) {
+            return Optional.empty();
+        }
+        return userService.loadUserByEmail(token.getSubject())
+                .filter(user -> user.getTokenEpoch() <= token.getEpoch());
+    }
+
     private ResponseEntity<Map<String, Object>> error(String message) {
         return error(message, 400);
     }
@@ -1,5 +1,6 @@
 package com.demo.loan.management.controller;
 
+import com.demo.loan.management.dto.EmiHistoryDTO;
 import com.demo.loan.management.dto.EmiPaymentRequestDTO;
 import com.demo.loan.management.model.Emi;
 import com.demo.loan.management.service.EmiService;
@@ -37,6 +38,18 @@ public class EmiController {
         }
     }
 
+    @PutMapping("/pay/loan/{loanId}/installment/{installmentNumber}")
+    @Operation(summary = "Pay EMI installment", description = "Pay an installment of a loan by its number, including installments of virtual schedules that are not stored yet")
+    public ResponseEntity<String> payInstallment(@PathVariable Long loanId, @PathVariable int installmentNumber,
+                                                 @RequestBody EmiPaymentRequestDTO paymentRequest) {
+        try {
+            emiService.payInstallment(loanId, installmentNumber, paymentRequest);
+            return ResponseEntity.ok("EMI payment successful");
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Payment failed: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/loan/{loanId}")
     @Operation(summary = "Get EMIs by loan", description = "Fetches EMI schedule for a specific loan")
     public ResponseEntity<List<Emi>> getEmisByLoanId(@PathVariable Long loanId) {
@@ -46,8 +59,8 @@ public class EmiController {
 
     @GetMapping("/history")
     @Operation(summary = "Get EMI history", description = "Fetches EMI payment history for the logged-in user")
-    public ResponseEntity<List<Emi>> getEmiHistoryForUser() {
-        List<Emi> emis = emiService.getEmiHistoryForUser();
+    public ResponseEntity<List<EmiHistoryDTO>> getEmiHistoryForUser() {
+        List<EmiHistoryDTO> emis = emiService.getEmiHistoryForUser();
         return ResponseEntity.ok(emis);
     }
 }
@@ -1,6 +1,11 @@
 package com.demo.loan.management.controller;
 
+import com.demo.loan.management.dto.BulkLoanApprovalRequestDTO;
+import com.demo.loan.management.dto.CursorPageDTO;
+import com.demo.loan.management.dto.LoanApprovalResultDTO;
+import com.demo.loan.management.dto.LoanQuoteDTO;
 import com.demo.loan.management.model.Loan;
+import com.demo.loan.management.service.LoanQuoteService;
 import com.demo.loan.management.service.LoanService;
 import com.demo.loan.management.dto.LoanRequestDTO;
 import io.swagger.v3.oas.annotations.Operation;
@@ -9,6 +14,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
@@ -16,10 +22,14 @@ import java.util.List;
 @Tag(name = "Loan Controller", description = "Handles loan operations such as applying, viewing, and approving loans.")
 public class LoanController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final LoanService loanService;
+    private final LoanQuoteService loanQuoteService;
 
-    public LoanController(LoanService loanService) {
+    public LoanController(LoanService loanService, LoanQuoteService loanQuoteService) {
         this.loanService = loanService;
+        this.loanQuoteService = loanQuoteService;
     }
 
     @PostMapping("/apply")
@@ -28,11 +38,29 @@ public class LoanController {
         return ResponseEntity.ok(loanService.applyLoan(loanRequestDTO));
     }
 
+    @GetMapping("/quote")
+    @Operation(summary = "Quote EMI", description = "Calculate the EMI and total repayable for the given terms without applying for a loan.")
+    public ResponseEntity<LoanQuoteDTO> quoteLoan(@RequestParam BigDecimal amount,
+                                                  @RequestParam BigDecimal rate,
+                                                  @RequestParam Integer tenure) {
+        return ResponseEntity.ok(loanQuoteService.quote(amount, rate, tenure));
+    }
+
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Get All Loans (Admin)", description = "Fetch all loans, including both approved and pending. Admin-only access.")
-    public ResponseEntity<List<Loan>> getAllLoansIncludingPending() {
-        return ResponseEntity.ok(loanService.getAllLoansIncludingPending());
+    @Operation(summary = "Get All Loans (Admin)", description = "Fetch all loans, including both approved and pending, ordered by loan ID. "
+            + "Returns one page (size defaults to 50, at most 200); pass the X-Next-Cursor response header as 'after' "
+            + "to get the next page. The header is absent on the last page. Admin-only access.")
+    public ResponseEntity<List<Loan>> getAllLoansIncludingPending(@RequestParam(required = false) Long after,
+                                                                  @RequestParam(required = false) Integer size,
+                                                                  @RequestParam(required = false) String status,
+                                                                  @RequestParam(required = false) String type) {
+        CursorPageDTO<Loan> page = loanService.getAllLoansIncludingPending(after, size, status, type);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(page.getNextCursor()));
+        }
+        return response.body(page.getItems());
     }
 
     @GetMapping
@@ -59,4 +87,11 @@ public class LoanController {
     public ResponseEntity<Loan> approveLoan(@PathVariable Long loanId) {
         return ResponseEntity.ok(loanService.approveLoan(loanId));
     }
+
+    @PostMapping("/approve/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Approve Loans in Bulk", description = "Approve several loan applications at once and return a result per loan. Only accessible by ADMIN.")
+    public ResponseEntity<List<LoanApprovalResultDTO>> approveLoans(@RequestBody BulkLoanApprovalRequestDTO request) {
+        return ResponseEntity.ok(loanService.approveLoans(request.getLoanIds()));
+    }
 }
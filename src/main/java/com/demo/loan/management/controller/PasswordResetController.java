@@ -1,5 +1,6 @@
 package com.demo.loan.management.controller;
 
+import com.demo.loan.management.config.CredentialRateLimiter;
 import com.demo.loan.management.dto.PasswordResetEmailRequestDto;
 import com.demo.loan.management.dto.PasswordResetOtpRequestDto;
 import com.demo.loan.management.dto.PasswordResetOtpResetRequestDto;
@@ -18,14 +19,17 @@ import org.springframework.web.bind.annotation.*;
 public class PasswordResetController {
 
     private final PasswordResetService passwordResetService;
+    private final CredentialRateLimiter credentialRateLimiter;
 
     @Operation(summary = "Request password reset via email", description = "Initiate password reset by sending a reset link to the provided email address.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Password reset link sent to email"),
-            @ApiResponse(responseCode = "400", description = "Invalid email address provided")
+            @ApiResponse(responseCode = "400", description = "Invalid email address provided"),
+            @ApiResponse(responseCode = "429", description = "Too many reset requests for this email address")
     })
     @PostMapping("/email")
     public ResponseEntity<String> requestPasswordResetByEmail(@RequestBody PasswordResetEmailRequestDto request) {
+        credentialRateLimiter.checkIdentity(request.getEmail());
         passwordResetService.initiateResetByEmail(request.getEmail());
         return ResponseEntity.ok("Password reset link sent to email.");
     }
@@ -33,10 +37,12 @@ public class PasswordResetController {
     @Operation(summary = "Request password reset OTP", description = "Initiate password reset by sending an OTP to the provided phone number.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "OTP sent to mobile number"),
-            @ApiResponse(responseCode = "400", description = "Invalid phone number provided")
+            @ApiResponse(responseCode = "400", description = "Invalid phone number provided"),
+            @ApiResponse(responseCode = "429", description = "Too many reset requests for this phone number")
     })
     @PostMapping("/otp")
     public ResponseEntity<String> requestPasswordResetByOtp(@RequestBody PasswordResetOtpRequestDto request) {
+        credentialRateLimiter.checkIdentity(request.getPhoneNumber());
         passwordResetService.initiateResetByOTP(request.getPhoneNumber());
         return ResponseEntity.ok("OTP sent to mobile number.");
     }
@@ -44,10 +50,12 @@ public class PasswordResetController {
     @Operation(summary = "Reset password using token", description = "Reset the user's password using the password reset token.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Password successfully reset"),
-            @ApiResponse(responseCode = "400", description = "Invalid or expired reset token")
+            @ApiResponse(responseCode = "400", description = "Invalid or expired reset token"),
+            @ApiResponse(responseCode = "429", description = "Too many attempts with this reset token")
     })
     @PostMapping("/reset")
     public ResponseEntity<String> resetPassword(@RequestBody PasswordResetTokenDto request) {
+        credentialRateLimiter.checkIdentity(request.getToken());
         passwordResetService.resetPassword(request.getToken(), request.getNewPassword());
         return ResponseEntity.ok("Password successfully reset.");
     }
@@ -55,11 +63,14 @@ public class PasswordResetController {
     @Operation(summary = "Reset password using OTP", description = "Reset the user's password by verifying the OTP sent to the user's phone number.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Password successfully reset"),
-            @ApiResponse(responseCode = "400", description = "Invalid OTP provided")
+            @ApiResponse(responseCode = "400", description = "Invalid OTP provided"),
+            @ApiResponse(responseCode = "429", description = "Too many OTP attempts for this phone number")
     })
     @PostMapping("/reset-otp")
     public ResponseEntity<String> resetPasswordWithOtp(@RequestBody PasswordResetOtpResetRequestDto request) {
-        passwordResetService.resetPasswordWithOTP(request.getOtp(), request.getNewPassword());
+        // Per phone number, however many IPs the guesses come from; shares the budget of OTP requests
+        credentialRateLimiter.checkIdentity(request.getPhoneNumber());
+        passwordResetService.resetPasswordWithOTP(request.getPhoneNumber(), request.getOtp(), request.getNewPassword());
         return ResponseEntity.ok("Password successfully reset.");
     }
 }
@@ -1,7 +1,9 @@
 package com.demo.loan.management.controller;
 
+import com.demo.loan.management.dto.SmsDeliveryDTO;
 import com.demo.loan.management.dto.SmsRequest;
-import com.demo.loan.management.service.SmsService;
+import com.demo.loan.management.exception.ResourceNotFoundException;
+import com.demo.loan.management.service.SmsDispatcher;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -13,11 +15,18 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "SMS Controller", description = "Handles SMS functionality via Twilio.")
 public class SmsController {
 
-    private final SmsService smsService;
+    private final SmsDispatcher smsDispatcher;
 
     @PostMapping("/send")
-    @Operation(summary = "Send SMS", description = "Send a custom SMS to a specific phone number.")
+    @Operation(summary = "Send SMS", description = "Queue a custom SMS to a specific phone number; returns its delivery ID.")
     public String sendSms(@RequestBody SmsRequest smsRequest) {
-        return smsService.sendSms(smsRequest.getTo(), smsRequest.getBody());
+        return smsDispatcher.send(smsRequest.getTo(), smsRequest.getBody());
+    }
+
+    @GetMapping("/{deliveryId}")
+    @Operation(summary = "Get SMS Status", description = "Fetch the delivery status of a queued SMS.")
+    public SmsDeliveryDTO getStatus(@PathVariable String deliveryId) {
+        return smsDispatcher.status(deliveryId)
+                .orElseThrow(() -> new ResourceNotFoundException("SMS delivery not found: " + deliveryId));
     }
 }
@@ -2,13 +2,19 @@ package com.demo.loan.management.controller;
 
 import com.demo.loan.management.model.Transaction;
 import com.demo.loan.management.dto.TransactionDTO;
+import com.demo.loan.management.service.TransactionExportService;
+import com.demo.loan.management.service.TransactionExportService.ExportFormat;
 import com.demo.loan.management.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -19,6 +25,9 @@ public class TransactionController {
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private TransactionExportService transactionExportService;
+
     @PostMapping("/process")
     @Operation(summary = "Process Transaction", description = "Process a new EMI transaction using transaction details.")
     public ResponseEntity<Transaction> processTransaction(@RequestBody TransactionDTO transactionDTO) {
@@ -37,6 +46,19 @@ public class TransactionController {
         return ResponseEntity.ok(transactionService.getAllTransactions());
     }
 
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Export All Transactions", description = "Stream the full transaction ledger as NDJSON (default) or CSV without buffering it in memory.")
+    public void exportTransactions(@RequestParam(defaultValue = "ndjson") String format,
+                                   HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"transactions." + exportFormat.getFileExtension() + "\"");
+        transactionExportService.export(exportFormat, response.getOutputStream());
+    }
+
     @GetMapping("/loan/{loanId}")
     @Operation(summary = "Get Transactions by Loan", description = "Retrieve all transactions for a specific loan.")
     public ResponseEntity<List<Transaction>> getTransactionsByLoan(@PathVariable Long loanId) {
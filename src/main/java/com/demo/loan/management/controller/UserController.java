@@ -1,5 +1,6 @@
 package com.demo.loan.management.controller;
 
+import com.demo.loan.management.config.CredentialRateLimiter;
 import com.demo.loan.management.model.User;
 import com.demo.loan.management.security.JwtUtil;
 import com.demo.loan.management.service.UserDetailsServiceImpl;
@@ -22,21 +23,27 @@ public class UserController {
     private final UserDetailsServiceImpl userDetailsService;
     private final UserService userService;
     private final JwtUtil jwtUtil;
+    private final CredentialRateLimiter credentialRateLimiter;
 
     // Constructor for dependency injection
     public UserController(AuthenticationManager authenticationManager,
                           UserDetailsServiceImpl userDetailsService,
                           UserService userService,
-                          JwtUtil jwtUtil) {
+                          JwtUtil jwtUtil,
+                          CredentialRateLimiter credentialRateLimiter) {
         this.authenticationManager = authenticationManager;
         this.userDetailsService = userDetailsService;
         this.userService = userService;
         this.jwtUtil = jwtUtil;
+        this.credentialRateLimiter = credentialRateLimiter;
     }
 
     @PostMapping("/login")
     public LoginResponseDTO login(@RequestBody LoginRequestDTO request) {
-        Optional<User> userOptional = userService.getUserByEmail(request.getEmail());
+        credentialRateLimiter.checkIdentity(request.getEmail());
+
+        // Read past the user cache, so the new tokens carry the current epoch even if it was bumped on another node
+        Optional<User> userOptional = userService.loadUserByEmail(request.getEmail());
         if (userOptional.isEmpty()) {
             throw new RuntimeException("User not found");
         }
@@ -52,8 +59,8 @@ public class UserController {
 
         User user = userOptional.get();
         UserDetails userDetails = userDetailsService.loadUserByUsername(request.getEmail());
-        String token = jwtUtil.generateToken(user.getEmail(), user.getRole().name());
+        String token = jwtUtil.generateToken(user);
 
-        return new LoginResponseDTO(token, user.getRole().name());
+        return new LoginResponseDTO(token, jwtUtil.generateRefreshToken(user), user.getRole().name());
     }
 }
\ No newline at end of file
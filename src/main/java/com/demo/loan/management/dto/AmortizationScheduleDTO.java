@@ -0,0 +1,25 @@
+package com.demo.loan.management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@Schema(description = "Full amortization schedule for a loan")
+public class AmortizationScheduleDTO {
+
+    @Schema(description = "Regular monthly installment", example = "856.07")
+    private final BigDecimal emiAmount;
+
+    @Schema(description = "Sum of all installments, including the rounding-adjusted last one", example = "10272.84")
+    private final BigDecimal totalRepayable;
+
+    @Schema(description = "Total interest paid over the tenure", example = "272.84")
+    private final BigDecimal totalInterest;
+
+    @Schema(description = "Per-installment principal/interest/balance split")
+    private final List<InstallmentDTO> installments;
+}
@@ -0,0 +1,18 @@
+package com.demo.loan.management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Request DTO for approving several loans in one call")
+public class BulkLoanApprovalRequestDTO {
+
+    @Schema(description = "IDs of the loans to approve", example = "[1, 2, 3]")
+    private List<Long> loanIds;
+}
@@ -0,0 +1,18 @@
+package com.demo.loan.management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@Schema(description = "One page of a keyset-paginated listing")
+public class CursorPageDTO<T> {
+
+    @Schema(description = "Items on this page, in ascending ID order")
+    private final List<T> items;
+
+    @Schema(description = "Cursor to pass as 'after' for the next page; null when this is the last page", example = "1050")
+    private final Long nextCursor;
+}
@@ -0,0 +1,27 @@
+package com.demo.loan.management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Getter
+@AllArgsConstructor
+@Schema(description = "Unpaid installments of approved loans grouped by days past due")
+public class DelinquencyBucketDTO {
+
+    @Schema(description = "Bucket label", example = "1-30")
+    private final String label;
+
+    @Schema(description = "Smallest number of days past due in the bucket", example = "1")
+    private final int minDaysPastDue;
+
+    @Schema(description = "Largest number of days past due in the bucket, empty for the open-ended bucket", example = "30")
+    private final Integer maxDaysPastDue;
+
+    @Schema(description = "Number of overdue installments in the bucket", example = "42")
+    private final long installments;
+
+    @Schema(description = "Total amount of overdue installments in the bucket", example = "35954.94")
+    private final BigDecimal amount;
+}
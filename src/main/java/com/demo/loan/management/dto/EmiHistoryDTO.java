@@ -0,0 +1,44 @@
+package com.demo.loan.management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read model for the EMI history screen. Selected as scalars in one joined query instead of loading
+ * each EMI together with its loan and the loan's user.
+ */
+@Getter
+@AllArgsConstructor
+@Schema(description = "EMI entry in the authenticated user's payment history")
+public class EmiHistoryDTO {
+
+    @Schema(description = "EMI ID", example = "12")
+    private final Long emiId;
+
+    @Schema(description = "Loan the EMI belongs to", example = "101")
+    private final Long loanId;
+
+    @Schema(description = "Type of the loan", example = "HOME")
+    private final String loanType;
+
+    @Schema(description = "1-based installment number", example = "3")
+    private final Integer installmentNumber;
+
+    @Schema(description = "Installment amount", example = "856.07")
+    private final BigDecimal emiAmount;
+
+    @Schema(description = "Due date of the installment")
+    private final LocalDateTime dueDate;
+
+    @Schema(description = "EMI status", example = "PAID")
+    private final String status;
+
+    @Schema(description = "Payment status", example = "COMPLETED")
+    private final String paymentStatus;
+
+    @Schema(description = "When the EMI was paid")
+    private final LocalDateTime paidOn;
+}
@@ -0,0 +1,27 @@
+package com.demo.loan.management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Getter
+@AllArgsConstructor
+@Schema(description = "A single installment of an amortization schedule")
+public class InstallmentDTO {
+
+    @Schema(description = "1-based installment number", example = "1")
+    private final int installmentNumber;
+
+    @Schema(description = "Total amount due for this installment", example = "856.07")
+    private final BigDecimal payment;
+
+    @Schema(description = "Portion of the payment that reduces the principal", example = "814.41")
+    private final BigDecimal principal;
+
+    @Schema(description = "Portion of the payment that covers interest", example = "41.67")
+    private final BigDecimal interest;
+
+    @Schema(description = "Outstanding principal after this installment", example = "9185.59")
+    private final BigDecimal balance;
+}
@@ -0,0 +1,35 @@
+package com.demo.loan.management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Getter
+@AllArgsConstructor
+@Schema(description = "Outcome of approving a single loan within a bulk approval")
+public class LoanApprovalResultDTO {
+
+    @Schema(description = "ID of the loan", example = "1")
+    private final Long loanId;
+
+    @Schema(description = "Whether the loan was approved by this request", example = "true")
+    private final boolean approved;
+
+    @Schema(description = "EMI amount set on approval", example = "856.07")
+    private final BigDecimal emiAmount;
+
+    @Schema(description = "Total repayable set on approval", example = "10272.84")
+    private final BigDecimal totalRepayable;
+
+    @Schema(description = "Reason the loan was not approved", example = "Loan is already approved.")
+    private final String message;
+
+    public static LoanApprovalResultDTO approved(Long loanId, AmortizationScheduleDTO schedule) {
+        return new LoanApprovalResultDTO(loanId, true, schedule.getEmiAmount(), schedule.getTotalRepayable(), "Loan approved.");
+    }
+
+    public static LoanApprovalResultDTO failed(Long loanId, String message) {
+        return new LoanApprovalResultDTO(loanId, false, null, null, message);
+    }
+}
@@ -0,0 +1,30 @@
+package com.demo.loan.management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Getter
+@AllArgsConstructor
+@Schema(description = "EMI quote for a set of loan terms, computed without creating a loan")
+public class LoanQuoteDTO {
+
+    @Schema(description = "Principal amount", example = "100000.00")
+    private final BigDecimal loanAmount;
+
+    @Schema(description = "Annual interest rate in percent", example = "7.50")
+    private final BigDecimal interestRate;
+
+    @Schema(description = "Tenure of the loan in months", example = "24")
+    private final int loanTenure;
+
+    @Schema(description = "Monthly installment", example = "4499.94")
+    private final BigDecimal emiAmount;
+
+    @Schema(description = "Sum of all installments", example = "107998.56")
+    private final BigDecimal totalRepayable;
+
+    @Schema(description = "Total interest over the tenure", example = "7998.56")
+    private final BigDecimal totalInterest;
+}
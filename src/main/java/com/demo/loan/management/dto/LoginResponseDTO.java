@@ -14,11 +14,15 @@ public class LoginResponseDTO {
     @Schema(description = "JWT token for authenticated user")
     private String token;
 
+    @Schema(description = "Refresh token used to obtain new access tokens")
+    private String refreshToken;
+
     @Schema(description = "Role of the authenticated user", example = "USER")
     private String role;
 
-    public LoginResponseDTO(String token, String role) {
+    public LoginResponseDTO(String token, String refreshToken, String role) {
         this.token = token;
+        this.refreshToken = refreshToken;
         this.role = role;
     }
 
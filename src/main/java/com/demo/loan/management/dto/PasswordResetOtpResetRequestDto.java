@@ -7,6 +7,9 @@ import lombok.Data;
 @Schema(description = "DTO for resetting password using OTP")
 public class PasswordResetOtpResetRequestDto {
 
+    @Schema(description = "Phone number the OTP was sent to", example = "+1234567890")
+    private String phoneNumber;
+
     @Schema(description = "One-Time Password sent via SMS", example = "123456")
     private String otp;
 
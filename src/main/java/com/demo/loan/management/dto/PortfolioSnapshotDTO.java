@@ -0,0 +1,36 @@
+package com.demo.loan.management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@Schema(description = "Portfolio-wide loan aggregates, kept up to date as loans are approved and EMIs are paid")
+public class PortfolioSnapshotDTO {
+
+    @Schema(description = "Date the delinquency buckets and monthly collections are evaluated against")
+    private final LocalDate asOf;
+
+    @Schema(description = "Sum of all unpaid installments of approved loans", example = "1250000.00")
+    private final BigDecimal totalOutstanding;
+
+    @Schema(description = "Number of unpaid installments of approved loans", example = "1460")
+    private final long outstandingInstallments;
+
+    @Schema(description = "Amount collected through EMI payments in the current calendar month", example = "85607.00")
+    private final BigDecimal collectedThisMonth;
+
+    @Schema(description = "Number of EMI payments in the current calendar month", example = "100")
+    private final long paymentsThisMonth;
+
+    @Schema(description = "Overdue installments by days past due")
+    private final List<DelinquencyBucketDTO> delinquencyBuckets;
+
+    @Schema(description = "When the aggregates were last rebuilt from the database")
+    private final LocalDateTime lastRebuiltAt;
+}
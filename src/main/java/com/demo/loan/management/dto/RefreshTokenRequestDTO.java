@@ -0,0 +1,15 @@
+package com.demo.loan.management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO carrying a refresh token")
+public class RefreshTokenRequestDTO {
+
+    @Schema(description = "Refresh token issued at login", example = "eyJhbGciOiJIUzI1NiJ9...")
+    private String refreshToken;
+}
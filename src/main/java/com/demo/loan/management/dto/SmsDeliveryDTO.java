@@ -0,0 +1,33 @@
+package com.demo.loan.management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+@Schema(description = "Delivery status of a queued SMS")
+public class SmsDeliveryDTO {
+
+    @Schema(description = "Delivery ID returned when the SMS was queued", example = "3f2b8c1e-6a0d-4f4e-9d57-2a9b1c0e7d11")
+    private final String deliveryId;
+
+    @Schema(description = "QUEUED, SENDING, RETRYING, SENT or FAILED", example = "SENT")
+    private final String status;
+
+    @Schema(description = "Number of times the provider was called", example = "1")
+    private final int attempts;
+
+    @Schema(description = "Provider message ID once sent", example = "SM123")
+    private final String providerMessageId;
+
+    @Schema(description = "Error of the last failed attempt", example = "Service unavailable")
+    private final String lastError;
+
+    @Schema(description = "When the SMS was queued")
+    private final LocalDateTime queuedAt;
+
+    @Schema(description = "When the status last changed")
+    private final LocalDateTime updatedAt;
+}
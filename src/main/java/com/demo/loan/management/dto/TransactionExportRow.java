@@ -0,0 +1,25 @@
+package com.demo.loan.management.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat, read-only view of a transaction for ledger exports. Selected as scalars so streaming an export
+ * never loads the EMI/loan/user graph behind each row.
+ */
+@Getter
+@AllArgsConstructor
+@JsonPropertyOrder({"transactionId", "emiId", "loanId", "transactionAmount", "paymentMethod", "transactionDate", "transactionStatus"})
+public class TransactionExportRow {
+
+    private final Long transactionId;
+    private final Long emiId;
+    private final Long loanId;
+    private final BigDecimal transactionAmount;
+    private final String paymentMethod;
+    private final LocalDateTime transactionDate;
+    private final String transactionStatus;
+}
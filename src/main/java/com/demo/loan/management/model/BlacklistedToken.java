@@ -5,7 +5,16 @@ import lombok.*;
 
 import java.time.LocalDateTime;
 
+/**
+ * A revoked token, identified by the hex SHA-256 of its {@code jti} rather than the bearer string, so the unique
+ * index stays fixed-width. Rows are useless once {@code expiresAt} passes and are range-deleted on that column;
+ * other instances poll for new rows on {@code blacklisted_at}.
+ */
 @Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at"),
+        @Index(name = "idx_revoked_tokens_blacklisted_at", columnList = "blacklisted_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -15,9 +24,12 @@ public class BlacklistedToken {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
-    private String token;
+    @Column(name = "token_key", nullable = false, unique = true, length = 64)
+    private String tokenKey;
 
-    @Column(nullable = false)
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "blacklisted_at", nullable = false)
     private LocalDateTime blacklistedAt;
 }
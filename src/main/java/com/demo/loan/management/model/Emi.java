@@ -7,20 +7,26 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "emis")
+@Table(name = "emis",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"loan_id", "installment_number"}),
+        indexes = @Index(name = "idx_emis_due_date_id", columnList = "due_date, emi_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Emi {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "emi_seq")
+    @SequenceGenerator(name = "emi_seq", sequenceName = "emi_seq", allocationSize = 50)
     private Long emiId;
 
     @ManyToOne
     @JoinColumn(name = "loan_id", nullable = false)
     private Loan loan;
 
+    @Column(name = "installment_number")
+    private Integer installmentNumber;
+
     private BigDecimal emiAmount;
     private String status;
     private LocalDateTime dueDate;
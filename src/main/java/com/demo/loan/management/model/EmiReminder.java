@@ -0,0 +1,41 @@
+package com.demo.loan.management.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records that a reminder for one EMI and one reminder window was queued. The unique key is what keeps the reminder
+ * job from sending the same reminder twice, including when it is re-run after a crash.
+ */
+@Entity
+@Table(name = "emi_reminders",
+        uniqueConstraints = @UniqueConstraint(name = "uk_emi_reminders_emi_window", columnNames = {"emi_id", "reminder_window"}),
+        indexes = @Index(name = "idx_emi_reminders_created_at", columnList = "created_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmiReminder {
+    public static final String WINDOW_DUE_SOON = "DUE_SOON";
+    public static final String WINDOW_OVERDUE_PREFIX = "OVERDUE_";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "emi_id", nullable = false)
+    private Long emiId;
+
+    // DUE_SOON before the due date, OVERDUE_<n> for the n-th overdue interval after it
+    @Column(name = "reminder_window", nullable = false, length = 32)
+    private String reminderWindow;
+
+    // The outbox row that carries the email
+    @Column(name = "outbox_id")
+    private Long outboxId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -1,5 +1,6 @@
 package com.demo.loan.management.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -7,12 +8,18 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "loans")
+@Table(name = "loans", indexes = {
+        @Index(name = "idx_loans_status_id", columnList = "loan_status, loan_id"),
+        @Index(name = "idx_loans_type_id", columnList = "loan_type, loan_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Loan {
+    public static final String SCHEDULE_MATERIALIZED = "MATERIALIZED";
+    public static final String SCHEDULE_VIRTUAL = "VIRTUAL";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long loanId;
@@ -45,6 +52,17 @@ public class Loan {
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    // MATERIALIZED (null on older rows) stores every EMI up front; VIRTUAL derives unpaid installments on read
+    @Column(length = 16)
+    private String scheduleMode;
+
+    private LocalDateTime approvedAt;
+
+    @JsonIgnore
+    public boolean isVirtualSchedule() {
+        return SCHEDULE_VIRTUAL.equals(scheduleMode);
+    }
+
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now(); // ✅ Ensures correct defaulting
@@ -0,0 +1,59 @@
+package com.demo.loan.management.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * An email waiting to be delivered, written in the same transaction as the change that caused it. The dispatcher
+ * claims due rows by (status, next_attempt_at); a claimed row stays SENDING until its lease runs out, after which it
+ * is due again, so a dispatcher that dies mid-send never loses a message.
+ */
+@Entity
+@Table(name = "notification_outbox", indexes = @Index(name = "idx_notification_outbox_due", columnList = "status, next_attempt_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationOutbox {
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_SENDING = "SENDING";
+    public static final String STATUS_SENT = "SENT";
+    public static final String STATUS_FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // The in-app notification this email belongs to, if any
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "notification_id")
+    private Notification notification;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false, length = 4000)
+    private String body;
+
+    @Column(nullable = false, length = 16)
+    private String status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+}
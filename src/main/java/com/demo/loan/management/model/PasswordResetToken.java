@@ -6,7 +6,7 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "password_reset_tokens")
+@Table(name = "password_reset_tokens", indexes = @Index(name = "idx_password_reset_tokens_expiry_time", columnList = "expiry_time"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,33 @@
+package com.demo.loan.management.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One token epoch bump (password reset, logout everywhere, deletion), written so every instance learns about it.
+ * Rows only matter while tokens issued before the change can still be unexpired and are range-deleted on
+ * {@code changed_at} afterwards.
+ */
+@Entity
+@Table(name = "token_epoch_changes", indexes = @Index(name = "idx_token_epoch_changes_changed_at", columnList = "changed_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TokenEpochChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String email;
+
+    @Column(nullable = false)
+    private long epoch;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
@@ -2,10 +2,11 @@ package com.demo.loan.management.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Data
-@Builder
+@Builder(toBuilder = true)
 @Table(name = "users")
 @NoArgsConstructor
 @AllArgsConstructor
@@ -31,4 +32,10 @@ public class User {
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private Role role;
+
+    // Bumped whenever existing tokens must stop being trusted; issued tokens carry it in the "epoch" claim
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(name = "token_epoch", nullable = false)
+    private long tokenEpoch = 0L;
 }
@@ -2,9 +2,34 @@ package com.demo.loan.management.repository;
 
 import com.demo.loan.management.model.BlacklistedToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface BlacklistedTokenRepository extends JpaRepository<BlacklistedToken, Long> {
-    Optional<BlacklistedToken> findByToken(String token);
+    boolean existsByTokenKey(String tokenKey);
+
+    List<BlacklistedToken> findByExpiresAtAfter(LocalDateTime now);
+
+    // Revocations recorded since the last poll, on any instance
+    List<BlacklistedToken> findByBlacklistedAtAfter(LocalDateTime since);
+
+    // Range delete on the expires_at index; an expired token is rejected before revocation is even checked
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM BlacklistedToken b WHERE b.expiresAt < :now")
+    int deleteByExpiresAtBefore(@Param("now") LocalDateTime now);
+
+    // (token, blacklisted_at) rows of the table used before revocations were keyed by jti digest
+    @Query(value = "SELECT token, blacklisted_at FROM blacklisted_token", nativeQuery = true)
+    List<Object[]> findLegacyRows();
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM blacklisted_token", nativeQuery = true)
+    int deleteLegacyRows();
 }
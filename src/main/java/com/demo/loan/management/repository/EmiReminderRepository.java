@@ -0,0 +1,27 @@
+package com.demo.loan.management.repository;
+
+import com.demo.loan.management.model.EmiReminder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmiReminderRepository extends JpaRepository<EmiReminder, Long> {
+
+    // (emiId, reminderWindow) pairs already queued for the given EMIs
+    @Query("SELECT r.emiId, r.reminderWindow FROM EmiReminder r WHERE r.emiId IN :emiIds")
+    List<Object[]> findWindowsByEmiIds(@Param("emiIds") Collection<Long> emiIds);
+
+    // Range delete on the created_at index; rows older than every reminder window are never consulted again
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM EmiReminder r WHERE r.createdAt < :cutoff")
+    int deleteByCreatedAtBefore(@Param("cutoff") LocalDateTime cutoff);
+}
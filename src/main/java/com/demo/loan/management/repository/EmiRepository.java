@@ -1,11 +1,18 @@
 package com.demo.loan.management.repository;
 
+import com.demo.loan.management.dto.EmiHistoryDTO;
 import com.demo.loan.management.model.Emi;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface EmiRepository extends JpaRepository<Emi, Long> {
@@ -34,8 +41,45 @@ public interface EmiRepository extends JpaRepository<Emi, Long> {
     List<Emi> findByLoanLoanIdAndDueDateBetween(Long loanId, LocalDate startDate, LocalDate endDate);
 
     /**
-     Find all EMIs for a specific user (via their loans).
+     EMI history for a specific user (via their loans), projected in a single query without loading loans or users.
      */
-    List<Emi> findByLoanUserUserId(Long userId);
+    @Query("SELECT new com.demo.loan.management.dto.EmiHistoryDTO(e.emiId, l.loanId, l.loanType, e.installmentNumber, " +
+            "e.emiAmount, e.dueDate, e.status, e.paymentStatus, e.paidOn) " +
+            "FROM Emi e JOIN e.loan l WHERE l.user.userId = :userId ORDER BY l.loanId, e.dueDate, e.emiId")
+    List<EmiHistoryDTO> findHistoryByUserId(@Param("userId") Long userId);
+
+    /**
+     Find the stored row for one installment of a loan (virtual schedules only store some of them).
+     */
+    Optional<Emi> findByLoanLoanIdAndInstallmentNumber(Long loanId, Integer installmentNumber);
+
+    /**
+     (loanId, installmentNumber) pairs already stored for the given loans.
+     */
+    @Query("SELECT e.loan.loanId, e.installmentNumber FROM Emi e WHERE e.loan.loanId IN :loanIds AND e.installmentNumber IS NOT NULL")
+    List<Object[]> findInstallmentNumbersByLoanIds(@Param("loanIds") Collection<Long> loanIds);
+
+    /**
+     (dueDate, count, sum of emiAmount) of unpaid EMIs on approved loans, one row per due date.
+     */
+    @Query("SELECT CAST(e.dueDate AS LocalDate), COUNT(e), SUM(e.emiAmount) FROM Emi e " +
+            "WHERE e.loan.loanStatus = 'APPROVED' AND (e.status IS NULL OR e.status <> 'PAID') " +
+            "GROUP BY CAST(e.dueDate AS LocalDate)")
+    List<Object[]> sumUnpaidByDueDate();
+
+    /**
+     One keyset page of unpaid EMIs on approved loans due before {@code until}, ordered by (dueDate, emiId) and
+     starting after the given cursor, so each page is one contiguous range of the (due_date, emi_id) index. Rows are
+     (emiId, dueDate, emiAmount, installmentNumber, loanId, user email), so no entities are loaded.
+     */
+    @Query("SELECT e.emiId, e.dueDate, e.emiAmount, e.installmentNumber, l.loanId, u.email FROM Emi e " +
+            "JOIN e.loan l JOIN l.user u " +
+            "WHERE l.loanStatus = 'APPROVED' " +
+            "AND (e.status IS NULL OR e.status <> 'PAID') AND e.dueDate < :until " +
+            "AND (e.dueDate > :afterDueDate OR (e.dueDate = :afterDueDate AND e.emiId > :afterEmiId)) " +
+            "ORDER BY e.dueDate ASC, e.emiId ASC")
+    List<Object[]> findUnpaidPageAfter(@Param("until") LocalDateTime until,
+                                       @Param("afterDueDate") LocalDateTime afterDueDate,
+                                       @Param("afterEmiId") Long afterEmiId, Limit limit);
 
 }
@@ -1,6 +1,7 @@
 package com.demo.loan.management.repository;
 
 import com.demo.loan.management.model.Loan;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -16,4 +17,10 @@ public interface LoanRepository extends JpaRepository<Loan, Long> {
     boolean existsActiveLoan(@Param("userId") Long userId, @Param("loanType") String loanType);
     Optional<Loan> findByUserUserIdAndLoanTypeAndLoanStatus(Long userId, String loanType, String loanStatus);
     List<Loan> findByLoanStatus(String loanStatus);
+    @Query("SELECT l FROM Loan l JOIN FETCH l.user WHERE l.loanId > :afterId " +
+            "AND (:loanStatus IS NULL OR l.loanStatus = :loanStatus) " +
+            "AND (:loanType IS NULL OR l.loanType = :loanType) ORDER BY l.loanId ASC")
+    List<Loan> findPageAfter(@Param("afterId") Long afterId, @Param("loanStatus") String loanStatus,
+                             @Param("loanType") String loanType, Limit limit);
+    List<Loan> findByScheduleModeAndLoanStatusAndLoanIdGreaterThanOrderByLoanIdAsc(String scheduleMode, String loanStatus, Long loanId, Limit limit);
 }
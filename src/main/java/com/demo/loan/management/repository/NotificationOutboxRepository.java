@@ -0,0 +1,33 @@
+package com.demo.loan.management.repository;
+
+import com.demo.loan.management.model.NotificationOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    // Rows locked by another dispatcher are skipped (FOR UPDATE SKIP LOCKED), so instances never claim the same row
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM NotificationOutbox o WHERE o.status IN :statuses AND o.nextAttemptAt <= :now " +
+            "ORDER BY o.nextAttemptAt ASC, o.id ASC")
+    List<NotificationOutbox> findDueForUpdate(@Param("statuses") Collection<String> statuses,
+                                              @Param("now") LocalDateTime now, Limit limit);
+
+    // One statement for every delivered row of a batch
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.status = :status, o.sentAt = :sentAt, o.lastError = NULL WHERE o.id IN :ids")
+    int markDelivered(@Param("ids") Collection<Long> ids, @Param("status") String status,
+                      @Param("sentAt") LocalDateTime sentAt);
+}
@@ -3,15 +3,25 @@ package com.demo.loan.management.repository;
 import com.demo.loan.management.model.PasswordResetToken;
 import com.demo.loan.management.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface PasswordResetTokenRepository extends JpaRepository<PasswordResetToken, Long> {
 
     Optional<PasswordResetToken> findByToken(String token);
-    Optional<PasswordResetToken> findByOtp(String otp);
     Optional<PasswordResetToken> findByUser(User user);
     void deleteByUser(User user);
+
+    // Range delete on the expiry_time index; credentials are never looked up once expired
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM PasswordResetToken t WHERE t.expiryTime < :now")
+    int deleteByExpiryTimeBefore(@Param("now") LocalDateTime now);
 }
@@ -0,0 +1,24 @@
+package com.demo.loan.management.repository;
+
+import com.demo.loan.management.model.TokenEpochChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TokenEpochChangeRepository extends JpaRepository<TokenEpochChange, Long> {
+
+    List<TokenEpochChange> findByChangedAtAfter(LocalDateTime since);
+
+    // Range delete on the changed_at index; tokens issued before these changes have all expired
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM TokenEpochChange c WHERE c.changedAt < :cutoff")
+    int deleteByChangedAtBefore(@Param("cutoff") LocalDateTime cutoff);
+}
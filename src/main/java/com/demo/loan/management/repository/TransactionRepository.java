@@ -1,13 +1,34 @@
 package com.demo.loan.management.repository;
 
+import com.demo.loan.management.dto.TransactionExportRow;
 import com.demo.loan.management.model.Transaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     List<Transaction> findByEmiEmiId(Long emiId);
     boolean existsByEmiEmiIdAndTransactionStatus(Long emiId, String transactionStatus);
     List<Transaction> findByEmi_Loan_LoanId(Long loanId);
 
+    // Forward-only scan of the whole ledger; must be consumed inside a transaction and closed
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.demo.loan.management.dto.TransactionExportRow(t.transactionId, e.emiId, e.loan.loanId, " +
+            "t.transactionAmount, t.paymentMethod, t.transactionDate, t.transactionStatus) " +
+            "FROM Transaction t JOIN t.emi e ORDER BY t.transactionId")
+    Stream<TransactionExportRow> streamExportRows();
+
+    // (year, month, count, sum of amount) of successful EMI payments since the given time, one row per month
+    @Query("SELECT YEAR(t.transactionDate), MONTH(t.transactionDate), COUNT(t), SUM(t.transactionAmount) " +
+            "FROM Transaction t WHERE t.transactionStatus = 'SUCCESS' AND t.transactionDate >= :since " +
+            "GROUP BY YEAR(t.transactionDate), MONTH(t.transactionDate)")
+    List<Object[]> sumSuccessfulByMonthSince(@Param("since") LocalDateTime since);
 
 }
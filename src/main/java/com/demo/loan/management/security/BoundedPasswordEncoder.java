@@ -0,0 +1,126 @@
+package com.demo.loan.management.security;
+
+import com.demo.loan.management.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing and verification on a small fixed pool with a bounded queue, so a login storm uses at most
+ * {@code threads} cores for BCrypt instead of every request thread. Callers still wait for their result, but when
+ * the queue is full they are turned away at once with a 429 rather than piling up behind it.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final String METRIC_PREFIX = "password.hashing";
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Timer waitTimer;
+    private final Timer hashTimer;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.waitTimer = Timer.builder(METRIC_PREFIX + ".wait").register(meterRegistry);
+        this.hashTimer = Timer.builder(METRIC_PREFIX + ".duration").register(meterRegistry);
+        this.rejected = Counter.builder(METRIC_PREFIX + ".rejected").register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".queue.size", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    /**
+     * Highest BCrypt strength whose hash time stays within {@code targetMs} on this machine, clamped to
+     * [{@code minStrength}, {@code maxStrength}]. Each extra round doubles the cost, so one timed hash at the
+     * minimum strength is enough to extrapolate.
+     */
+    public static int calibrateStrength(long targetMs, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        probe.encode("calibration-warm-up");
+        long start = System.nanoTime();
+        probe.encode("calibration");
+        double elapsedMs = Math.max((System.nanoTime() - start) / 1_000_000.0, 0.001);
+
+        int strength = minStrength;
+        while (strength < maxStrength && elapsedMs * 2 <= targetMs) {
+            elapsedMs *= 2;
+            strength++;
+        }
+        log.info("Calibrated BCrypt strength {} (~{} ms per hash, target {} ms)", strength, Math.round(elapsedMs), targetMs);
+        return strength;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public int queueSize() {
+        return executor.getQueue().size();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T run(Supplier<T> task) {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return hashTimer.record(task);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new TooManyRequestsException("Server is busy. Try again shortly.", 1);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
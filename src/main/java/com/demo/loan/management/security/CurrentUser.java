@@ -0,0 +1,64 @@
+package com.demo.loan.management.security;
+
+import com.demo.loan.management.exception.BadRequestException;
+import com.demo.loan.management.exception.ResourceNotFoundException;
+import com.demo.loan.management.model.User;
+import com.demo.loan.management.service.UserCacheService;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+/**
+ * The caller of the current request, resolved at most once per request. {@link JwtAuthenticationFilter} records the
+ * authenticated email, or the user itself when it already had to load it; services read the caller from here
+ * instead of each going back to the {@link SecurityContextHolder} and the user lookup.
+ */
+@Component
+@RequestScope
+public class CurrentUser {
+
+    private final UserCacheService userCacheService;
+    private String email;
+    private User user;
+
+    public CurrentUser(UserCacheService userCacheService) {
+        this.userCacheService = userCacheService;
+    }
+
+    public void set(String email) {
+        this.email = email;
+        this.user = null;
+    }
+
+    public void set(User user) {
+        this.email = user.getEmail();
+        this.user = user;
+    }
+
+    public String getEmail() {
+        if (email == null) {
+            email = emailFromSecurityContext();
+        }
+        return email;
+    }
+
+    public User getUser() {
+        if (user == null) {
+            String currentEmail = getEmail();
+            user = userCacheService.findByEmail(currentEmail)
+                    .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + currentEmail));
+        }
+        return user;
+    }
+
+    // Requests authenticated without the JWT filter, e.g. with a mock user in tests
+    private static String emailFromSecurityContext() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetails userDetails)) {
+            throw new BadRequestException("Invalid authentication. Please log in again.");
+        }
+        return userDetails.getUsername();
+    }
+}
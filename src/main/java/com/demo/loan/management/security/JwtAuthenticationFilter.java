@@ -1,28 +1,58 @@
 package com.demo.loan.management.security;
 
+import com.demo.loan.management.model.User;
+import com.demo.loan.management.repository.UserRepository;
 import com.demo.loan.management.service.TokenBlacklistService;
-import io.jsonwebtoken.ExpiredJwtException;
-import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
+/**
+ * Authenticates requests carrying a valid access token. A token that cannot be used (invalid, expired, revoked,
+ * a refresh token) leaves the request unauthenticated and records why under {@link #AUTH_ERROR_ATTRIBUTE}: public
+ * endpoints still work for a client holding a stale token, and protected ones are answered with 401 and that reason
+ * by {@link CustomAuthenticationEntryPoint}.
+ */
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    public static final String AUTH_ERROR_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".error";
+
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
     private final TokenBlacklistService tokenBlacklistService;
+    private final UserRepository userRepository;
+    private final UserEpochRegistry userEpochRegistry;
+    private final CurrentUser currentUser;
+    private final boolean statelessPrincipal;
+
+    public JwtAuthenticationFilter(JwtUtil jwtUtil,
+                                   UserDetailsService userDetailsService,
+                                   TokenBlacklistService tokenBlacklistService,
+                                   UserRepository userRepository,
+                                   UserEpochRegistry userEpochRegistry,
+                                   CurrentUser currentUser,
+                                   @Value("${jwt.stateless-principal:true}") boolean statelessPrincipal) {
+        this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        this.tokenBlacklistService = tokenBlacklistService;
+        this.userRepository = userRepository;
+        this.userEpochRegistry = userEpochRegistry;
+        this.currentUser = currentUser;
+        this.statelessPrincipal = statelessPrincipal;
+    }
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
@@ -48,37 +78,72 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        String token = authHeader.substring(7);
+        String error = authenticate(authHeader.substring(7));
+        if (error != null) {
+            request.setAttribute(AUTH_ERROR_ATTRIBUTE, error);
+        }
+        filterChain.doFilter(request, response);
+    }
 
-        try {
-            if (tokenBlacklistService.isTokenBlacklisted(token)) {
-                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                response.setContentType("application/json");
-                response.getWriter().write("{ \"error\": \"Unauthorized\", \"message\": \"Token is blacklisted. Please log in again.\" }");
-                return;
+    // Sets the authentication for a usable token; otherwise returns why the token was not accepted
+    private String authenticate(String token) {
+        // One verification per request; repeat tokens are served from JwtUtil's cache. Malformed, tampered and
+        // expired tokens all come back empty, so they share one message.
+        VerifiedToken verifiedToken = jwtUtil.verify(token).orElse(null);
+        if (verifiedToken == null) {
+            return "JWT token is invalid or has expired. Please log in again.";
+        }
+        if (tokenBlacklistService.isTokenBlacklisted(verifiedToken)) {
+            return "Token is blacklisted. Please log in again.";
+        }
+        if (verifiedToken.isRefresh()) {
+            return "Refresh tokens cannot be used as access tokens.";
+        }
+        if (verifiedToken.getSubject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            Optional<UserDetails> userDetails = resolvePrincipal(verifiedToken);
+            if (userDetails.isEmpty()) {
+                return "Token is no longer valid. Please log in again.";
             }
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(userDetails.get(), null, userDetails.get().getAuthorities())
+            );
+        }
+        return null;
+    }
+
+    /**
+     * Builds the principal from the verified claims when the user has not changed since the token was issued;
+     * otherwise reloads the user and rejects tokens whose epoch is older than the stored one.
+     */
+    private Optional<UserDetails> resolvePrincipal(VerifiedToken token) {
+        String email = token.getSubject();
 
-            String username = jwtUtil.extractUsername(token);
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                if (jwtUtil.validateToken(token, userDetails.getUsername())) {
-                    SecurityContextHolder.getContext().setAuthentication(
-                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities())
-                    );
-                }
+        if (userEpochRegistry.isStale(email, token.getEpoch())) {
+            Optional<User> user = userRepository.findByEmail(email);
+            if (user.isEmpty() || user.get().getTokenEpoch() > token.getEpoch()) {
+                return Optional.empty();
             }
-        } catch (ExpiredJwtException e) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            response.setContentType("application/json");
-            response.getWriter().write("{ \"error\": \"Unauthorized\", \"message\": \"JWT token has expired. Please log in again.\" }");
-            return;
-        } catch (JwtException e) {
-            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
-            response.setContentType("application/json");
-            response.getWriter().write("{ \"error\": \"Bad Request\", \"message\": \"Invalid JWT token.\" }");
-            return;
+            currentUser.set(user.get());
+            return Optional.of(principal(email, user.get().getPassword(), user.get().getRole().name()));
         }
 
-        filterChain.doFilter(request, response);
+        currentUser.set(email);
+        if (statelessPrincipal && token.getRole() != null) {
+            return Optional.of(principal(email, "", token.getRole().name()));
+        }
+
+        try {
+            return Optional.of(userDetailsService.loadUserByUsername(email));
+        } catch (UsernameNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static UserDetails principal(String email, String password, String role) {
+        return org.springframework.security.core.userdetails.User
+                .withUsername(email)
+                .password(password)
+                .roles(role)
+                .build();
     }
 }
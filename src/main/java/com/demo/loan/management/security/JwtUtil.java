@@ -2,95 +2,205 @@ package com.demo.loan.management.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.demo.loan.management.model.Role;
+import com.demo.loan.management.model.User;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+/**
+ * Issues and verifies JWTs. Verification parses and checks the signature once per token: the resulting
+ * {@link VerifiedToken} is kept in a bounded LRU map keyed by the token's SHA-256 digest until the token's
+ * {@code exp}, so repeat requests with the same bearer token skip the HMAC check entirely.
+ * <p>
+ * Access tokens are short-lived; refresh tokens live longer, carry a {@code typ} claim so they cannot be used as
+ * bearer tokens, and are only exchanged after their epoch is compared with the user's current one.
+ */
 @Component
 public class JwtUtil {
 
     private static final Logger logger = Logger.getLogger(JwtUtil.class.getName());
+    private static final String CACHE_NAME = "jwtTokens";
+    private static final String ROLE_CLAIM = "role";
+    private static final String EPOCH_CLAIM = "epoch";
+    private static final String TYPE_CLAIM = "typ";
+    private static final String REFRESH_TYPE = "refresh";
 
     private final SecretKey secretKey;
     private final long jwtExpirationInMs;
+    private final long refreshExpirationInMs;
+    private final JwtParser jwtParser;
+    private final Map<TokenDigest, VerifiedToken> cache;
+    private final Counter hits;
+    private final Counter misses;
 
     public JwtUtil(
             @Value("${jwt.secret}") String secret,
-            @Value("${jwt.expiration-ms:3600000}") long jwtExpirationInMs) { // default 1 hour
+            @Value("${jwt.expiration-ms:900000}") long jwtExpirationInMs, // default 15 minutes
+            @Value("${jwt.refresh-expiration-ms:1209600000}") long refreshExpirationInMs, // default 14 days
+            @Value("${jwt.cache.max-size:10000}") int maxCacheSize,
+            MeterRegistry meterRegistry) {
         if (secret == null || secret.length() < 32) {
             throw new IllegalArgumentException("JWT secret must be at least 32 characters");
         }
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.jwtExpirationInMs = jwtExpirationInMs;
+        this.refreshExpirationInMs = refreshExpirationInMs;
+        // Parsers are immutable and thread-safe, so one instance serves every request
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(secretKey).build();
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<TokenDigest, VerifiedToken> eldest) {
+                return size() > maxCacheSize;
+            }
+        };
+        this.hits = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss").register(meterRegistry);
+        Gauge.builder("cache.size", this, JwtUtil::cacheSize).tag("cache", CACHE_NAME).register(meterRegistry);
+    }
+
+    public String generateToken(User user) {
+        return generateToken(user.getEmail(), user.getRole().name(), user.getTokenEpoch());
     }
 
     public String generateToken(String username, String role) {
-        Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
+        return generateToken(username, role, 0L);
+    }
 
-        return Jwts.builder()
-                .setSubject(username)
-                .claim("role", role)
-                .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(secretKey, SignatureAlgorithm.HS256)
+    public String generateToken(String username, String role, long epoch) {
+        return buildToken(username, role, epoch, jwtExpirationInMs).compact();
+    }
+
+    /**
+     * Issues a long-lived token that can only be exchanged for a new access token.
+     */
+    public String generateRefreshToken(User user) {
+        return buildToken(user.getEmail(), user.getRole().name(), user.getTokenEpoch(), refreshExpirationInMs)
+                .claim(TYPE_CLAIM, REFRESH_TYPE)
                 .compact();
     }
 
+    public long getAccessTokenExpirationMs() {
+        return jwtExpirationInMs;
+    }
+
+    /**
+     * Checks the signature and expiry of a token, at most once for as long as it stays cached.
+     * Returns empty for malformed, tampered or expired tokens.
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+
+        Instant now = Instant.now();
+        TokenDigest digest = TokenDigest.of(token);
+        VerifiedToken cached;
+        synchronized (cache) {
+            cached = cache.get(digest);
+            if (cached != null && cached.isExpired(now)) {
+                cache.remove(digest);
+                return Optional.empty();
+            }
+        }
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+
+        misses.increment();
+        Optional<VerifiedToken> verified = parse(token).filter(claims -> !claims.isExpired(now));
+        verified.ifPresent(claims -> {
+            synchronized (cache) {
+                cache.put(digest, claims);
+            }
+        });
+        return verified;
+    }
+
     public boolean validateToken(String token, String username) {
-        String extractedUsername = extractUsername(token);
-        return extractedUsername != null &&
-                extractedUsername.equals(username) &&
-                !isTokenExpired(token);
+        return verify(token)
+                .map(claims -> claims.getSubject() != null && claims.getSubject().equals(username))
+                .orElse(false);
     }
 
     public String extractUsername(String token) {
-        return extractClaims(token).map(Claims::getSubject).orElse(null);
+        return verify(token).map(VerifiedToken::getSubject).orElse(null);
     }
 
     public Role extractUserRole(String token) {
-        return extractClaims(token)
-                .map(claims -> claims.get("role", String.class))
-                .map(roleStr -> {
-                    try {
-                        return Role.valueOf(roleStr);
-                    } catch (IllegalArgumentException e) {
-                        logger.log(Level.WARNING, "Invalid role in JWT token: " + roleStr, e);
-                        return null;
-                    }
-                })
-                .orElse(null);
+        return verify(token).map(VerifiedToken::getRole).orElse(null);
     }
 
     public boolean isTokenExpired(String token) {
-        return extractExpiration(token)
-                .map(expiration -> expiration.before(new Date()))
-                .orElse(true);
+        return verify(token).isEmpty();
     }
 
-    private Optional<Date> extractExpiration(String token) {
-        return extractClaims(token).map(Claims::getExpiration);
+    public int cacheSize() {
+        synchronized (cache) {
+            return cache.size();
+        }
     }
 
-    private Optional<Claims> extractClaims(String token) {
+    private JwtBuilder buildToken(String username, String role, long epoch, long lifetimeMs) {
+        Date now = new Date();
+        Date expiryDate = new Date(now.getTime() + lifetimeMs);
+
+        return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(username)
+                .claim(ROLE_CLAIM, role)
+                .claim(EPOCH_CLAIM, epoch)
+                .setIssuedAt(now)
+                .setExpiration(expiryDate)
+                .signWith(secretKey, SignatureAlgorithm.HS256);
+    }
+
+    private Optional<VerifiedToken> parse(String token) {
         try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(secretKey)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            return Optional.of(claims);
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            if (claims.getExpiration() == null) {
+                logger.log(Level.WARNING, "JWT token has no expiration");
+                return Optional.empty();
+            }
+            Number epoch = claims.get(EPOCH_CLAIM, Number.class);
+            return Optional.of(new VerifiedToken(
+                    claims.getSubject(),
+                    parseRole(claims.get(ROLE_CLAIM, String.class)),
+                    claims.getIssuedAt() == null ? null : claims.getIssuedAt().toInstant(),
+                    claims.getExpiration().toInstant(),
+                    epoch == null ? 0L : epoch.longValue(),
+                    TokenDigest.of(claims.getId() != null ? claims.getId() : token),
+                    REFRESH_TYPE.equals(claims.get(TYPE_CLAIM, String.class))));
         } catch (JwtException | IllegalArgumentException e) {
             logger.log(Level.WARNING, "JWT token parsing error: " + e.getMessage());
             return Optional.empty();
         }
     }
+
+    private static Role parseRole(String roleStr) {
+        if (roleStr == null) {
+            return null;
+        }
+        try {
+            return Role.valueOf(roleStr);
+        } catch (IllegalArgumentException e) {
+            logger.log(Level.WARNING, "Invalid role in JWT token: " + roleStr, e);
+            return null;
+        }
+    }
 }
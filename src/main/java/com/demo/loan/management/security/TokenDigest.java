@@ -0,0 +1,41 @@
+package com.demo.loan.management.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 of a raw token as four longs: cheap to hash and compare, and lets caches and revocation lists
+ * identify a token without holding the bearer string itself.
+ */
+public record TokenDigest(long a, long b, long c, long d) {
+
+    /** Length of {@link #toHex()}, and of every revocation key stored in the database. */
+    public static final int HEX_LENGTH = 64;
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    public static TokenDigest of(String token) {
+        try {
+            ByteBuffer hash = ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8)));
+            return new TokenDigest(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public static TokenDigest fromHex(String hex) {
+        if (hex == null || hex.length() != HEX_LENGTH) {
+            throw new IllegalArgumentException("Token digest must be " + HEX_LENGTH + " hex characters");
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(HEX.parseHex(hex));
+        return new TokenDigest(bytes.getLong(), bytes.getLong(), bytes.getLong(), bytes.getLong());
+    }
+
+    public String toHex() {
+        return HEX.toHexDigits(a) + HEX.toHexDigits(b) + HEX.toHexDigits(c) + HEX.toHexDigits(d);
+    }
+}
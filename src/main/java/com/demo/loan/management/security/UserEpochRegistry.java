@@ -0,0 +1,134 @@
+package com.demo.loan.management.security;
+
+import com.demo.loan.management.model.TokenEpochChange;
+import com.demo.loan.management.repository.TokenEpochChangeRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which users had their token epoch bumped (password reset, logout everywhere, deletion) within the
+ * lifetime of an access token. {@link JwtAuthenticationFilter} trusts the claims of every other token and only goes
+ * to the database when a token's epoch is older than the one recorded here.
+ * <p>
+ * Every change is written to {@code token_epoch_changes}. Each instance loads the recent changes at startup and
+ * polls for new ones every {@code poll-interval-ms}, so a revocation made on one node is enforced on all of them
+ * within one poll, and survives restarts. Entries are kept for an access token's lifetime plus the user cache TTL,
+ * so a token minted from a stale cached user just before the change is still caught, and then dropped, so both the
+ * map and the table only hold recently changed users.
+ */
+@Slf4j
+@Component
+public class UserEpochRegistry {
+
+    public static final long DELETED = Long.MAX_VALUE;
+
+    // Re-read a little before the last poll, so changes committed just after it started are not skipped
+    private static final long POLL_OVERLAP_MS = 5000;
+
+    private final TokenEpochChangeRepository changeRepository;
+    private final long retentionMs;
+    private final Map<String, Change> changes = new ConcurrentHashMap<>();
+    private volatile LocalDateTime lastPolledAt;
+
+    public UserEpochRegistry(TokenEpochChangeRepository changeRepository,
+                             @Value("${jwt.expiration-ms:900000}") long accessTokenLifetimeMs,
+                             @Value("${user.cache.ttl-ms:300000}") long userCacheTtlMs) {
+        this.changeRepository = changeRepository;
+        this.retentionMs = accessTokenLifetimeMs + userCacheTtlMs;
+    }
+
+    /**
+     * Loads every change that tokens still in circulation may predate.
+     */
+    @PostConstruct
+    public void warmUp() {
+        LocalDateTime now = LocalDateTime.now();
+        load(now.minusNanos(retentionMs * 1_000_000), now);
+        log.info("Loaded {} recent token epoch changes", changes.size());
+    }
+
+    /**
+     * Picks up changes recorded by other instances since the last poll.
+     */
+    @Scheduled(fixedDelayString = "${jwt.epoch.poll-interval-ms:2000}")
+    public void poll() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = lastPolledAt == null ? now.minusNanos(retentionMs * 1_000_000) : lastPolledAt;
+        load(since.minusNanos(POLL_OVERLAP_MS * 1_000_000), now);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.epoch.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        changes.values().removeIf(change -> change.isExpired(now, retentionMs));
+        changeRepository.deleteByChangedAtBefore(LocalDateTime.now().minusNanos(retentionMs * 1_000_000));
+    }
+
+    /**
+     * Publishes the change to every instance and applies it here immediately.
+     */
+    public void recordChange(String email, long newEpoch) {
+        LocalDateTime now = LocalDateTime.now();
+        changeRepository.save(TokenEpochChange.builder().email(email).epoch(newEpoch).changedAt(now).build());
+        apply(email, newEpoch, toEpochMilli(now));
+    }
+
+    public void recordDeletion(String email) {
+        recordChange(email, DELETED);
+    }
+
+    /**
+     * Whether a token carrying {@code tokenEpoch} predates a change to the user recorded by any instance.
+     */
+    public boolean isStale(String email, long tokenEpoch) {
+        Change change = changes.get(email);
+        if (change == null) {
+            return false;
+        }
+        if (change.isExpired(System.currentTimeMillis(), retentionMs)) {
+            changes.remove(email, change);
+            return false;
+        }
+        return tokenEpoch < change.epoch();
+    }
+
+    public int size() {
+        return changes.size();
+    }
+
+    private void load(LocalDateTime since, LocalDateTime polledAt) {
+        try {
+            for (TokenEpochChange row : changeRepository.findByChangedAtAfter(since)) {
+                apply(row.getEmail(), row.getEpoch(), toEpochMilli(row.getChangedAt()));
+            }
+            lastPolledAt = polledAt;
+        } catch (RuntimeException e) {
+            // Keep the previous cursor so the next poll retries the same range
+            log.warn("Could not load token epoch changes; revocations from other instances are delayed", e);
+        }
+    }
+
+    private void apply(String email, long epoch, long changedAtMs) {
+        changes.merge(email, new Change(epoch, changedAtMs),
+                (previous, next) -> previous.epoch() > next.epoch() ? previous : next);
+    }
+
+    private static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record Change(long epoch, long recordedAtMs) {
+
+        boolean isExpired(long nowMs, long retentionMs) {
+            return nowMs - recordedAtMs > retentionMs;
+        }
+    }
+}
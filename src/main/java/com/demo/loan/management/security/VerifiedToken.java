@@ -0,0 +1,30 @@
+package com.demo.loan.management.security;
+
+import com.demo.loan.management.model.Role;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Claims of a JWT whose signature and expiry have already been checked by {@link JwtUtil#verify(String)}.
+ * Immutable, so one instance can be shared by every request presenting the same token.
+ */
+@Getter
+@AllArgsConstructor
+public final class VerifiedToken {
+
+    private final String subject;
+    private final Role role;
+    private final Instant issuedAt;
+    private final Instant expiresAt;
+    private final long epoch;
+    /** Digest of the {@code jti}, or of the whole token for tokens issued without one; what revocation stores. */
+    private final TokenDigest revocationKey;
+    /** Refresh tokens are only accepted by the refresh endpoint, never as bearer tokens. */
+    private final boolean refresh;
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,144 @@
+package com.demo.loan.management.service;
+
+import com.demo.loan.management.dto.AmortizationScheduleDTO;
+import com.demo.loan.management.dto.InstallmentDTO;
+import com.demo.loan.management.exception.BadRequestException;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reducing-balance amortization engine shared by loan pricing, EMI generation and reporting.
+ * Balances are tracked as {@code long} minor units (cents); the growth factor (1 + r)^n is
+ * computed once per call with a fixed {@link MathContext} instead of unbounded-precision pow().
+ */
+@Component
+public class AmortizationCalculator {
+
+    public static final MathContext MATH_CONTEXT = MathContext.DECIMAL64;
+
+    private static final int MONEY_SCALE = 2;
+    private static final int RATE_SCALE = 10;
+    private static final long RATE_UNIT = 10_000_000_000L; // 10^RATE_SCALE
+    private static final long RATE_HALF_UNIT = RATE_UNIT / 2;
+    private static final BigDecimal MONTHS_TIMES_PERCENT = BigDecimal.valueOf(12 * 100);
+
+    /**
+     * Fixed monthly installment, rounded half-up to the cent.
+     */
+    public BigDecimal calculateEmi(BigDecimal principal, BigDecimal annualRate, int tenureMonths) {
+        validateTenure(tenureMonths);
+        BigDecimal monthlyRate = monthlyRate(annualRate);
+        return toMoney(emiMinorUnits(toMinorUnits(principal), monthlyRate, tenureMonths));
+    }
+
+    /**
+     * Sum of all installments, with the final installment absorbing accumulated rounding.
+     */
+    public BigDecimal calculateTotalRepayable(BigDecimal principal, BigDecimal annualRate, int tenureMonths) {
+        validateTenure(tenureMonths);
+        BigDecimal monthlyRate = monthlyRate(annualRate);
+        long principalMinor = toMinorUnits(principal);
+        long emiMinor = emiMinorUnits(principalMinor, monthlyRate, tenureMonths);
+        return toMoney(amortize(principalMinor, monthlyRate, tenureMonths, emiMinor, null));
+    }
+
+    /**
+     * Full per-installment principal/interest/balance split for the given loan terms.
+     */
+    public AmortizationScheduleDTO buildSchedule(BigDecimal principal, BigDecimal annualRate, int tenureMonths) {
+        validateTenure(tenureMonths);
+        BigDecimal monthlyRate = monthlyRate(annualRate);
+        long principalMinor = toMinorUnits(principal);
+        long emiMinor = emiMinorUnits(principalMinor, monthlyRate, tenureMonths);
+
+        List<InstallmentDTO> installments = new ArrayList<>(tenureMonths);
+        long totalMinor = amortize(principalMinor, monthlyRate, tenureMonths, emiMinor, installments);
+
+        return new AmortizationScheduleDTO(
+                toMoney(emiMinor),
+                toMoney(totalMinor),
+                toMoney(totalMinor - principalMinor),
+                installments
+        );
+    }
+
+    private long emiMinorUnits(long principalMinor, BigDecimal monthlyRate, int tenureMonths) {
+        if (monthlyRate.signum() == 0) {
+            return divideHalfUp(principalMinor, tenureMonths);
+        }
+
+        BigDecimal growth = BigDecimal.ONE.add(monthlyRate).pow(tenureMonths, MATH_CONTEXT);
+        return toLongExact(BigDecimal.valueOf(principalMinor)
+                .multiply(monthlyRate, MATH_CONTEXT)
+                .multiply(growth, MATH_CONTEXT)
+                .divide(growth.subtract(BigDecimal.ONE, MATH_CONTEXT), 0, RoundingMode.HALF_UP));
+    }
+
+    private long amortize(long principalMinor, BigDecimal monthlyRate, int tenureMonths, long emiMinor,
+                          List<InstallmentDTO> sink) {
+        long rateUnits = toLongExact(new BigDecimal(monthlyRate.unscaledValue()));
+        long fastPathLimit = rateUnits == 0 ? Long.MAX_VALUE : (Long.MAX_VALUE - RATE_HALF_UNIT) / rateUnits;
+
+        long balance = principalMinor;
+        long total = 0;
+        for (int i = 1; i <= tenureMonths; i++) {
+            long interest = balance <= fastPathLimit
+                    ? (balance * rateUnits + RATE_HALF_UNIT) / RATE_UNIT
+                    : toLongExact(BigDecimal.valueOf(balance).multiply(monthlyRate).setScale(0, RoundingMode.HALF_UP));
+            long principalPart = i == tenureMonths
+                    ? balance
+                    : Math.min(Math.max(emiMinor - interest, 0), balance);
+            long payment = principalPart + interest;
+
+            balance -= principalPart;
+            total += payment;
+
+            if (sink != null) {
+                sink.add(new InstallmentDTO(i, toMoney(payment), toMoney(principalPart), toMoney(interest), toMoney(balance)));
+            }
+        }
+        return total;
+    }
+
+    private BigDecimal monthlyRate(BigDecimal annualRate) {
+        if (annualRate == null || annualRate.signum() < 0) {
+            throw new BadRequestException("Invalid loan amount or interest rate.");
+        }
+        return annualRate.divide(MONTHS_TIMES_PERCENT, RATE_SCALE, RoundingMode.HALF_UP);
+    }
+
+    private static void validateTenure(int tenureMonths) {
+        if (tenureMonths <= 0) {
+            throw new BadRequestException("Loan tenure must be greater than 0.");
+        }
+    }
+
+    private static long toMinorUnits(BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new BadRequestException("Invalid loan amount or interest rate.");
+        }
+        return toLongExact(new BigDecimal(amount.setScale(MONEY_SCALE, RoundingMode.HALF_UP).unscaledValue()));
+    }
+
+    // Terms too large for long minor units are a client error, not a server fault
+    private static long toLongExact(BigDecimal value) {
+        try {
+            return value.longValueExact();
+        } catch (ArithmeticException e) {
+            throw new BadRequestException("Loan amount or interest rate is too large.");
+        }
+    }
+
+    private static long divideHalfUp(long dividend, long divisor) {
+        return (dividend + divisor / 2) / divisor;
+    }
+
+    private static BigDecimal toMoney(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, MONEY_SCALE);
+    }
+}
@@ -5,20 +5,32 @@ import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.Map;
+
 @Service
 @RequiredArgsConstructor
 public class EmailService {
 
     private final JavaMailSender emailSender;
+    private final MailBatchSender mailBatchSender;
 
     // Method to send email notifications
     public void sendEmail(String to, String subject, String text) {
+        emailSender.send(message(to, subject, text));
+    }
+
+    // Method to send many emails over a few pooled SMTP sessions; returns the failures by position in the list
+    public Map<Integer, Exception> sendEmails(List<SimpleMailMessage> messages) {
+        return mailBatchSender.sendAll(messages);
+    }
+
+    public static SimpleMailMessage message(String to, String subject, String text) {
         SimpleMailMessage message = new SimpleMailMessage();
         message.setTo(to);
         message.setSubject(subject);
         message.setText(text);
-
-        emailSender.send(message);
+        return message;
     }
 
     // Method to send a loan approval email
@@ -31,9 +43,13 @@ public class EmailService {
 
     // Method to send an EMI payment reminder email
     public void sendEmiReminderEmail(String email, String emiDetails) {
+        emailSender.send(emiReminderMessage(email, emiDetails));
+    }
+
+    public static SimpleMailMessage emiReminderMessage(String email, String emiDetails) {
         String subject = "EMI Payment Reminder";
         String text = "Dear User,\nThis is a reminder that your EMI payment is due. Please find the details below:\n" + emiDetails;
 
-        sendEmail(email, subject, text);
+        return message(email, subject, text);
     }
 }
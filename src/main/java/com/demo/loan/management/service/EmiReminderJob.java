@@ -0,0 +1,233 @@
+package com.demo.loan.management.service;
+
+import com.demo.loan.management.model.EmiReminder;
+import com.demo.loan.management.repository.EmiReminderRepository;
+import com.demo.loan.management.repository.EmiRepository;
+import com.demo.loan.management.service.EmiReminderService.PendingReminder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends EMI payment reminders: one when an unpaid EMI is at most {@code lead-days} away, then one every
+ * {@code overdue-interval-days} while it is overdue, up to {@code overdue-max-days}. The due-date window is split
+ * into {@code partitions} equal slices scanned in parallel; each slice is read in keyset pages ordered by
+ * (dueDate, emiId), so every worker walks its own contiguous range of the (due_date, emi_id) index and a run never
+ * holds more than one page per worker in memory. Every reminder is recorded per
+ * EMI and window in {@code emi_reminders} together with its outbox row, so a run that dies part way is simply run
+ * again and skips whatever was already queued.
+ */
+@Slf4j
+@Component
+public class EmiReminderJob {
+
+    private final EmiRepository emiRepository;
+    private final EmiReminderRepository emiReminderRepository;
+    private final EmiReminderService emiReminderService;
+    private final int partitions;
+    private final int pageSize;
+    private final int leadDays;
+    private final int overdueIntervalDays;
+    private final int overdueMaxDays;
+    private final ExecutorService workers;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Counter queued;
+    private final Counter skipped;
+
+    public EmiReminderJob(EmiRepository emiRepository,
+                          EmiReminderRepository emiReminderRepository,
+                          EmiReminderService emiReminderService,
+                          MeterRegistry meterRegistry,
+                          @Value("${emi.reminder.partitions:4}") int partitions,
+                          @Value("${emi.reminder.page-size:500}") int pageSize,
+                          @Value("${emi.reminder.lead-days:3}") int leadDays,
+                          @Value("${emi.reminder.overdue-interval-days:7}") int overdueIntervalDays,
+                          @Value("${emi.reminder.overdue-max-days:90}") int overdueMaxDays) {
+        this.emiRepository = emiRepository;
+        this.emiReminderRepository = emiReminderRepository;
+        this.emiReminderService = emiReminderService;
+        this.partitions = partitions;
+        this.pageSize = pageSize;
+        this.leadDays = leadDays;
+        this.overdueIntervalDays = overdueIntervalDays;
+        this.overdueMaxDays = overdueMaxDays;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(partitions, runnable -> {
+            Thread thread = new Thread(runnable, "emi-reminder-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.queued = Counter.builder("emi.reminders").tag("result", "queued").register(meterRegistry);
+        this.skipped = Counter.builder("emi.reminders").tag("result", "already-sent").register(meterRegistry);
+    }
+
+    /**
+     * Scans every partition and waits for all of them; returns how many reminders were queued.
+     */
+    @Scheduled(cron = "${emi.reminder.cron:0 0 8 * * *}")
+    public int sendReminders() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("EMI reminder run skipped: the previous run is still going");
+            return 0;
+        }
+        try {
+            LocalDate today = LocalDate.now();
+            List<LocalDateTime[]> slices = dueDateSlices(today);
+            List<CompletableFuture<Integer>> scans = new ArrayList<>(slices.size());
+            for (LocalDateTime[] slice : slices) {
+                scans.add(CompletableFuture.supplyAsync(() -> scanPartition(slice[0], slice[1], today), workers));
+            }
+            int total = scans.stream().mapToInt(CompletableFuture::join).sum();
+
+            // Reminder rows only matter while their EMI can still fall into a window
+            int purged = emiReminderRepository.deleteByCreatedAtBefore(
+                    today.minusDays(leadDays + overdueMaxDays + 1L).atStartOfDay());
+            log.info("Queued {} EMI reminders across {} partitions; purged {} old reminder rows", total, slices.size(), purged);
+            return total;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+
+    // Equal-width whole-day [from, until) slices of the due dates that can fall into a reminder window
+    List<LocalDateTime[]> dueDateSlices(LocalDate today) {
+        LocalDate from = today.minusDays(overdueMaxDays);
+        LocalDate until = today.plusDays(leadDays + 1L);
+        long days = ChronoUnit.DAYS.between(from, until);
+        long width = Math.max(1, (days + partitions - 1) / partitions);
+
+        List<LocalDateTime[]> slices = new ArrayList<>(partitions);
+        for (LocalDate start = from; start.isBefore(until); start = start.plusDays(width)) {
+            LocalDate end = start.plusDays(width).isBefore(until) ? start.plusDays(width) : until;
+            slices.add(new LocalDateTime[]{start.atStartOfDay(), end.atStartOfDay()});
+        }
+        return slices;
+    }
+
+    // EMIs due in [fromDueDate, untilDueDate); the first cursor (fromDueDate, 0) takes in rows due exactly at the start
+    int scanPartition(LocalDateTime fromDueDate, LocalDateTime untilDueDate, LocalDate today) {
+        LocalDateTime afterDueDate = fromDueDate;
+        long afterEmiId = 0L;
+        int total = 0;
+        List<Object[]> page;
+        do {
+            page = emiRepository.findUnpaidPageAfter(untilDueDate, afterDueDate, afterEmiId, Limit.of(pageSize));
+            if (page.isEmpty()) {
+                break;
+            }
+
+            Set<String> alreadySent = recordedWindows(page.stream().map(row -> (Long) row[0]).toList());
+
+            List<PendingReminder> batch = new ArrayList<>();
+            for (Object[] row : page) {
+                Long emiId = (Long) row[0];
+                LocalDateTime dueDate = (LocalDateTime) row[1];
+                String window = reminderWindow(dueDate.toLocalDate(), today, overdueIntervalDays);
+                if (alreadySent.contains(windowKey(emiId, window))) {
+                    skipped.increment();
+                } else {
+                    batch.add(new PendingReminder(emiId, window, (String) row[5],
+                            details((Long) row[4], (Integer) row[3], (BigDecimal) row[2], dueDate)));
+                }
+                afterDueDate = dueDate;
+                afterEmiId = emiId;
+            }
+
+            total += enqueue(batch);
+        } while (page.size() == pageSize);
+        return total;
+    }
+
+    /**
+     * DUE_SOON up to and including the due date, then OVERDUE_0, OVERDUE_1, ... for each overdue interval after it.
+     */
+    static String reminderWindow(LocalDate dueDate, LocalDate today, int overdueIntervalDays) {
+        long daysPastDue = ChronoUnit.DAYS.between(dueDate, today);
+        if (daysPastDue <= 0) {
+            return EmiReminder.WINDOW_DUE_SOON;
+        }
+        return EmiReminder.WINDOW_OVERDUE_PREFIX + (daysPastDue - 1) / overdueIntervalDays;
+    }
+
+    private int enqueue(List<PendingReminder> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            return enqueueBatch(batch);
+        } catch (DataIntegrityViolationException e) {
+            // Another run recorded some of these first and the batch rolled back; drop those and retry the rest once
+            Set<String> recorded = recordedWindows(batch.stream().map(PendingReminder::emiId).toList());
+            List<PendingReminder> remaining = new ArrayList<>(batch.size());
+            for (PendingReminder reminder : batch) {
+                if (recorded.contains(windowKey(reminder.emiId(), reminder.window()))) {
+                    skipped.increment();
+                } else {
+                    remaining.add(reminder);
+                }
+            }
+            if (remaining.isEmpty()) {
+                return 0;
+            }
+            try {
+                return enqueueBatch(remaining);
+            } catch (DataIntegrityViolationException retryError) {
+                // Still racing; the next run in the same window picks up whatever is left
+                log.warn("Skipped a batch of {} EMI reminders contended by another run", remaining.size());
+                return 0;
+            }
+        }
+    }
+
+    private int enqueueBatch(List<PendingReminder> batch) {
+        int count = emiReminderService.enqueue(batch);
+        queued.increment(count);
+        return count;
+    }
+
+    private Set<String> recordedWindows(List<Long> emiIds) {
+        Set<String> recorded = new HashSet<>();
+        for (Object[] row : emiReminderRepository.findWindowsByEmiIds(emiIds)) {
+            recorded.add(windowKey((Long) row[0], (String) row[1]));
+        }
+        return recorded;
+    }
+
+    private static String windowKey(Long emiId, String window) {
+        return emiId + ":" + window;
+    }
+
+    private static String details(Long loanId, Integer installmentNumber, BigDecimal amount, LocalDateTime dueDate) {
+        return "Loan ID: " + loanId + "\nInstallment: " + installmentNumber
+                + "\nAmount: " + amount + "\nDue date: " + dueDate.toLocalDate();
+    }
+}
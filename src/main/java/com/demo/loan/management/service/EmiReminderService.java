@@ -0,0 +1,50 @@
+package com.demo.loan.management.service;
+
+import com.demo.loan.management.model.EmiReminder;
+import com.demo.loan.management.model.NotificationOutbox;
+import com.demo.loan.management.repository.EmiReminderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Queues EMI reminder emails on the notification outbox. Each reminder row is written in the same transaction as its
+ * outbox row, so a reminder is either queued and recorded or neither.
+ */
+@Service
+@RequiredArgsConstructor
+public class EmiReminderService {
+
+    private final EmiReminderRepository emiReminderRepository;
+    private final NotificationOutboxService outboxService;
+
+    /**
+     * Queues one batch of reminders. A reminder recorded concurrently by another run violates the
+     * (emi_id, reminder_window) key and rolls back the whole batch.
+     */
+    @Transactional
+    public int enqueue(List<PendingReminder> reminders) {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmiReminder> recorded = new ArrayList<>(reminders.size());
+        for (PendingReminder reminder : reminders) {
+            SimpleMailMessage message = EmailService.emiReminderMessage(reminder.email(), reminder.details());
+            NotificationOutbox outbox = outboxService.enqueue(null, reminder.email(), message.getSubject(), message.getText());
+            recorded.add(EmiReminder.builder()
+                    .emiId(reminder.emiId())
+                    .reminderWindow(reminder.window())
+                    .outboxId(outbox.getId())
+                    .createdAt(now)
+                    .build());
+        }
+        emiReminderRepository.saveAll(recorded);
+        return recorded.size();
+    }
+
+    public record PendingReminder(Long emiId, String window, String email, String details) {
+    }
+}
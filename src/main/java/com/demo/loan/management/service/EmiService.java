@@ -1,6 +1,9 @@
 package com.demo.loan.management.service;
 
+import com.demo.loan.management.dto.AmortizationScheduleDTO;
+import com.demo.loan.management.dto.EmiHistoryDTO;
 import com.demo.loan.management.dto.EmiPaymentRequestDTO;
+import com.demo.loan.management.dto.InstallmentDTO;
 import com.demo.loan.management.exception.BadRequestException;
 import com.demo.loan.management.exception.ResourceNotFoundException;
 import com.demo.loan.management.model.Emi;
@@ -10,18 +13,25 @@ import com.demo.loan.management.model.User;
 import com.demo.loan.management.repository.EmiRepository;
 import com.demo.loan.management.repository.LoanRepository;
 import com.demo.loan.management.repository.TransactionRepository;
-import com.demo.loan.management.repository.UserRepository;
+import com.demo.loan.management.security.CurrentUser;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.Month;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class EmiService {
@@ -29,7 +39,11 @@ public class EmiService {
     private final EmiRepository emiRepository;
     private final LoanRepository loanRepository;
     private final TransactionRepository transactionRepository;
-    private final UserRepository userRepository;
+    private final CurrentUser currentUser;
+    private final AmortizationCalculator amortizationCalculator;
+    private final PortfolioAnalyticsService portfolioAnalyticsService;
+
+    private static final int OVERDUE_SCAN_PAGE_SIZE = 500;
 
     // Create EMI for a loan
     public Emi createEmi(EmiPaymentRequestDTO emiDTO) {
@@ -50,19 +64,32 @@ public class EmiService {
     // Pay an EMI
     @Transactional
     public String payEmi(Long emiId, EmiPaymentRequestDTO paymentRequest) {
-        String email = getAuthenticatedUserEmail();
-        User authenticatedUser = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
+        User authenticatedUser = currentUser.getUser();
 
         Emi emi = emiRepository.findById(emiId)
                 .orElseThrow(() -> new ResourceNotFoundException("EMI not found with ID: " + emiId));
 
-        Loan loan = emi.getLoan();
-        User loanOwner = loan.getUser();
+        return pay(authenticatedUser, emi, paymentRequest);
+    }
 
-        if (!loanOwner.getUserId().equals(authenticatedUser.getUserId())) {
-            throw new BadRequestException("Unauthorized: You can only pay EMIs for your own loan.");
-        }
+    // Pay an installment by its number, materializing it first if the loan uses a virtual schedule
+    @Transactional
+    public String payInstallment(Long loanId, int installmentNumber, EmiPaymentRequestDTO paymentRequest) {
+        User authenticatedUser = currentUser.getUser();
+
+        Loan loan = loanRepository.findById(loanId)
+                .orElseThrow(() -> new ResourceNotFoundException("Loan not found with ID: " + loanId));
+        checkOwner(authenticatedUser, loan);
+
+        Emi emi = emiRepository.findByLoanLoanIdAndInstallmentNumber(loanId, installmentNumber)
+                .orElseGet(() -> materializeInstallment(loan, installmentNumber));
+
+        return pay(authenticatedUser, emi, paymentRequest);
+    }
+
+    private String pay(User authenticatedUser, Emi emi, EmiPaymentRequestDTO paymentRequest) {
+        Loan loan = emi.getLoan();
+        checkOwner(authenticatedUser, loan);
 
         if ("PAID".equalsIgnoreCase(emi.getStatus())) {
             throw new BadRequestException("This EMI has already been paid.");
@@ -95,9 +122,9 @@ public class EmiService {
                 .build();
 
         transactionRepository.save(transaction);
+        portfolioAnalyticsService.recordPayment(emi, transaction.getTransactionAmount(), transaction.getTransactionDate());
 
-        long pendingEmis = emiRepository.countByLoanLoanIdAndStatus(loan.getLoanId(), "PENDING");
-        if (pendingEmis == 0) {
+        if (isFullyRepaid(loan)) {
             loan.setLoanStatus("COMPLETED");
             loanRepository.save(loan);
         }
@@ -105,25 +132,120 @@ public class EmiService {
         return "EMI Payment Successful";
     }
 
+    private void checkOwner(User authenticatedUser, Loan loan) {
+        if (!loan.getUser().getUserId().equals(authenticatedUser.getUserId())) {
+            throw new BadRequestException("Unauthorized: You can only pay EMIs for your own loan.");
+        }
+    }
+
+    private boolean isFullyRepaid(Loan loan) {
+        if (loan.isVirtualSchedule()) {
+            // Unpaid installments of a virtual schedule have no rows, so count what has been paid instead
+            return emiRepository.countByLoanLoanIdAndStatus(loan.getLoanId(), "PAID") >= loan.getLoanTenure();
+        }
+        return emiRepository.countByLoanLoanIdAndStatus(loan.getLoanId(), "PENDING") == 0;
+    }
+
     //  New: Get EMIs by loan ID
     public List<Emi> getEmisByLoanId(Long loanId) {
-        return emiRepository.findByLoanLoanId(loanId);
+        List<Emi> stored = emiRepository.findByLoanLoanId(loanId);
+        Loan loan = stored.isEmpty()
+                ? loanRepository.findById(loanId).orElse(null)
+                : stored.get(0).getLoan();
+
+        if (loan == null || !loan.isVirtualSchedule()) {
+            return stored;
+        }
+        return mergeVirtualSchedule(loan, stored);
     }
 
     // New: Get EMI payment history for authenticated user
-    public List<Emi> getEmiHistoryForUser() {
-        String email = getAuthenticatedUserEmail();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
-        return emiRepository.findByLoanUserUserId(user.getUserId());
+    public List<EmiHistoryDTO> getEmiHistoryForUser() {
+        User user = currentUser.getUser();
+        return emiRepository.findHistoryByUserId(user.getUserId());
+    }
+
+    /**
+     * Stores overdue installments of virtual schedules so they show up in EMI queries and reminders.
+     * Loans are scanned in loan ID order one page at a time.
+     */
+    @Scheduled(cron = "${loan.schedule.overdue-materialization-cron:0 30 0 * * *}")
+    public void materializeOverdueInstallments() {
+        LocalDateTime now = LocalDateTime.now();
+        long afterLoanId = 0L;
+        List<Loan> page;
+        do {
+            page = loanRepository.findByScheduleModeAndLoanStatusAndLoanIdGreaterThanOrderByLoanIdAsc(
+                    Loan.SCHEDULE_VIRTUAL, "APPROVED", afterLoanId, Limit.of(OVERDUE_SCAN_PAGE_SIZE));
+            if (page.isEmpty()) {
+                break;
+            }
+
+            Map<Long, Set<Integer>> storedByLoan = new HashMap<>();
+            for (Object[] row : emiRepository.findInstallmentNumbersByLoanIds(page.stream().map(Loan::getLoanId).toList())) {
+                storedByLoan.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((Integer) row[1]);
+            }
+
+            List<Emi> overdue = new ArrayList<>();
+            for (Loan loan : page) {
+                Set<Integer> stored = storedByLoan.getOrDefault(loan.getLoanId(), Set.of());
+                for (Emi installment : deriveSchedule(loan)) {
+                    if (!installment.getDueDate().isBefore(now)) {
+                        break;
+                    }
+                    if (!stored.contains(installment.getInstallmentNumber())) {
+                        installment.setPaymentStatus("OVERDUE");
+                        overdue.add(installment);
+                    }
+                }
+                afterLoanId = loan.getLoanId();
+            }
+
+            if (!overdue.isEmpty()) {
+                emiRepository.saveAll(overdue);
+                log.info("Materialized {} overdue virtual installments up to loan ID {}", overdue.size(), afterLoanId);
+            }
+        } while (page.size() == OVERDUE_SCAN_PAGE_SIZE);
+    }
+
+    private Emi materializeInstallment(Loan loan, int installmentNumber) {
+        if (!loan.isVirtualSchedule() || !"APPROVED".equalsIgnoreCase(loan.getLoanStatus())
+                || installmentNumber < 1 || installmentNumber > loan.getLoanTenure()) {
+            throw new ResourceNotFoundException("Installment " + installmentNumber + " not found for loan ID: " + loan.getLoanId());
+        }
+        return emiRepository.save(deriveSchedule(loan).get(installmentNumber - 1));
+    }
+
+    private List<Emi> mergeVirtualSchedule(Loan loan, List<Emi> stored) {
+        Map<Integer, Emi> storedByNumber = new HashMap<>();
+        for (Emi emi : stored) {
+            if (emi.getInstallmentNumber() != null) {
+                storedByNumber.put(emi.getInstallmentNumber(), emi);
+            }
+        }
+
+        List<Emi> schedule = deriveSchedule(loan);
+        schedule.replaceAll(derived -> storedByNumber.getOrDefault(derived.getInstallmentNumber(), derived));
+        return schedule;
     }
 
-    private String getAuthenticatedUserEmail() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        if (principal instanceof UserDetails) {
-            return ((UserDetails) principal).getUsername();
+    // Unsaved EMI rows for every installment, a pure function of the loan terms and approval time
+    private List<Emi> deriveSchedule(Loan loan) {
+        AmortizationScheduleDTO schedule = amortizationCalculator.buildSchedule(
+                loan.getLoanAmount(), loan.getInterestRate(), loan.getLoanTenure());
+
+        List<Emi> emis = new ArrayList<>(schedule.getInstallments().size());
+        for (InstallmentDTO installment : schedule.getInstallments()) {
+            emis.add(Emi.builder()
+                    .loan(loan)
+                    .installmentNumber(installment.getInstallmentNumber())
+                    .emiAmount(installment.getPayment())
+                    .dueDate(loan.getApprovedAt().plusMonths(installment.getInstallmentNumber()))
+                    .status("PENDING")
+                    .paymentStatus("DUE")
+                    .build());
         }
-        throw new BadRequestException("Unauthorized: Unable to fetch user details.");
+        return emis;
     }
 
     private String getMonthName(int monthNumber) {
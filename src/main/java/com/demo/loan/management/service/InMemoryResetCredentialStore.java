@@ -0,0 +1,304 @@
+package com.demo.loan.management.service;
+
+import com.demo.loan.management.model.PasswordResetToken;
+import com.demo.loan.management.model.User;
+import com.demo.loan.management.repository.PasswordResetTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reset credentials held in memory and written through to {@code password_reset_tokens}. A credential is indexed by
+ * its token and, for OTPs, by (user, OTP), each key living in one of a fixed number of independently locked shards,
+ * so a lookup is a single hash probe. Each shard expires its keys through a timing wheel advanced every
+ * {@code tick-ms}, and expired rows are range-deleted from the table on a slower schedule.
+ * <p>
+ * The table has the final word, since another instance may have used a credential or issued a newer one: a token
+ * found in memory is confirmed by one lookup on the unique token column before it is returned, and an OTP check
+ * reads the user's row on the unique user column, dropping whatever this instance held that no longer matches it.
+ * Wrong OTP guesses are capped per phone number by the credential rate limiter, so that read stays cheap. A miss
+ * falls back to the table, so a credential issued before a restart or on another instance still works.
+ */
+@Slf4j
+@Component
+public class InMemoryResetCredentialStore implements ResetCredentialStore {
+
+    private static final String CACHE_NAME = "resetCredentials";
+
+    private final PasswordResetTokenRepository tokenRepository;
+    private final Shard[] shards;
+    private final long tickMs;
+    private final int wheelSlots;
+    private final Map<Long, PasswordResetToken> currentByUser = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private long lastTick;
+
+    public InMemoryResetCredentialStore(PasswordResetTokenRepository tokenRepository,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${password-reset.store.shards:16}") int shardCount,
+                                        @Value("${password-reset.store.tick-ms:1000}") long tickMs,
+                                        @Value("${password-reset.store.wheel-slots:1024}") int wheelSlots) {
+        this.tokenRepository = tokenRepository;
+        this.tickMs = tickMs;
+        this.wheelSlots = wheelSlots;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(wheelSlots);
+        }
+        this.lastTick = System.currentTimeMillis() / tickMs;
+        this.hits = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss").register(meterRegistry);
+        Gauge.builder("cache.size", this, InMemoryResetCredentialStore::size).tag("cache", CACHE_NAME).register(meterRegistry);
+    }
+
+    @Override
+    @Transactional
+    public void save(PasswordResetToken credential) {
+        User user = credential.getUser();
+        // The table allows one row per user, so drop the old one first, whichever instance issued it. The delete is
+        // flushed before the insert, which Hibernate would otherwise run first and trip the unique user column
+        tokenRepository.findByUser(user).ifPresent(tokenRepository::delete);
+        tokenRepository.flush();
+        tokenRepository.save(credential);
+        index(credential);
+    }
+
+    private void index(PasswordResetToken credential) {
+        User user = credential.getUser();
+        PasswordResetToken previous = currentByUser.put(user.getUserId(), credential);
+        if (previous != null) {
+            unindex(previous);
+        }
+        long deadlineTick = deadlineTick(credential);
+        if (credential.getToken() != null) {
+            String key = tokenKey(credential.getToken());
+            shardFor(key).put(key, credential, deadlineTick);
+        }
+        if (credential.getOtp() != null) {
+            String key = otpKey(user.getUserId(), credential.getOtp());
+            shardFor(key).put(key, credential, deadlineTick);
+        }
+    }
+
+    @Override
+    public Optional<PasswordResetToken> findByToken(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        String key = tokenKey(token);
+        PasswordResetToken credential = shardFor(key).get(key);
+        if (credential == null) {
+            misses.increment();
+            return tokenRepository.findByToken(token);
+        }
+        hits.increment();
+        // Used on another instance if the row is gone; drop it here too, so it cannot be replayed
+        if (tokenRepository.findByToken(token).isEmpty()) {
+            forget(credential);
+            return Optional.empty();
+        }
+        return Optional.of(credential);
+    }
+
+    @Override
+    public Optional<PasswordResetToken> findByOtp(User user, String otp) {
+        if (otp == null) {
+            return Optional.empty();
+        }
+        String key = otpKey(user.getUserId(), otp);
+        PasswordResetToken held = shardFor(key).get(key);
+        if (held != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+
+        // Another instance may have used the user's credential or replaced it with one this instance never saw
+        Optional<PasswordResetToken> row = tokenRepository.findByUser(user)
+                .filter(found -> expiresAtMillis(found) > System.currentTimeMillis());
+        PasswordResetToken current = currentByUser.get(user.getUserId());
+        if (current != null && (row.isEmpty() || !sameCredential(current, row.get()))) {
+            forget(current);
+            current = null;
+        }
+        if (held != null && held != current) {
+            forget(held);
+        }
+        if (row.isEmpty()) {
+            return Optional.empty();
+        }
+        if (current == null) {
+            current = row.get();
+            index(current);
+        }
+        return otp.equals(current.getOtp()) ? Optional.of(current) : Optional.empty();
+    }
+
+    @Override
+    public void delete(PasswordResetToken credential) {
+        forget(credential);
+        tokenRepository.delete(credential);
+    }
+
+    /**
+     * Advances the timing wheels to the current tick, dropping every credential whose expiry has passed.
+     */
+    @Scheduled(fixedRateString = "${password-reset.store.tick-ms:1000}")
+    public void expireDue() {
+        long now = System.currentTimeMillis();
+        long currentTick = now / tickMs;
+        long fromTick;
+        synchronized (this) {
+            // After a long pause one full revolution visits every slot, so there is no point going further back
+            fromTick = Math.max(lastTick + 1, currentTick - wheelSlots + 1);
+            lastTick = currentTick;
+        }
+
+        List<PasswordResetToken> expired = new ArrayList<>();
+        for (long tick = fromTick; tick <= currentTick; tick++) {
+            int slot = slot(tick);
+            for (Shard shard : shards) {
+                shard.expireSlot(slot, now, expired);
+            }
+        }
+        for (PasswordResetToken credential : expired) {
+            currentByUser.remove(credential.getUser().getUserId(), credential);
+        }
+    }
+
+    /**
+     * Range-deletes expired rows, including those of credentials that were never used.
+     */
+    @Scheduled(fixedDelayString = "${password-reset.store.purge-interval-ms:600000}")
+    public void purgeExpiredRows() {
+        int deleted = tokenRepository.deleteByExpiryTimeBefore(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Purged {} expired password reset credentials", deleted);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    private void forget(PasswordResetToken credential) {
+        unindex(credential);
+        currentByUser.remove(credential.getUser().getUserId(), credential);
+    }
+
+    private void unindex(PasswordResetToken credential) {
+        if (credential.getToken() != null) {
+            String key = tokenKey(credential.getToken());
+            shardFor(key).remove(key, credential);
+        }
+        if (credential.getOtp() != null) {
+            String key = otpKey(credential.getUser().getUserId(), credential.getOtp());
+            shardFor(key).remove(key, credential);
+        }
+    }
+
+    private Shard shardFor(String key) {
+        return shards[Math.floorMod(key.hashCode(), shards.length)];
+    }
+
+    // The first tick that starts after the credential has expired, so the slot never drops it early
+    private long deadlineTick(PasswordResetToken credential) {
+        return expiresAtMillis(credential) / tickMs + 1;
+    }
+
+    private int slot(long tick) {
+        return (int) Math.floorMod(tick, (long) wheelSlots);
+    }
+
+    private static long expiresAtMillis(PasswordResetToken credential) {
+        return credential.getExpiryTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    // Tokens are unique, so two copies with the same token are the same row
+    private static boolean sameCredential(PasswordResetToken a, PasswordResetToken b) {
+        return a.getToken() != null && a.getToken().equals(b.getToken());
+    }
+
+    private static String tokenKey(String token) {
+        return "t:" + token;
+    }
+
+    private static String otpKey(Long userId, String otp) {
+        return "o:" + userId + ":" + otp;
+    }
+
+    /**
+     * A slice of the key space with its own lock and timing wheel. Wheel slots only hold keys; a key whose
+     * credential was replaced or has not expired yet (lifetimes longer than one revolution) stays in its slot
+     * until a later pass finds it expired or gone.
+     */
+    private final class Shard {
+
+        private final Map<String, PasswordResetToken> entries = new HashMap<>();
+        private final List<List<String>> wheel;
+
+        Shard(int wheelSlots) {
+            this.wheel = new ArrayList<>(wheelSlots);
+            for (int i = 0; i < wheelSlots; i++) {
+                wheel.add(new ArrayList<>());
+            }
+        }
+
+        synchronized void put(String key, PasswordResetToken credential, long deadlineTick) {
+            entries.put(key, credential);
+            wheel.get(slot(deadlineTick)).add(key);
+        }
+
+        synchronized PasswordResetToken get(String key) {
+            PasswordResetToken credential = entries.get(key);
+            if (credential != null && expiresAtMillis(credential) <= System.currentTimeMillis()) {
+                entries.remove(key);
+                return null;
+            }
+            return credential;
+        }
+
+        synchronized void remove(String key, PasswordResetToken credential) {
+            entries.remove(key, credential);
+        }
+
+        synchronized void expireSlot(int slot, long nowMs, List<PasswordResetToken> expired) {
+            Iterator<String> keys = wheel.get(slot).iterator();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                PasswordResetToken credential = entries.get(key);
+                if (credential == null) {
+                    keys.remove();
+                } else if (expiresAtMillis(credential) <= nowMs) {
+                    entries.remove(key);
+                    expired.add(credential);
+                    keys.remove();
+                }
+            }
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+}
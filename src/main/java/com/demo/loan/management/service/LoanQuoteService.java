@@ -0,0 +1,112 @@
+package com.demo.loan.management.service;
+
+import com.demo.loan.management.dto.LoanQuoteDTO;
+import com.demo.loan.management.exception.BadRequestException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Prices loan terms for the public quote endpoint. Results are memoized in a bounded LRU map keyed by the
+ * normalized (principal, rate, tenure) triple, so repeat quotes for standard products never reach the database
+ * or the amortization math. The endpoint is public, so terms beyond {@code max-amount}, {@code max-interest-rate} and
+ * {@code max-tenure-months} are rejected before any math runs: each uncached quote walks every installment.
+ */
+@Service
+public class LoanQuoteService {
+
+    private static final String CACHE_NAME = "loanQuotes";
+
+    private final AmortizationCalculator amortizationCalculator;
+    private final Map<QuoteKey, LoanQuoteDTO> cache;
+    private final BigDecimal maxAmount;
+    private final BigDecimal maxInterestRate;
+    private final int maxTenureMonths;
+    private final Counter hits;
+    private final Counter misses;
+
+    public LoanQuoteService(AmortizationCalculator amortizationCalculator,
+                            MeterRegistry meterRegistry,
+                            @Value("${loan.quote.cache.max-size:10000}") int maxSize,
+                            @Value("${loan.quote.max-amount:1000000000}") BigDecimal maxAmount,
+                            @Value("${loan.quote.max-interest-rate:100}") BigDecimal maxInterestRate,
+                            @Value("${loan.quote.max-tenure-months:600}") int maxTenureMonths) {
+        this.amortizationCalculator = amortizationCalculator;
+        this.maxAmount = maxAmount;
+        this.maxInterestRate = maxInterestRate;
+        this.maxTenureMonths = maxTenureMonths;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<QuoteKey, LoanQuoteDTO> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.hits = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss").register(meterRegistry);
+        Gauge.builder("cache.size", this, LoanQuoteService::size).tag("cache", CACHE_NAME).register(meterRegistry);
+    }
+
+    public LoanQuoteDTO quote(BigDecimal loanAmount, BigDecimal interestRate, Integer loanTenure) {
+        if (loanAmount == null || interestRate == null || loanTenure == null
+                || loanAmount.compareTo(BigDecimal.ZERO) <= 0 || interestRate.compareTo(BigDecimal.ZERO) < 0) {
+            throw new BadRequestException("Invalid loan amount or interest rate.");
+        }
+        if (loanTenure <= 0) {
+            throw new BadRequestException("Loan tenure must be greater than 0.");
+        }
+        if (loanAmount.compareTo(maxAmount) > 0) {
+            throw new BadRequestException("Loan amount must not exceed " + maxAmount.toPlainString() + ".");
+        }
+        if (interestRate.compareTo(maxInterestRate) > 0) {
+            throw new BadRequestException("Interest rate must not exceed " + maxInterestRate.toPlainString() + "%.");
+        }
+        if (loanTenure > maxTenureMonths) {
+            throw new BadRequestException("Loan tenure must not exceed " + maxTenureMonths + " months.");
+        }
+
+        // Same scales as the loans table, so 10000 and 10000.00 share an entry
+        QuoteKey key = new QuoteKey(
+                loanAmount.setScale(2, RoundingMode.HALF_UP),
+                interestRate.setScale(2, RoundingMode.HALF_UP),
+                loanTenure);
+
+        LoanQuoteDTO cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        LoanQuoteDTO quote = compute(key);
+        synchronized (cache) {
+            cache.put(key, quote);
+        }
+        return quote;
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private LoanQuoteDTO compute(QuoteKey key) {
+        BigDecimal emiAmount = amortizationCalculator.calculateEmi(key.loanAmount(), key.interestRate(), key.loanTenure());
+        BigDecimal totalRepayable = amortizationCalculator.calculateTotalRepayable(key.loanAmount(), key.interestRate(), key.loanTenure());
+        return new LoanQuoteDTO(key.loanAmount(), key.interestRate(), key.loanTenure(),
+                emiAmount, totalRepayable, totalRepayable.subtract(key.loanAmount()));
+    }
+
+    private record QuoteKey(BigDecimal loanAmount, BigDecimal interestRate, int loanTenure) {
+    }
+}
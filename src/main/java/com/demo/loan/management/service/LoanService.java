@@ -1,5 +1,9 @@
 package com.demo.loan.management.service;
 
+import com.demo.loan.management.dto.AmortizationScheduleDTO;
+import com.demo.loan.management.dto.CursorPageDTO;
+import com.demo.loan.management.dto.InstallmentDTO;
+import com.demo.loan.management.dto.LoanApprovalResultDTO;
 import com.demo.loan.management.dto.LoanRequestDTO;
 import com.demo.loan.management.exception.BadRequestException;
 import com.demo.loan.management.exception.ResourceNotFoundException;
@@ -9,42 +13,77 @@ import com.demo.loan.management.model.Role; // Import Role Enum
 import com.demo.loan.management.model.User;
 import com.demo.loan.management.repository.EmiRepository;
 import com.demo.loan.management.repository.LoanRepository;
-import com.demo.loan.management.repository.UserRepository;
+import com.demo.loan.management.security.CurrentUser;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 
 @Service
 @RequiredArgsConstructor
 public class LoanService {
 
     private final LoanRepository loanRepository;
-    private final UserRepository userRepository;
+    private final CurrentUser currentUser;
     private final EmiRepository emiRepository;
+    private final AmortizationCalculator amortizationCalculator;
+    private final ForkJoinPool scheduleComputationPool;
+    private final PortfolioAnalyticsService portfolioAnalyticsService;
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    @Value("${loan.bulk-approval.max-size:500}")
+    private int maxBulkApprovalSize;
+
+    @Value("${loan.schedule.mode:MATERIALIZED}")
+    private String scheduleMode;
 
     public List<Loan> getAllLoans() {
         return loanRepository.findByLoanStatus("APPROVED");
     }
 
-    public List<Loan> getAllLoansIncludingPending() {
-        User authenticatedUser = getAuthenticatedUser();
+    /**
+     * One keyset page of all loans (any status) for the admin console, ordered by loan ID.
+     * Pass the previous page's nextCursor as {@code afterId}; status and type filters are optional.
+     * Without {@code size} a page holds {@code DEFAULT_PAGE_SIZE} loans, so no request loads the whole table.
+     */
+    public CursorPageDTO<Loan> getAllLoansIncludingPending(Long afterId, Integer size, String loanStatus, String loanType) {
+        User authenticatedUser = currentUser.getUser();
         if (authenticatedUser.getRole() != Role.ADMIN) { // Use top-level Role enum here
             throw new BadRequestException("Unauthorized: Only admins can view all loans.");
         }
-        return loanRepository.findAll();
+
+        int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        // One extra row tells us whether another page exists without a count query
+        List<Loan> loans = loanRepository.findPageAfter(afterId == null ? 0L : afterId,
+                blankToNull(loanStatus), blankToNull(loanType), Limit.of(pageSize + 1));
+
+        if (loans.size() <= pageSize) {
+            return new CursorPageDTO<>(loans, null);
+        }
+        List<Loan> page = loans.subList(0, pageSize);
+        return new CursorPageDTO<>(page, page.get(pageSize - 1).getLoanId());
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
     }
 
     @Transactional
     public Loan applyLoan(LoanRequestDTO loanRequest) {
-        User authenticatedUser = getAuthenticatedUser();
+        User authenticatedUser = currentUser.getUser();
         if (authenticatedUser.getRole() != Role.USER) {
             throw new BadRequestException("Unauthorized: Only users can apply for a loan.");
         }
@@ -78,7 +117,7 @@ public class LoanService {
 
     @Transactional
     public Loan approveLoan(Long loanId) {
-        User authenticatedUser = getAuthenticatedUser();
+        User authenticatedUser = currentUser.getUser();
         if (authenticatedUser.getRole() != Role.ADMIN) {
             throw new BadRequestException("Unauthorized: Only admins can approve loans.");
         }
@@ -90,32 +129,132 @@ public class LoanService {
             throw new IllegalStateException("Loan is already approved.");
         }
 
-        loan.setLoanStatus("APPROVED");
-
-        BigDecimal totalRepayable = calculateTotalRepayable(loan.getLoanAmount(), loan.getInterestRate(), loan.getLoanTenure());
-        BigDecimal emiAmount = calculateEmi(loan.getLoanAmount(), loan.getInterestRate(), loan.getLoanTenure());
+        AmortizationScheduleDTO schedule = amortizationCalculator.buildSchedule(
+                loan.getLoanAmount(), loan.getInterestRate(), loan.getLoanTenure());
 
-        if (emiAmount.compareTo(BigDecimal.ZERO) <= 0) {
+        if (schedule.getEmiAmount().compareTo(BigDecimal.ZERO) <= 0) {
             throw new BadRequestException("EMI calculation failed. Please check loan details.");
         }
 
-        loan.setTotalRepayable(totalRepayable);
-        loan.setEmiAmount(emiAmount);
-        generateEmisForLoan(loan, emiAmount);
+        LocalDateTime now = LocalDateTime.now();
+        applySchedule(loan, schedule, now);
+        if (!loan.isVirtualSchedule()) {
+            // Persisted in one call so Hibernate can flush the schedule as JDBC batches
+            emiRepository.saveAll(buildEmis(loan, schedule, now));
+        }
 
-        return loanRepository.save(loan);
+        Loan saved = loanRepository.save(loan);
+        portfolioAnalyticsService.recordApproval(loan, schedule);
+        return saved;
+    }
+
+    /**
+     * Approves several loans for one admin. Schedules are computed in parallel on the schedule pool and all
+     * EMI rows are written together; a loan that cannot be approved is reported without aborting the others.
+     */
+    @Transactional
+    public List<LoanApprovalResultDTO> approveLoans(List<Long> loanIds) {
+        User authenticatedUser = currentUser.getUser();
+        if (authenticatedUser.getRole() != Role.ADMIN) {
+            throw new BadRequestException("Unauthorized: Only admins can approve loans.");
+        }
+
+        if (loanIds == null || loanIds.isEmpty()) {
+            throw new BadRequestException("At least one loan ID is required.");
+        }
+
+        List<Long> distinctIds = loanIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinctIds.size() > maxBulkApprovalSize) {
+            throw new BadRequestException("Cannot approve more than " + maxBulkApprovalSize + " loans at once.");
+        }
+
+        Map<Long, Loan> loansById = new HashMap<>();
+        for (Loan loan : loanRepository.findAllById(distinctIds)) {
+            loansById.put(loan.getLoanId(), loan);
+        }
+
+        Map<Long, LoanApprovalResultDTO> results = new LinkedHashMap<>();
+        List<Loan> candidates = new ArrayList<>();
+        for (Long loanId : distinctIds) {
+            Loan loan = loansById.get(loanId);
+            if (loan == null) {
+                results.put(loanId, LoanApprovalResultDTO.failed(loanId, "Loan not found with ID: " + loanId));
+            } else if ("APPROVED".equalsIgnoreCase(loan.getLoanStatus())) {
+                results.put(loanId, LoanApprovalResultDTO.failed(loanId, "Loan is already approved."));
+            } else {
+                results.put(loanId, null);
+                candidates.add(loan);
+            }
+        }
+
+        List<ScheduleOutcome> outcomes = scheduleComputationPool
+                .submit(() -> candidates.parallelStream().map(this::computeSchedule).toList())
+                .join();
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Loan> approvedLoans = new ArrayList<>();
+        List<Emi> emis = new ArrayList<>();
+        for (ScheduleOutcome outcome : outcomes) {
+            Loan loan = outcome.loan();
+            if (outcome.error() != null) {
+                results.put(loan.getLoanId(), LoanApprovalResultDTO.failed(loan.getLoanId(), outcome.error()));
+                continue;
+            }
+            applySchedule(loan, outcome.schedule(), now);
+            if (!loan.isVirtualSchedule()) {
+                emis.addAll(buildEmis(loan, outcome.schedule(), now));
+            }
+            approvedLoans.add(loan);
+            results.put(loan.getLoanId(), LoanApprovalResultDTO.approved(loan.getLoanId(), outcome.schedule()));
+        }
+
+        emiRepository.saveAll(emis);
+        loanRepository.saveAll(approvedLoans);
+        for (ScheduleOutcome outcome : outcomes) {
+            if (outcome.error() == null) {
+                portfolioAnalyticsService.recordApproval(outcome.loan(), outcome.schedule());
+            }
+        }
+
+        return new ArrayList<>(results.values());
+    }
+
+    private ScheduleOutcome computeSchedule(Loan loan) {
+        try {
+            AmortizationScheduleDTO schedule = amortizationCalculator.buildSchedule(
+                    loan.getLoanAmount(), loan.getInterestRate(), loan.getLoanTenure());
+            if (schedule.getEmiAmount().compareTo(BigDecimal.ZERO) <= 0) {
+                return new ScheduleOutcome(loan, null, "EMI calculation failed. Please check loan details.");
+            }
+            return new ScheduleOutcome(loan, schedule, null);
+        } catch (RuntimeException e) {
+            return new ScheduleOutcome(loan, null, e.getMessage());
+        }
     }
 
-    private void generateEmisForLoan(Loan loan, BigDecimal emiAmount) {
-        for (int i = 1; i <= loan.getLoanTenure(); i++) {
+    private void applySchedule(Loan loan, AmortizationScheduleDTO schedule, LocalDateTime approvedAt) {
+        loan.setLoanStatus("APPROVED");
+        loan.setTotalRepayable(schedule.getTotalRepayable());
+        loan.setEmiAmount(schedule.getEmiAmount());
+        loan.setApprovedAt(approvedAt);
+        loan.setScheduleMode(Loan.SCHEDULE_VIRTUAL.equalsIgnoreCase(scheduleMode)
+                ? Loan.SCHEDULE_VIRTUAL
+                : Loan.SCHEDULE_MATERIALIZED);
+    }
+
+    private List<Emi> buildEmis(Loan loan, AmortizationScheduleDTO schedule, LocalDateTime now) {
+        List<Emi> emis = new ArrayList<>(schedule.getInstallments().size());
+        for (InstallmentDTO installment : schedule.getInstallments()) {
             Emi emi = new Emi();
             emi.setLoan(loan);
-            emi.setEmiAmount(emiAmount);
-            emi.setDueDate(LocalDateTime.now().plusMonths(i));
+            emi.setInstallmentNumber(installment.getInstallmentNumber());
+            emi.setEmiAmount(installment.getPayment());
+            emi.setDueDate(now.plusMonths(installment.getInstallmentNumber()));
             emi.setStatus("PENDING");
             emi.setPaymentStatus("DUE");
-            emiRepository.save(emi);
+            emis.add(emi);
         }
+        return emis;
     }
 
     public List<Loan> getLoansByUserId(Long userId) {
@@ -127,40 +266,14 @@ public class LoanService {
                 .orElseThrow(() -> new ResourceNotFoundException("Loan not found with ID: " + loanId));
     }
 
-    private BigDecimal calculateTotalRepayable(BigDecimal loanAmount, BigDecimal interestRate, int tenureInMonths) {
-        BigDecimal tenureInYears = BigDecimal.valueOf(tenureInMonths).divide(BigDecimal.valueOf(12), 2, RoundingMode.HALF_UP);
-        BigDecimal interest = loanAmount.multiply(interestRate).multiply(tenureInYears).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-        return loanAmount.add(interest);
+    public BigDecimal calculateTotalRepayable(BigDecimal loanAmount, BigDecimal interestRate, int tenureInMonths) {
+        return amortizationCalculator.calculateTotalRepayable(loanAmount, interestRate, tenureInMonths);
     }
 
-    private BigDecimal calculateEmi(BigDecimal principal, BigDecimal annualRate, int tenureMonths) {
-        if (tenureMonths <= 0) {
-            throw new BadRequestException("Loan tenure must be greater than 0.");
-        }
-
-        BigDecimal monthlyRate = annualRate.divide(BigDecimal.valueOf(12 * 100), 10, RoundingMode.HALF_UP);
-
-        if (monthlyRate.compareTo(BigDecimal.ZERO) == 0) {
-            return principal.divide(BigDecimal.valueOf(tenureMonths), 2, RoundingMode.HALF_UP);
-        }
-
-        BigDecimal numerator = monthlyRate.multiply(principal).multiply(
-                BigDecimal.ONE.add(monthlyRate).pow(tenureMonths)
-        );
-        BigDecimal denominator = BigDecimal.ONE.add(monthlyRate).pow(tenureMonths).subtract(BigDecimal.ONE);
-
-        return numerator.divide(denominator, 2, RoundingMode.HALF_UP);
+    public BigDecimal calculateEmi(BigDecimal principal, BigDecimal annualRate, int tenureMonths) {
+        return amortizationCalculator.calculateEmi(principal, annualRate, tenureMonths);
     }
 
-    private User getAuthenticatedUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-
-        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetails)) {
-            throw new BadRequestException("Invalid authentication. Please log in again.");
-        }
-
-        String email = ((UserDetails) authentication.getPrincipal()).getUsername();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
+    private record ScheduleOutcome(Loan loan, AmortizationScheduleDTO schedule, String error) {
     }
 }
@@ -0,0 +1,118 @@
+package com.demo.loan.management.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends many emails over few SMTP sessions. A batch is cut into chunks of at most
+ * {@code max-messages-per-connection} messages; each chunk goes through the batch
+ * {@link JavaMailSender#send(SimpleMailMessage...)} path, which delivers the whole chunk over one connection, and at
+ * most {@code connections} chunks are in flight at once across all callers.
+ */
+@Slf4j
+@Component
+public class MailBatchSender {
+
+    private final JavaMailSender mailSender;
+    private final int maxMessagesPerConnection;
+    private final ExecutorService connectionPool;
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final Counter sent;
+    private final Counter failed;
+    private final Timer sessionTimer;
+
+    public MailBatchSender(JavaMailSender mailSender,
+                           MeterRegistry meterRegistry,
+                           @Value("${mail.batch.connections:3}") int connections,
+                           @Value("${mail.batch.max-messages-per-connection:50}") int maxMessagesPerConnection) {
+        this.mailSender = mailSender;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.connectionPool = Executors.newFixedThreadPool(connections, runnable -> {
+            Thread thread = new Thread(runnable, "smtp-session-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sent = Counter.builder("mail.messages").tag("result", "sent").register(meterRegistry);
+        this.failed = Counter.builder("mail.messages").tag("result", "failed").register(meterRegistry);
+        this.sessionTimer = Timer.builder("mail.session").description("One SMTP connection delivering a chunk").register(meterRegistry);
+        Gauge.builder("mail.sessions.active", activeSessions, AtomicInteger::get).register(meterRegistry);
+    }
+
+    /**
+     * Delivers every message and waits for the outcome. Returns the failures keyed by position in {@code messages};
+     * an empty map means everything was accepted by the server.
+     */
+    public Map<Integer, Exception> sendAll(List<SimpleMailMessage> messages) {
+        Map<Integer, Exception> failures = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> sessions = new ArrayList<>();
+        for (int from = 0; from < messages.size(); from += maxMessagesPerConnection) {
+            int start = from;
+            int end = Math.min(from + maxMessagesPerConnection, messages.size());
+            sessions.add(CompletableFuture.runAsync(() -> sendChunk(messages, start, end, failures), connectionPool));
+        }
+        CompletableFuture.allOf(sessions.toArray(CompletableFuture[]::new)).join();
+        return failures;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        connectionPool.shutdown();
+        if (!connectionPool.awaitTermination(10, TimeUnit.SECONDS)) {
+            connectionPool.shutdownNow();
+        }
+    }
+
+    private void sendChunk(List<SimpleMailMessage> messages, int start, int end, Map<Integer, Exception> failures) {
+        SimpleMailMessage[] chunk = messages.subList(start, end).toArray(SimpleMailMessage[]::new);
+        activeSessions.incrementAndGet();
+        try {
+            sessionTimer.record(() -> mailSender.send(chunk));
+            sent.increment(chunk.length);
+        } catch (MailSendException e) {
+            // Partial failure: the server rejected some messages, or the connection dropped part way through
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            int failedCount = 0;
+            for (int i = 0; i < chunk.length; i++) {
+                // Messages compare by content, so an identical message sent twice is retried rather than lost
+                Exception cause = failedMessages.isEmpty() ? e : failedMessages.get(chunk[i]);
+                if (cause != null) {
+                    failures.put(start + i, cause);
+                    failedCount++;
+                }
+            }
+            sent.increment(chunk.length - failedCount);
+            failed.increment(failedCount);
+            log.warn("{} of {} messages failed in one SMTP session", failedCount, chunk.length, e);
+        } catch (MailException e) {
+            // Authentication or configuration errors: nothing in the chunk was sent
+            for (int i = start; i < end; i++) {
+                failures.put(i, e);
+            }
+            failed.increment(chunk.length);
+            log.warn("SMTP session failed before sending {} messages", chunk.length, e);
+        } finally {
+            activeSessions.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.demo.loan.management.service;
+
+import com.demo.loan.management.model.NotificationOutbox;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drains the notification outbox in the background: claims due rows in batches, hands each batch to
+ * {@link EmailService#sendEmails(List)}, which bounds how many SMTP sessions are open, and records the outcome of the
+ * whole batch before claiming the next one.
+ */
+@Slf4j
+@Component
+public class NotificationDispatcher {
+
+    private final NotificationOutboxService outboxService;
+    private final EmailService emailService;
+    private final int batchSize;
+    private final Counter delivered;
+    private final Counter retried;
+    private final Counter failed;
+
+    public NotificationDispatcher(NotificationOutboxService outboxService,
+                                  EmailService emailService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${notification.outbox.batch-size:100}") int batchSize) {
+        this.outboxService = outboxService;
+        this.emailService = emailService;
+        this.batchSize = batchSize;
+        this.delivered = Counter.builder("notification.outbox.dispatched").tag("result", "sent").register(meterRegistry);
+        this.retried = Counter.builder("notification.outbox.dispatched").tag("result", "retry").register(meterRegistry);
+        this.failed = Counter.builder("notification.outbox.dispatched").tag("result", "failed").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${notification.outbox.poll-interval-ms:1000}")
+    public void dispatchPending() {
+        List<NotificationOutbox> batch;
+        do {
+            batch = outboxService.claimBatch(batchSize);
+            if (!batch.isEmpty()) {
+                dispatch(batch);
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    void dispatch(List<NotificationOutbox> batch) {
+        List<SimpleMailMessage> messages = batch.stream()
+                .map(row -> EmailService.message(row.getRecipient(), row.getSubject(), row.getBody()))
+                .toList();
+
+        Map<Long, String> failures = new HashMap<>();
+        emailService.sendEmails(messages).forEach((index, e) -> {
+            NotificationOutbox row = batch.get(index);
+            log.warn("Delivery of notification outbox row {} failed on attempt {}: {}", row.getId(), row.getAttempts(), e.getMessage());
+            failures.put(row.getId(), String.valueOf(e.getMessage()));
+        });
+
+        outboxService.recordOutcomes(batch, failures);
+        for (NotificationOutbox row : batch) {
+            if (!failures.containsKey(row.getId())) {
+                delivered.increment();
+            } else if (NotificationOutbox.STATUS_FAILED.equals(row.getStatus())) {
+                failed.increment();
+            } else {
+                retried.increment();
+            }
+        }
+    }
+}
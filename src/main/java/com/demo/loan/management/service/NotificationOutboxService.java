@@ -0,0 +1,125 @@
+package com.demo.loan.management.service;
+
+import com.demo.loan.management.model.Notification;
+import com.demo.loan.management.model.NotificationOutbox;
+import com.demo.loan.management.repository.NotificationOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The notification outbox: emails are queued in the caller's transaction and delivered later by
+ * {@link NotificationDispatcher}, so request latency never depends on the mail server and a rolled-back change
+ * never sends mail. Every claim counts as an attempt; failed attempts are retried with exponential backoff until
+ * {@code max-attempts}, after which the row is left FAILED with its last error.
+ */
+@Slf4j
+@Service
+public class NotificationOutboxService {
+
+    private static final List<String> CLAIMABLE = List.of(NotificationOutbox.STATUS_PENDING, NotificationOutbox.STATUS_SENDING);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final long leaseMs;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+
+    public NotificationOutboxService(NotificationOutboxRepository outboxRepository,
+                                     @Value("${notification.outbox.lease-ms:300000}") long leaseMs,
+                                     @Value("${notification.outbox.max-attempts:5}") int maxAttempts,
+                                     @Value("${notification.outbox.initial-backoff-ms:30000}") long initialBackoffMs,
+                                     @Value("${notification.outbox.max-backoff-ms:3600000}") long maxBackoffMs) {
+        this.outboxRepository = outboxRepository;
+        this.leaseMs = leaseMs;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    /**
+     * Queues an email; joins the caller's transaction, so it is only delivered if that transaction commits.
+     */
+    @Transactional
+    public NotificationOutbox enqueue(Notification notification, String recipient, String subject, String body) {
+        LocalDateTime now = LocalDateTime.now();
+        return outboxRepository.save(NotificationOutbox.builder()
+                .notification(notification)
+                .recipient(recipient)
+                .subject(subject)
+                .body(body)
+                .status(NotificationOutbox.STATUS_PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+    }
+
+    /**
+     * Claims up to {@code limit} due rows: pending ones and sending ones whose lease ran out. Claimed rows stay
+     * SENDING for {@code lease-ms}, which is how long the caller has to record their outcome.
+     */
+    @Transactional
+    public List<NotificationOutbox> claimBatch(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationOutbox> batch = outboxRepository.findDueForUpdate(CLAIMABLE, now, Limit.of(limit));
+        for (NotificationOutbox row : batch) {
+            if (NotificationOutbox.STATUS_SENDING.equals(row.getStatus())) {
+                log.warn("Reclaiming notification outbox row {} after its lease expired", row.getId());
+            }
+            row.setStatus(NotificationOutbox.STATUS_SENDING);
+            row.setAttempts(row.getAttempts() + 1);
+            row.setNextAttemptAt(now.plusNanos(leaseMs * 1_000_000));
+        }
+        return batch;
+    }
+
+    /**
+     * Records the outcome of a claimed batch: rows without an entry in {@code failures} were delivered.
+     */
+    @Transactional
+    public void recordOutcomes(List<NotificationOutbox> batch, Map<Long, String> failures) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> delivered = new ArrayList<>(batch.size());
+        List<NotificationOutbox> failed = new ArrayList<>(failures.size());
+        for (NotificationOutbox row : batch) {
+            String error = failures.get(row.getId());
+            if (error == null) {
+                row.setStatus(NotificationOutbox.STATUS_SENT);
+                row.setSentAt(now);
+                row.setLastError(null);
+                delivered.add(row.getId());
+                continue;
+            }
+            row.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+            if (row.getAttempts() >= maxAttempts) {
+                row.setStatus(NotificationOutbox.STATUS_FAILED);
+                log.error("Giving up on notification outbox row {} after {} attempts: {}", row.getId(), row.getAttempts(), error);
+            } else {
+                row.setStatus(NotificationOutbox.STATUS_PENDING);
+                row.setNextAttemptAt(now.plusNanos(backoffMs(row.getAttempts()) * 1_000_000));
+            }
+            failed.add(row);
+        }
+
+        if (!delivered.isEmpty()) {
+            outboxRepository.markDelivered(delivered, NotificationOutbox.STATUS_SENT, now);
+        }
+        if (!failed.isEmpty()) {
+            outboxRepository.saveAll(failed);
+        }
+    }
+
+    long backoffMs(int attempts) {
+        int doublings = Math.min(Math.max(attempts - 1, 0), 30);
+        return Math.min(initialBackoffMs << doublings, maxBackoffMs);
+    }
+}
@@ -3,8 +3,8 @@ package com.demo.loan.management.service;
 import com.demo.loan.management.model.Notification;
 import com.demo.loan.management.model.User;
 import com.demo.loan.management.repository.NotificationRepository;
-import com.demo.loan.management.repository.UserRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -12,27 +12,29 @@ import java.util.List;
 public class NotificationService {
 
     private final NotificationRepository notificationRepository;
-    private final UserRepository userRepository;
-    private final EmailService emailService;
+    private final UserCacheService userCacheService;
+    private final NotificationOutboxService notificationOutboxService;
 
     public NotificationService(NotificationRepository notificationRepository,
-                               UserRepository userRepository,
-                               EmailService emailService) {
+                               UserCacheService userCacheService,
+                               NotificationOutboxService notificationOutboxService) {
         this.notificationRepository = notificationRepository;
-        this.userRepository = userRepository;
-        this.emailService = emailService;
+        this.userCacheService = userCacheService;
+        this.notificationOutboxService = notificationOutboxService;
     }
 
     // ✅ Create a new notification
+    @Transactional
     public Notification createNotification(Long userId, Notification notification) {
-        User user = userRepository.findById(userId)
+        User user = userCacheService.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         notification.setUser(user);
         Notification savedNotification = notificationRepository.save(notification);
 
-        // Send Email Notification
-        emailService.sendEmail(
+        // Queue the email in the same transaction; NotificationDispatcher delivers it
+        notificationOutboxService.enqueue(
+                savedNotification,
                 user.getEmail(),
                 "New Notification",
                 notification.getMessage()
@@ -73,8 +75,9 @@ public class NotificationService {
     }
 
     //  Send loan approval notification
+    @Transactional
     public Notification sendLoanApprovalNotification(Long userId) {
-        User user = userRepository.findById(userId)
+        User user = userCacheService.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         Notification notification = new Notification();
@@ -85,8 +88,9 @@ public class NotificationService {
 
         Notification savedNotification = notificationRepository.save(notification);
 
-        // Send Email Notification
-        emailService.sendEmail(
+        // Queue the email in the same transaction; NotificationDispatcher delivers it
+        notificationOutboxService.enqueue(
+                savedNotification,
                 user.getEmail(),
                 "Loan Approved",
                 "Dear " + user.getFirstName() + ",\n\nYour loan application has been approved.\n\nThank you!"
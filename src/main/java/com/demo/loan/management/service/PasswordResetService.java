@@ -3,11 +3,11 @@ package com.demo.loan.management.service;
 import com.demo.loan.management.exception.ResourceNotFoundException;
 import com.demo.loan.management.model.PasswordResetToken;
 import com.demo.loan.management.model.User;
-import com.demo.loan.management.repository.PasswordResetTokenRepository;
 import com.demo.loan.management.repository.UserRepository;
+import com.demo.loan.management.security.UserEpochRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -20,22 +20,22 @@ import java.util.UUID;
 public class PasswordResetService {
 
     private final UserRepository userRepository;
-    private final PasswordResetTokenRepository tokenRepository;
+    private final ResetCredentialStore credentialStore;
     private final EmailService emailService;
-    private final SmsService smsService;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final SmsDispatcher smsDispatcher;
+    private final PasswordEncoder passwordEncoder;
+    private final UserEpochRegistry userEpochRegistry;
+    private final UserCacheService userCacheService;
 
     // EMAIL RESET FLOW
     public void initiateResetByEmail(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with provided email."));
 
-        // Delete existing token for the user if any
-        tokenRepository.findByUser(user).ifPresent(tokenRepository::delete);
-
+        // Replaces any earlier credential of the user
         String token = UUID.randomUUID().toString();
         PasswordResetToken resetToken = new PasswordResetToken(user, token, LocalDateTime.now().plusMinutes(15));
-        tokenRepository.save(resetToken);
+        credentialStore.save(resetToken);
 
         String resetLink = "https://yourapp.com/reset-password?token=" + token;
         emailService.sendEmail(user.getEmail(), "Password Reset Request",
@@ -49,8 +49,6 @@ public class PasswordResetService {
         User user = userRepository.findByPhoneNumber(phoneNumber)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with provided phone number."));
 
-        tokenRepository.findByUser(user).ifPresent(tokenRepository::delete);
-
         // Generate OTP and dummy token
         String otp = String.valueOf(new Random().nextInt(900000) + 100000);
         String dummyToken = "otp-" + UUID.randomUUID();
@@ -61,45 +59,61 @@ public class PasswordResetService {
         resetToken.setToken(dummyToken);
         resetToken.setExpiryTime(LocalDateTime.now().plusMinutes(5));
 
-        tokenRepository.save(resetToken);
+        credentialStore.save(resetToken);
 
-        smsService.sendSms(user.getPhoneNumber(), "Your OTP for password reset is: " + otp);
-        log.info("Password reset OTP sent to {}", phoneNumber);
+        // Delivery and its retries run in the background; the caller does not wait on the SMS provider
+        String deliveryId = smsDispatcher.send(user.getPhoneNumber(), "Your OTP for password reset is: " + otp);
+        log.info("Password reset OTP queued for {} as SMS {}", phoneNumber, deliveryId);
         log.info("Generated OTP for {}: {}", phoneNumber, otp);
     }
 
 
     // RESET VIA EMAIL LINK
     public void resetPassword(String token, String newPassword) {
-        PasswordResetToken resetToken = tokenRepository.findByToken(token)
+        PasswordResetToken resetToken = credentialStore.findByToken(token)
                 .orElseThrow(() -> new ResourceNotFoundException("Invalid or expired token."));
 
         if (resetToken.getExpiryTime().isBefore(LocalDateTime.now())) {
             throw new RuntimeException("Reset token has expired.");
         }
 
-        User user = resetToken.getUser();
+        // The credential may have been issued a while ago; change the current row, not the copy it holds
+        User user = userRepository.findById(resetToken.getUser().getUserId())
+                .orElseThrow(() -> new ResourceNotFoundException("Invalid or expired token."));
         user.setPassword(passwordEncoder.encode(newPassword));
+        revokeIssuedTokens(user);
         userRepository.save(user);
-        tokenRepository.delete(resetToken);
+        userCacheService.invalidate(user);
+        userEpochRegistry.recordChange(user.getEmail(), user.getTokenEpoch());
+        credentialStore.delete(resetToken);
 
         log.info("Password reset via email successful for user ID {}", user.getUserId());
     }
 
     // RESET VIA OTP
-    public void resetPasswordWithOTP(String otp, String newPassword) {
-        PasswordResetToken resetToken = tokenRepository.findByOtp(otp)
+    public void resetPasswordWithOTP(String phoneNumber, String otp, String newPassword) {
+        // OTPs are only unique per user, so the phone number picks the user and the OTP is checked against it
+        User user = userRepository.findByPhoneNumber(phoneNumber)
+                .orElseThrow(() -> new ResourceNotFoundException("Invalid or expired OTP."));
+        PasswordResetToken resetToken = credentialStore.findByOtp(user, otp)
                 .orElseThrow(() -> new ResourceNotFoundException("Invalid or expired OTP."));
 
         if (resetToken.getExpiryTime().isBefore(LocalDateTime.now())) {
             throw new RuntimeException("OTP has expired.");
         }
 
-        User user = resetToken.getUser();
         user.setPassword(passwordEncoder.encode(newPassword));
+        revokeIssuedTokens(user);
         userRepository.save(user);
-        tokenRepository.delete(resetToken);
+        userCacheService.invalidate(user);
+        userEpochRegistry.recordChange(user.getEmail(), user.getTokenEpoch());
+        credentialStore.delete(resetToken);
 
         log.info("Password reset via OTP successful for user ID {}", user.getUserId());
     }
+
+    // Tokens issued before a password change carry the old epoch and are no longer accepted
+    private void revokeIssuedTokens(User user) {
+        user.setTokenEpoch(user.getTokenEpoch() + 1);
+    }
 }
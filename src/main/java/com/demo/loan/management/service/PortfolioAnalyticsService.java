@@ -0,0 +1,285 @@
+package com.demo.loan.management.service;
+
+import com.demo.loan.management.dto.AmortizationScheduleDTO;
+import com.demo.loan.management.dto.DelinquencyBucketDTO;
+import com.demo.loan.management.dto.InstallmentDTO;
+import com.demo.loan.management.dto.PortfolioSnapshotDTO;
+import com.demo.loan.management.model.Emi;
+import com.demo.loan.management.model.Loan;
+import com.demo.loan.management.repository.EmiRepository;
+import com.demo.loan.management.repository.LoanRepository;
+import com.demo.loan.management.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * In-memory portfolio aggregates for the admin dashboard: total outstanding, collections this month and
+ * delinquency buckets. Loan approvals and EMI payments adjust the aggregates once their transaction commits,
+ * so reads never aggregate over the loans, EMI or transaction tables. {@link #rebuild()} recomputes everything
+ * from the database at startup and on demand.
+ */
+@Slf4j
+@Service
+public class PortfolioAnalyticsService {
+
+    private static final int REBUILD_PAGE_SIZE = 500;
+    private static final int MONTHS_RETAINED = 13;
+    private static final List<Bucket> DELINQUENCY_BUCKETS = List.of(
+            new Bucket("1-30", 1, 30),
+            new Bucket("31-60", 31, 60),
+            new Bucket("61-90", 61, 90),
+            new Bucket("91+", 91, null));
+
+    private final EmiRepository emiRepository;
+    private final LoanRepository loanRepository;
+    private final TransactionRepository transactionRepository;
+    private final AmortizationCalculator amortizationCalculator;
+    private final boolean rebuildOnStartup;
+
+    private final Object lock = new Object();
+    private Aggregates aggregates = new Aggregates();
+    private LocalDateTime lastRebuiltAt;
+
+    public PortfolioAnalyticsService(EmiRepository emiRepository,
+                                     LoanRepository loanRepository,
+                                     TransactionRepository transactionRepository,
+                                     AmortizationCalculator amortizationCalculator,
+                                     @Value("${loan.analytics.rebuild-on-startup:true}") boolean rebuildOnStartup) {
+        this.emiRepository = emiRepository;
+        this.loanRepository = loanRepository;
+        this.transactionRepository = transactionRepository;
+        this.amortizationCalculator = amortizationCalculator;
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    /**
+     * Adds every installment of a newly approved loan to the outstanding balance.
+     */
+    public void recordApproval(Loan loan, AmortizationScheduleDTO schedule) {
+        LocalDateTime approvedAt = loan.getApprovedAt();
+        List<Installment> installments = new ArrayList<>(schedule.getInstallments().size());
+        for (InstallmentDTO installment : schedule.getInstallments()) {
+            installments.add(new Installment(
+                    approvedAt.plusMonths(installment.getInstallmentNumber()).toLocalDate(),
+                    toMinorUnits(installment.getPayment())));
+        }
+
+        afterCommit(() -> {
+            synchronized (lock) {
+                for (Installment installment : installments) {
+                    aggregates.addUnpaid(installment.dueDate(), 1, installment.amount());
+                }
+            }
+        });
+    }
+
+    /**
+     * Moves a paid EMI out of the outstanding balance and into the collections of the month it was paid in.
+     */
+    public void recordPayment(Emi emi, BigDecimal amountPaid, LocalDateTime paidOn) {
+        LocalDate dueDate = emi.getDueDate() == null ? null : emi.getDueDate().toLocalDate();
+        long emiAmount = toMinorUnits(emi.getEmiAmount());
+        long collected = toMinorUnits(amountPaid);
+        YearMonth month = YearMonth.from(paidOn);
+
+        afterCommit(() -> {
+            synchronized (lock) {
+                if (dueDate != null) {
+                    aggregates.removeUnpaid(dueDate, emiAmount);
+                }
+                aggregates.addCollected(month, 1, collected);
+            }
+        });
+    }
+
+    public PortfolioSnapshotDTO snapshot() {
+        LocalDate today = LocalDate.now();
+        synchronized (lock) {
+            List<DelinquencyBucketDTO> buckets = new ArrayList<>(DELINQUENCY_BUCKETS.size());
+            for (Bucket bucket : DELINQUENCY_BUCKETS) {
+                // A bucket of [min, max] days past due covers due dates [today - max, today - min]
+                NavigableMap<LocalDate, long[]> range = bucket.maxDays() == null
+                        ? aggregates.unpaidByDueDate.headMap(today.minusDays(bucket.minDays()), true)
+                        : aggregates.unpaidByDueDate.subMap(today.minusDays(bucket.maxDays()), true,
+                                                            today.minusDays(bucket.minDays()), true);
+                long count = 0;
+                long amount = 0;
+                for (long[] totals : range.values()) {
+                    count += totals[0];
+                    amount += totals[1];
+                }
+                buckets.add(new DelinquencyBucketDTO(bucket.label(), bucket.minDays(), bucket.maxDays(), count, toMoney(amount)));
+            }
+
+            long[] collected = aggregates.collectedByMonth.getOrDefault(YearMonth.from(today), new long[2]);
+            return new PortfolioSnapshotDTO(
+                    today,
+                    toMoney(aggregates.outstandingAmount),
+                    aggregates.outstandingCount,
+                    toMoney(collected[1]),
+                    collected[0],
+                    buckets,
+                    lastRebuiltAt);
+        }
+    }
+
+    /**
+     * Recomputes the aggregates from the database and swaps them in. Updates committed while the rebuild
+     * runs may be missed or counted twice, so run it off-peak; the next rebuild corrects any drift.
+     */
+    public PortfolioSnapshotDTO rebuild() {
+        Aggregates fresh = new Aggregates();
+
+        for (Object[] row : emiRepository.sumUnpaidByDueDate()) {
+            fresh.addUnpaid((LocalDate) row[0], (Long) row[1], toMinorUnits((BigDecimal) row[2]));
+        }
+        addVirtualInstallments(fresh);
+
+        YearMonth firstMonth = YearMonth.now().minusMonths(MONTHS_RETAINED - 1);
+        for (Object[] row : transactionRepository.sumSuccessfulByMonthSince(firstMonth.atDay(1).atStartOfDay())) {
+            fresh.addCollected(YearMonth.of((Integer) row[0], (Integer) row[1]), (Long) row[2], toMinorUnits((BigDecimal) row[3]));
+        }
+
+        synchronized (lock) {
+            aggregates = fresh;
+            lastRebuiltAt = LocalDateTime.now();
+        }
+        log.info("Rebuilt portfolio analytics: {} outstanding installments", fresh.outstandingCount);
+        return snapshot();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (!rebuildOnStartup) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Portfolio analytics rebuild failed at startup; serving incremental updates only", e);
+        }
+    }
+
+    // Unpaid installments of virtual schedules have no rows, so derive them the same way EmiService does
+    private void addVirtualInstallments(Aggregates fresh) {
+        long afterLoanId = 0L;
+        List<Loan> page;
+        do {
+            page = loanRepository.findByScheduleModeAndLoanStatusAndLoanIdGreaterThanOrderByLoanIdAsc(
+                    Loan.SCHEDULE_VIRTUAL, "APPROVED", afterLoanId, Limit.of(REBUILD_PAGE_SIZE));
+            if (page.isEmpty()) {
+                break;
+            }
+
+            Map<Long, Set<Integer>> storedByLoan = new HashMap<>();
+            for (Object[] row : emiRepository.findInstallmentNumbersByLoanIds(page.stream().map(Loan::getLoanId).toList())) {
+                storedByLoan.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((Integer) row[1]);
+            }
+
+            for (Loan loan : page) {
+                Set<Integer> stored = storedByLoan.getOrDefault(loan.getLoanId(), Set.of());
+                AmortizationScheduleDTO schedule = amortizationCalculator.buildSchedule(
+                        loan.getLoanAmount(), loan.getInterestRate(), loan.getLoanTenure());
+                for (InstallmentDTO installment : schedule.getInstallments()) {
+                    if (!stored.contains(installment.getInstallmentNumber())) {
+                        fresh.addUnpaid(loan.getApprovedAt().plusMonths(installment.getInstallmentNumber()).toLocalDate(),
+                                1, toMinorUnits(installment.getPayment()));
+                    }
+                }
+                afterLoanId = loan.getLoanId();
+            }
+        } while (page.size() == REBUILD_PAGE_SIZE);
+    }
+
+    // Apply only once the surrounding transaction commits, so rolled-back approvals and payments are never counted
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+
+    private static long toMinorUnits(BigDecimal amount) {
+        return amount == null ? 0L : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal toMoney(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, 2);
+    }
+
+    private record Bucket(String label, int minDays, Integer maxDays) {
+    }
+
+    private record Installment(LocalDate dueDate, long amount) {
+    }
+
+    /**
+     * Mutable totals in minor units; every access is guarded by {@code lock}. Each map value is {count, amount}.
+     */
+    private static final class Aggregates {
+        private final TreeMap<LocalDate, long[]> unpaidByDueDate = new TreeMap<>();
+        private final TreeMap<YearMonth, long[]> collectedByMonth = new TreeMap<>();
+        private long outstandingCount;
+        private long outstandingAmount;
+
+        void addUnpaid(LocalDate dueDate, long count, long amount) {
+            long[] totals = unpaidByDueDate.computeIfAbsent(dueDate, d -> new long[2]);
+            totals[0] += count;
+            totals[1] += amount;
+            outstandingCount += count;
+            outstandingAmount += amount;
+        }
+
+        void removeUnpaid(LocalDate dueDate, long amount) {
+            long[] totals = unpaidByDueDate.get(dueDate);
+            if (totals == null) {
+                // Not tracked, e.g. an EMI created by hand outside an approval
+                return;
+            }
+            long removed = Math.min(amount, totals[1]);
+            totals[0]--;
+            totals[1] -= removed;
+            outstandingCount--;
+            outstandingAmount -= removed;
+            if (totals[0] <= 0) {
+                outstandingAmount -= totals[1];
+                unpaidByDueDate.remove(dueDate);
+            }
+        }
+
+        void addCollected(YearMonth month, long count, long amount) {
+            long[] totals = collectedByMonth.computeIfAbsent(month, m -> new long[2]);
+            totals[0] += count;
+            totals[1] += amount;
+            while (collectedByMonth.size() > MONTHS_RETAINED) {
+                collectedByMonth.pollFirstEntry();
+            }
+        }
+    }
+}
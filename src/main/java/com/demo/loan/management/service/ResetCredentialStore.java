@@ -0,0 +1,21 @@
+package com.demo.loan.management.service;
+
+import com.demo.loan.management.model.PasswordResetToken;
+import com.demo.loan.management.model.User;
+
+import java.util.Optional;
+
+/**
+ * Where password reset credentials (email link tokens and SMS OTPs) are kept until they are used or expire.
+ * A user has at most one outstanding credential; saving a new one replaces the previous one.
+ */
+public interface ResetCredentialStore {
+
+    void save(PasswordResetToken credential);
+
+    Optional<PasswordResetToken> findByToken(String token);
+
+    Optional<PasswordResetToken> findByOtp(User user, String otp);
+
+    void delete(PasswordResetToken credential);
+}
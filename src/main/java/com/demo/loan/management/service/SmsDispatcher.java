@@ -0,0 +1,233 @@
+package com.demo.loan.management.service;
+
+import com.demo.loan.management.dto.SmsDeliveryDTO;
+import com.demo.loan.management.exception.TooManyRequestsException;
+import com.twilio.exception.ApiConnectionException;
+import com.twilio.exception.ApiException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends SMS in the background so callers never wait on the provider. Each message gets its own virtual thread; a
+ * semaphore caps how many provider calls are in flight, and transient failures (provider 5xx or 429, connection
+ * errors and timeouts) are retried with exponential backoff until {@code max-attempts}; any other failure, such as a
+ * 4xx for an invalid number, fails the message straight away. Waiting between attempts releases the permit, so
+ * retries never hold up other messages. At most {@code max-queued} messages may be unsettled at once; further sends
+ * are rejected until some settle. The status of every message is kept in memory for {@code status-retention-ms}
+ * after it settles.
+ */
+@Slf4j
+@Service
+public class SmsDispatcher {
+
+    public static final String STATUS_QUEUED = "QUEUED";
+    public static final String STATUS_SENDING = "SENDING";
+    public static final String STATUS_RETRYING = "RETRYING";
+    public static final String STATUS_SENT = "SENT";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final SmsSender smsSender;
+    private final Semaphore permits;
+    private final int maxAttempts;
+    private final int maxQueued;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final long statusRetentionMs;
+    private final ExecutorService executor;
+    private final Map<String, Delivery> deliveries = new ConcurrentHashMap<>();
+    private final AtomicInteger unsettled = new AtomicInteger();
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+    private final Counter rejected;
+
+    public SmsDispatcher(SmsSender smsSender,
+                         MeterRegistry meterRegistry,
+                         @Value("${sms.dispatch.max-concurrent:20}") int maxConcurrent,
+                         @Value("${sms.dispatch.max-attempts:4}") int maxAttempts,
+                         @Value("${sms.dispatch.max-queued:10000}") int maxQueued,
+                         @Value("${sms.dispatch.initial-backoff-ms:1000}") long initialBackoffMs,
+                         @Value("${sms.dispatch.max-backoff-ms:30000}") long maxBackoffMs,
+                         @Value("${sms.dispatch.status-retention-ms:3600000}") long statusRetentionMs) {
+        this.smsSender = smsSender;
+        this.permits = new Semaphore(maxConcurrent);
+        this.maxAttempts = maxAttempts;
+        this.maxQueued = maxQueued;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.statusRetentionMs = statusRetentionMs;
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sms-", 0).factory());
+        this.sent = Counter.builder("sms.dispatched").tag("result", "sent").register(meterRegistry);
+        this.retried = Counter.builder("sms.dispatched").tag("result", "retry").register(meterRegistry);
+        this.failed = Counter.builder("sms.dispatched").tag("result", "failed").register(meterRegistry);
+        this.rejected = Counter.builder("sms.dispatched").tag("result", "rejected").register(meterRegistry);
+        Gauge.builder("sms.in-flight", permits, p -> maxConcurrent - p.availablePermits()).register(meterRegistry);
+        Gauge.builder("sms.tracked", deliveries, Map::size).register(meterRegistry);
+        Gauge.builder("sms.queued", unsettled, AtomicInteger::get).register(meterRegistry);
+    }
+
+    /**
+     * Queues an SMS and returns its delivery ID straight away.
+     *
+     * @throws TooManyRequestsException if {@code max-queued} messages are still waiting to settle
+     */
+    public String send(String to, String body) {
+        if (unsettled.incrementAndGet() > maxQueued) {
+            unsettled.decrementAndGet();
+            rejected.increment();
+            throw new TooManyRequestsException("Too many SMS are waiting to be sent. Please try again later.",
+                    Math.max(1, TimeUnit.MILLISECONDS.toSeconds(initialBackoffMs)));
+        }
+        Delivery delivery = new Delivery(UUID.randomUUID().toString());
+        deliveries.put(delivery.id, delivery);
+        executor.execute(() -> deliver(delivery, to, body));
+        return delivery.id;
+    }
+
+    public Optional<SmsDeliveryDTO> status(String deliveryId) {
+        return Optional.ofNullable(deliveries.get(deliveryId)).map(Delivery::toDto);
+    }
+
+    /**
+     * Forgets settled deliveries once they are older than the retention window.
+     */
+    @Scheduled(fixedDelayString = "${sms.dispatch.status-retention-ms:3600000}")
+    public void purgeSettled() {
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(statusRetentionMs * 1_000_000);
+        deliveries.values().removeIf(delivery -> delivery.isSettled() && delivery.updatedAt.isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void deliver(Delivery delivery, String to, String body) {
+        try {
+            for (int attempt = 1; ; attempt++) {
+                Exception error = attempt(delivery, to, body);
+                if (error == null) {
+                    sent.increment();
+                    return;
+                }
+                if (attempt >= maxAttempts || !isTransient(error)) {
+                    delivery.update(STATUS_FAILED, error);
+                    failed.increment();
+                    log.warn("SMS {} failed after {} attempts", delivery.id, attempt, error);
+                    return;
+                }
+                delivery.update(STATUS_RETRYING, error);
+                retried.increment();
+                Thread.sleep(backoffMs(attempt));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            delivery.update(STATUS_FAILED, e);
+            failed.increment();
+        } finally {
+            unsettled.decrementAndGet();
+        }
+    }
+
+    // Returns the failure of this attempt, or null once the provider has accepted the message
+    private Exception attempt(Delivery delivery, String to, String body) throws InterruptedException {
+        permits.acquire();
+        try {
+            delivery.startAttempt();
+            delivery.sent(smsSender.sendSms(to, body));
+            return null;
+        } catch (RuntimeException e) {
+            return e;
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Whether another attempt may succeed: the provider was unavailable or throttling, or it could not be reached.
+     */
+    static boolean isTransient(Throwable error) {
+        if (error instanceof ApiException apiError) {
+            Integer statusCode = apiError.getStatusCode();
+            return statusCode == null || statusCode == 429 || statusCode >= 500;
+        }
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ApiConnectionException || cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    long backoffMs(int attempts) {
+        int doublings = Math.min(Math.max(attempts - 1, 0), 30);
+        return Math.min(initialBackoffMs << doublings, maxBackoffMs);
+    }
+
+    /**
+     * Status of one message. Only its own virtual thread writes to it; readers take a snapshot.
+     */
+    private static final class Delivery {
+        private final String id;
+        private final LocalDateTime queuedAt = LocalDateTime.now();
+        private volatile String status = STATUS_QUEUED;
+        private volatile int attempts;
+        private volatile String providerMessageId;
+        private volatile String lastError;
+        private volatile LocalDateTime updatedAt = queuedAt;
+
+        Delivery(String id) {
+            this.id = id;
+        }
+
+        void startAttempt() {
+            attempts++;
+            status = STATUS_SENDING;
+            updatedAt = LocalDateTime.now();
+        }
+
+        void sent(String messageId) {
+            providerMessageId = messageId;
+            status = STATUS_SENT;
+            updatedAt = LocalDateTime.now();
+        }
+
+        void update(String newStatus, Exception error) {
+            String message = error.getMessage() == null ? error.getClass().getSimpleName() : error.getMessage();
+            lastError = message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+            status = newStatus;
+            updatedAt = LocalDateTime.now();
+        }
+
+        boolean isSettled() {
+            return STATUS_SENT.equals(status) || STATUS_FAILED.equals(status);
+        }
+
+        SmsDeliveryDTO toDto() {
+            return new SmsDeliveryDTO(id, status, attempts, providerMessageId, lastError, queuedAt, updatedAt);
+        }
+    }
+}
@@ -1,5 +1,12 @@
 package com.demo.loan.management.service;
 
+/**
+ * Hands one SMS to a provider. Implementations block until the provider has accepted or rejected the message.
+ */
 public interface SmsSender {
+
+    /**
+     * Returns the provider's message ID; throws if the message was not accepted.
+     */
     String sendSms(String to, String body);
 }
@@ -6,10 +6,12 @@ import com.twilio.rest.api.v2010.account.Message;
 import com.twilio.type.PhoneNumber;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "sms.provider", havingValue = "twilio", matchIfMissing = true)
 public class SmsService implements SmsSender {
 
     private final TwilioConfig twilioConfig;
@@ -19,18 +21,15 @@ public class SmsService implements SmsSender {
         Twilio.init(twilioConfig.getAccountSid(), twilioConfig.getAuthToken());
     }
 
+    // Failures propagate so SmsDispatcher can retry them
     @Override
     public String sendSms(String to, String body) {
-        try {
-            Message message = Message.creator(
-                    new PhoneNumber(to),
-                    new PhoneNumber(twilioConfig.getTwilioPhoneNumber()),
-                    body
-            ).create();
+        Message message = Message.creator(
+                new PhoneNumber(to),
+                new PhoneNumber(twilioConfig.getTwilioPhoneNumber()),
+                body
+        ).create();
 
-            return "SMS sent successfully with SID: " + message.getSid();
-        } catch (Exception e) {
-            return "Failed to send SMS: " + e.getMessage();
-        }
+        return message.getSid();
     }
 }
@@ -0,0 +1,50 @@
+package com.demo.loan.management.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Offline stand-in for Twilio, selected with {@code sms.provider=stub}. Accepts every message, logs it and keeps
+ * the most recent ones in memory so local runs and tests can read what would have been sent.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "sms.provider", havingValue = "stub")
+public class StubSmsSender implements SmsSender {
+
+    private static final int MAX_RETAINED = 1000;
+
+    private final Deque<SentSms> sent = new ArrayDeque<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Override
+    public String sendSms(String to, String body) {
+        String messageId = "stub-" + sequence.incrementAndGet();
+        synchronized (sent) {
+            sent.addLast(new SentSms(messageId, to, body));
+            if (sent.size() > MAX_RETAINED) {
+                sent.removeFirst();
+            }
+        }
+        log.info("Stub SMS {} to {}", messageId, to);
+        return messageId;
+    }
+
+    /**
+     * Messages accepted so far, oldest first.
+     */
+    public List<SentSms> sentMessages() {
+        synchronized (sent) {
+            return List.copyOf(sent);
+        }
+    }
+
+    public record SentSms(String messageId, String to, String body) {
+    }
+}
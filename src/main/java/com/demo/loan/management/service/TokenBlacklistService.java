@@ -2,25 +2,260 @@ package com.demo.loan.management.service;
 
 import com.demo.loan.management.model.BlacklistedToken;
 import com.demo.loan.management.repository.BlacklistedTokenRepository;
-import lombok.RequiredArgsConstructor;
+import com.demo.loan.management.security.JwtUtil;
+import com.demo.loan.management.security.TokenDigest;
+import com.demo.loan.management.security.VerifiedToken;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
 
+/**
+ * Revoked (logged-out) tokens. Lookups never touch the database: a Bloom filter answers "not revoked" for almost
+ * every request, and the rare positive is confirmed against an in-memory map of revoked tokens that have not
+ * expired yet. Revocations are keyed by the token's {@code jti} digest, so the table stores a fixed-width key and
+ * the token's expiry instead of the bearer string; it is loaded into memory at startup and expired rows are
+ * range-deleted on a schedule. Each instance polls the table for rows written since its last poll every
+ * {@code poll-interval-ms}, so a logout on one node is enforced on all of them within one poll.
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class TokenBlacklistService {
 
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    // Re-read a little before the last poll, so revocations committed just after it started are not skipped
+    private static final long POLL_OVERLAP_MS = 5000;
+
     private final BlacklistedTokenRepository blacklistedTokenRepository;
+    private final JwtUtil jwtUtil;
+    private final long maxTokenLifetimeMs;
+    private final int expectedEntries;
+
+    private final Map<TokenDigest, Instant> revoked = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private volatile BloomFilter bloomFilter;
+    private volatile LocalDateTime lastPolledAt;
+
+    public TokenBlacklistService(BlacklistedTokenRepository blacklistedTokenRepository,
+                                 JwtUtil jwtUtil,
+                                 @Value("${jwt.refresh-expiration-ms:1209600000}") long maxTokenLifetimeMs,
+                                 @Value("${jwt.blacklist.expected-entries:100000}") int expectedEntries) {
+        this.blacklistedTokenRepository = blacklistedTokenRepository;
+        this.jwtUtil = jwtUtil;
+        this.maxTokenLifetimeMs = maxTokenLifetimeMs;
+        this.expectedEntries = expectedEntries;
+        this.bloomFilter = new BloomFilter(expectedEntries, FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * Loads every revocation whose token has not expired yet, after carrying over rows from the legacy table.
+     */
+    @PostConstruct
+    public void warmUp() {
+        migrateLegacyRows();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int loaded = 0;
+            for (BlacklistedToken row : blacklistedTokenRepository.findByExpiresAtAfter(now)) {
+                remember(row);
+                loaded++;
+            }
+            lastPolledAt = now;
+            log.info("Loaded {} revoked tokens into the blacklist", loaded);
+        } catch (RuntimeException e) {
+            log.warn("Could not load revoked tokens at startup; only new revocations will be enforced", e);
+        }
+    }
+
+    /**
+     * Revocations made before tokens were keyed by jti digest live in {@code blacklisted_token}, which ddl-auto leaves
+     * in place but nothing reads any more. Copies every row whose token still verifies into {@code revoked_tokens},
+     * then empties the old table; rows for expired tokens are dropped since those tokens are rejected anyway. Safe to
+     * run on every startup: a missing or empty table is a no-op.
+     */
+    void migrateLegacyRows() {
+        List<Object[]> rows;
+        try {
+            rows = blacklistedTokenRepository.findLegacyRows();
+        } catch (RuntimeException e) {
+            log.debug("No legacy blacklisted_token table to migrate");
+            return;
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        int migrated = 0;
+        for (Object[] row : rows) {
+            Optional<VerifiedToken> verified = jwtUtil.verify((String) row[0]);
+            if (verified.isEmpty()) {
+                continue;
+            }
+            TokenDigest key = verified.get().getRevocationKey();
+            if (!blacklistedTokenRepository.existsByTokenKey(key.toHex())) {
+                BlacklistedToken revoked = new BlacklistedToken();
+                revoked.setTokenKey(key.toHex());
+                revoked.setExpiresAt(LocalDateTime.ofInstant(verified.get().getExpiresAt(), ZoneId.systemDefault()));
+                revoked.setBlacklistedAt(toLocalDateTime(row[1]));
+                blacklistedTokenRepository.save(revoked);
+            }
+            remember(key, verified.get().getExpiresAt());
+            migrated++;
+        }
+        blacklistedTokenRepository.deleteLegacyRows();
+        log.info("Migrated {} of {} legacy blacklisted_token rows; the rest belonged to expired tokens", migrated, rows.size());
+    }
+
+    /**
+     * Picks up revocations recorded by other instances since the last poll. Until warm-up or a poll has succeeded,
+     * everything recorded within the longest token lifetime is read.
+     */
+    @Scheduled(fixedDelayString = "${jwt.blacklist.poll-interval-ms:2000}")
+    public void poll() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = lastPolledAt == null ? now.minusNanos(maxTokenLifetimeMs * 1_000_000) : lastPolledAt;
+        try {
+            for (BlacklistedToken row : blacklistedTokenRepository.findByBlacklistedAtAfter(since.minusNanos(POLL_OVERLAP_MS * 1_000_000))) {
+                remember(row);
+            }
+            lastPolledAt = now;
+        } catch (RuntimeException e) {
+            // Keep the previous cursor so the next poll retries the same range
+            log.warn("Could not poll revoked tokens; logouts on other instances are delayed", e);
+        }
+    }
 
     public void blacklistToken(String token) {
-        BlacklistedToken blacklistedToken = new BlacklistedToken();
-        blacklistedToken.setToken(token);
-        blacklistedToken.setBlacklistedAt(LocalDateTime.now());
-        blacklistedTokenRepository.save(blacklistedToken);
+        // Tokens that no longer verify are already rejected; key them by digest with the longest possible lifetime
+        Optional<VerifiedToken> verified = jwtUtil.verify(token);
+        TokenDigest key = verified.map(VerifiedToken::getRevocationKey).orElseGet(() -> TokenDigest.of(token));
+        Instant expiresAt = verified.map(VerifiedToken::getExpiresAt)
+                .orElseGet(() -> Instant.now().plusMillis(maxTokenLifetimeMs));
+
+        if (!isRevoked(key) && !blacklistedTokenRepository.existsByTokenKey(key.toHex())) {
+            BlacklistedToken blacklistedToken = new BlacklistedToken();
+            blacklistedToken.setTokenKey(key.toHex());
+            blacklistedToken.setExpiresAt(LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()));
+            blacklistedToken.setBlacklistedAt(LocalDateTime.now());
+            blacklistedTokenRepository.save(blacklistedToken);
+        }
+        remember(key, expiresAt);
+    }
+
+    public boolean isTokenBlacklisted(VerifiedToken token) {
+        return isRevoked(token.getRevocationKey());
     }
 
     public boolean isTokenBlacklisted(String token) {
-        return blacklistedTokenRepository.findByToken(token).isPresent();
+        return jwtUtil.verify(token)
+                .map(this::isTokenBlacklisted)
+                .orElseGet(() -> isRevoked(TokenDigest.of(token)));
+    }
+
+    /**
+     * Drops expired revocations from memory and the table. Bloom filters cannot remove entries, so the filter is
+     * rebuilt from what is left.
+     */
+    @Scheduled(fixedDelayString = "${jwt.blacklist.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        int before = revoked.size();
+        synchronized (writeLock) {
+            revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, revoked.size() * 2), FALSE_POSITIVE_RATE);
+            revoked.keySet().forEach(rebuilt::put);
+            bloomFilter = rebuilt;
+        }
+
+        int deleted = blacklistedTokenRepository.deleteByExpiresAtBefore(LocalDateTime.now());
+        log.info("Purged {} expired revocations from memory and {} rows from the blacklist table",
+                before - revoked.size(), deleted);
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return value instanceof LocalDateTime dateTime ? dateTime : LocalDateTime.now();
+    }
+
+    private boolean isRevoked(TokenDigest key) {
+        if (!bloomFilter.mightContain(key)) {
+            return false;
+        }
+        Instant expiresAt = revoked.get(key);
+        return expiresAt != null && expiresAt.isAfter(Instant.now());
+    }
+
+    private void remember(BlacklistedToken row) {
+        remember(TokenDigest.fromHex(row.getTokenKey()), row.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private void remember(TokenDigest digest, Instant expiresAt) {
+        synchronized (writeLock) {
+            revoked.merge(digest, expiresAt, (previous, next) -> previous.isAfter(next) ? previous : next);
+            bloomFilter.put(digest);
+        }
+    }
+
+    /**
+     * Fixed-size Bloom filter over token digests. The digest is already uniformly distributed, so its first two
+     * words drive the double hashing directly.
+     */
+    private static final class BloomFilter {
+
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+
+        BloomFilter(int expectedEntries, double falsePositiveRate) {
+            long n = Math.max(expectedEntries, 1);
+            long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bits = new AtomicLongArray((int) ((m + 63) / 64));
+            this.bitCount = bits.length() * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        }
+
+        void put(TokenDigest digest) {
+            for (int i = 0; i < hashCount; i++) {
+                long bit = index(digest, i);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = bits.get(word);
+                } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(TokenDigest digest) {
+            for (int i = 0; i < hashCount; i++) {
+                long bit = index(digest, i);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long index(TokenDigest digest, int i) {
+            return Math.floorMod(digest.a() + i * digest.b(), bitCount);
+        }
     }
 }
@@ -0,0 +1,134 @@
+package com.demo.loan.management.service;
+
+import com.demo.loan.management.dto.TransactionExportRow;
+import com.demo.loan.management.exception.BadRequestException;
+import com.demo.loan.management.repository.TransactionRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Streams the transaction ledger straight to an output stream, one row at a time, so memory use stays
+ * constant whatever the number of rows.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransactionExportService {
+
+    private static final String CSV_HEADER =
+            "transactionId,emiId,loanId,transactionAmount,paymentMethod,transactionDate,transactionStatus";
+
+    private final TransactionRepository transactionRepository;
+    private final ObjectMapper objectMapper;
+
+    @Getter
+    public enum ExportFormat {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String fileExtension;
+
+        ExportFormat(String contentType, String fileExtension) {
+            this.contentType = contentType;
+            this.fileExtension = fileExtension;
+        }
+
+        public static ExportFormat from(String value) {
+            try {
+                return ExportFormat.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new BadRequestException("Unsupported export format: " + value + ". Use ndjson or csv.");
+            }
+        }
+    }
+
+    /**
+     * Writes every transaction in ID order and returns the number of rows written.
+     */
+    @Transactional(readOnly = true)
+    public long export(ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<TransactionExportRow> rows = transactionRepository.streamExportRows()) {
+            long count = format == ExportFormat.CSV
+                    ? writeCsv(rows.iterator(), out)
+                    : writeNdjson(rows.iterator(), out);
+            log.info("Exported {} transactions as {}", count, format);
+            return count;
+        }
+    }
+
+    private long writeNdjson(Iterator<TransactionExportRow> rows, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(TransactionExportRow.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            while (rows.hasNext()) {
+                writer.writeValue(generator, rows.next());
+                count++;
+            }
+            if (count > 0) {
+                generator.writeRaw('\n');
+            }
+        }
+        return count;
+    }
+
+    private long writeCsv(Iterator<TransactionExportRow> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+
+        long count = 0;
+        while (rows.hasNext()) {
+            TransactionExportRow row = rows.next();
+            writer.write(csv(row.getTransactionId()));
+            writer.write(',');
+            writer.write(csv(row.getEmiId()));
+            writer.write(',');
+            writer.write(csv(row.getLoanId()));
+            writer.write(',');
+            writer.write(row.getTransactionAmount() == null ? "" : row.getTransactionAmount().toPlainString());
+            writer.write(',');
+            writer.write(csv(row.getPaymentMethod()));
+            writer.write(',');
+            writer.write(csv(row.getTransactionDate()));
+            writer.write(',');
+            writer.write(csv(row.getTransactionStatus()));
+            writer.write('\n');
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -20,6 +20,7 @@ public class TransactionService {
 
     private final TransactionRepository transactionRepository;
     private final EmiRepository emiRepository;
+    private final PortfolioAnalyticsService portfolioAnalyticsService;
 
     private static final String STATUS_SUCCESS = "SUCCESS";
     private static final String STATUS_PAID = "PAID";
@@ -87,6 +88,7 @@ public class TransactionService {
                 .build();
 
         transactionRepository.save(transaction);
+        portfolioAnalyticsService.recordPayment(emi, paymentAmount, transaction.getTransactionDate());
 
         return "EMI payment successful!";
     }
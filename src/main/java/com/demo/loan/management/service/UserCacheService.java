@@ -0,0 +1,138 @@
+package com.demo.loan.management.service;
+
+import com.demo.loan.management.model.User;
+import com.demo.loan.management.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of users by email and by ID, for the lookups made on nearly every authenticated request.
+ * Entries live in bounded LRU maps for at most {@code user.cache.ttl-ms}; callers get their own copy of the entity,
+ * so changing it cannot leak into the cache. Writers call {@link #invalidate(User)} when a user changes; the entry is
+ * dropped at once and again after commit, so a read racing the transaction cannot re-cache the old row.
+ */
+@Service
+public class UserCacheService {
+
+    private static final String CACHE_NAME = "users";
+
+    private final UserRepository userRepository;
+    private final long ttlNanos;
+    private final Map<String, Entry> byEmail;
+    private final Map<Long, Entry> byId;
+    private final Counter hits;
+    private final Counter misses;
+    // Bumped on every invalidation, so a load that started before one is not cached
+    private long generation;
+
+    public UserCacheService(UserRepository userRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${user.cache.max-size:10000}") int maxSize,
+                            @Value("${user.cache.ttl-ms:300000}") long ttlMs) {
+        this.userRepository = userRepository;
+        this.ttlNanos = ttlMs * 1_000_000;
+        this.byEmail = lruMap(maxSize);
+        this.byId = lruMap(maxSize);
+        this.hits = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss").register(meterRegistry);
+        Gauge.builder("cache.size", this, UserCacheService::size).tag("cache", CACHE_NAME).register(meterRegistry);
+    }
+
+    public Optional<User> findByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        return lookup(byEmail, email, () -> userRepository.findByEmail(email));
+    }
+
+    public Optional<User> findById(Long userId) {
+        if (userId == null) {
+            return Optional.empty();
+        }
+        return lookup(byId, userId, () -> userRepository.findById(userId));
+    }
+
+    public void invalidate(User user) {
+        invalidate(user.getEmail(), user.getUserId());
+    }
+
+    public void invalidate(String email, Long userId) {
+        Runnable evict = () -> {
+            synchronized (this) {
+                generation++;
+                if (email != null) {
+                    byEmail.remove(email);
+                }
+                if (userId != null) {
+                    byId.remove(userId);
+                }
+            }
+        };
+        evict.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict.run();
+                }
+            });
+        }
+    }
+
+    public synchronized int size() {
+        return byEmail.size();
+    }
+
+    private <K> Optional<User> lookup(Map<K, Entry> index, K key, Supplier<Optional<User>> loader) {
+        long now = System.nanoTime();
+        long loadGeneration;
+        Entry cached;
+        synchronized (this) {
+            loadGeneration = generation;
+            cached = index.get(key);
+            if (cached != null && now - cached.loadedAtNanos() >= ttlNanos) {
+                index.remove(key);
+                cached = null;
+            }
+        }
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached.user().toBuilder().build());
+        }
+
+        misses.increment();
+        Optional<User> loaded = loader.get();
+        loaded.ifPresent(user -> {
+            Entry entry = new Entry(user.toBuilder().build(), now);
+            synchronized (this) {
+                if (generation == loadGeneration) {
+                    byEmail.put(user.getEmail(), entry);
+                    byId.put(user.getUserId(), entry);
+                }
+            }
+        });
+        return loaded;
+    }
+
+    private static <K> Map<K, Entry> lruMap(int maxSize) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    private record Entry(User user, long loadedAtNanos) {
+    }
+}
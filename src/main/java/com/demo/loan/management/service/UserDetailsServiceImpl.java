@@ -26,6 +26,8 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         log.info("Attempting to load user by email: {}", email);
 
+        // Credentials come from the table, not the per-instance user cache: a password changed on another node must
+        // stop working here at once, and BCrypt dwarfs the lookup anyway
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> {
                     log.error("User not found: {}", email);
@@ -6,9 +6,9 @@ import com.demo.loan.management.mapper.UserMapper;
 import com.demo.loan.management.model.Role;
 import com.demo.loan.management.model.User;
 import com.demo.loan.management.repository.UserRepository;
+import com.demo.loan.management.security.CurrentUser;
+import com.demo.loan.management.security.UserEpochRegistry;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
@@ -25,6 +25,9 @@ public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final UserMapper userMapper;
+    private final UserEpochRegistry userEpochRegistry;
+    private final UserCacheService userCacheService;
+    private final CurrentUser currentUser;
 
     /**
      * Registers a new user and returns a UserDTO.
@@ -42,6 +45,7 @@ public class UserService {
 
         // Save to DB
         user = userRepository.save(user);  // Save the User entity
+        userCacheService.invalidate(user);
         logger.info("User registered successfully: {}", user.getEmail());
 
         // Return the UserDTO
@@ -52,6 +56,14 @@ public class UserService {
      * Fetches a user by their email.
      */
     public Optional<User> getUserByEmail(String email) {
+        return userCacheService.findByEmail(email);
+    }
+
+    /**
+     * Reads a user straight from the table, bypassing the per-instance cache, for checks that must see changes made
+     * on other instances, such as the token epoch.
+     */
+    public Optional<User> loadUserByEmail(String email) {
         return userRepository.findByEmail(email);
     }
 
@@ -66,26 +78,32 @@ public class UserService {
      * Deletes a user by ID, only if the current user is an admin.
      */
     public void deleteUser(Long userId) {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        if (principal instanceof UserDetails) {
-            String username = ((UserDetails) principal).getUsername();
-            User currentUserDetails = userRepository.findByEmail(username)
-                    .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
-            if (currentUserDetails.getRole() != Role.ADMIN) {
-                throw new SecurityException("Only admins can delete users");
-            }
-        } else {
-            throw new IllegalStateException("Authenticated user is not of type UserDetails");
+        if (currentUser.getUser().getRole() != Role.ADMIN) {
+            throw new SecurityException("Only admins can delete users");
         }
 
-
         Optional<User> user = userRepository.findById(userId);
         if (user.isEmpty()) {
             throw new IllegalArgumentException("User with ID " + userId + " does not exist.");
         }
 
         userRepository.deleteById(userId);
+        userCacheService.invalidate(user.get());
+        userEpochRegistry.recordDeletion(user.get().getEmail());
         logger.info("User with ID {} deleted successfully.", userId);
     }
+
+    /**
+     * Bumps the user's token epoch, so every access and refresh token issued so far stops being accepted.
+     */
+    public void revokeAllTokens(String email) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new IllegalArgumentException("User with email " + email + " does not exist."));
+
+        user.setTokenEpoch(user.getTokenEpoch() + 1);
+        userRepository.save(user);
+        userCacheService.invalidate(user);
+        userEpochRegistry.recordChange(user.getEmail(), user.getTokenEpoch());
+        logger.info("Revoked all tokens of user {}", user.getEmail());
+    }
 }
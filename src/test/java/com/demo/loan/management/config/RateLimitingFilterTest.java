@@ -0,0 +1,160 @@
+package com.demo.loan.management.config;
+
+import com.demo.loan.management.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RateLimitingFilterTest {
+
+    private RateLimitConfig rateLimitConfig;
+    private RateLimitBucketStore bucketStore;
+    private RateLimitingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimitConfig = new RateLimitConfig(
+                "ADMIN=5/PT1M,USER=2/PT1M,ANONYMOUS=3/PT1M,USER:export=1/PT1M",
+                "export=/api/transactions/export,admin=/api/admin/",
+                "/api/auth/login,/api/password-reset/", "2/PT1M", "2/PT15M");
+        bucketStore = new RateLimitBucketStore(100, 600000, new SimpleMeterRegistry());
+        filter = new RateLimitingFilter(rateLimitConfig, bucketStore);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldKeepSeparateBucketsPerPrincipal() throws Exception {
+        authenticate("john@example.com", "ROLE_USER");
+        assertEquals(200, call("/api/loans/1").getStatus());
+        assertEquals(200, call("/api/loans/1").getStatus());
+        assertEquals(429, call("/api/loans/1").getStatus());
+
+        authenticate("jane@example.com", "ROLE_USER");
+        assertEquals(200, call("/api/loans/1").getStatus());
+    }
+
+    @Test
+    void shouldLimitAnonymousTrafficPerClientIp() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, call("/api/loans/quote", "10.0.0.1").getStatus());
+        }
+        assertEquals(429, call("/api/loans/quote", "10.0.0.1").getStatus());
+        assertEquals(200, call("/api/loans/quote", "10.0.0.2").getStatus());
+    }
+
+    @Test
+    void shouldApplyEndpointGroupPolicy_WithOwnBucket() throws Exception {
+        authenticate("john@example.com", "ROLE_USER");
+
+        assertEquals(200, call("/api/transactions/export").getStatus());
+        assertEquals(429, call("/api/transactions/export").getStatus());
+        assertEquals(200, call("/api/loans/1").getStatus());
+    }
+
+    @Test
+    void shouldFallBackToRolePolicy_WhenGroupHasNone() {
+        assertEquals(5, rateLimitConfig.policyFor("ADMIN", "export").capacity());
+        assertEquals(2, rateLimitConfig.policyFor("AUDITOR", RateLimitConfig.DEFAULT_GROUP).capacity());
+        assertEquals("admin", rateLimitConfig.groupFor("/api/admin/users"));
+        assertEquals(RateLimitConfig.DEFAULT_GROUP, rateLimitConfig.groupFor("/api/loans/1"));
+    }
+
+    @Test
+    void shouldSetRateLimitHeaders_AndRetryAfterWhenRejected() throws Exception {
+        authenticate("john@example.com", "ROLE_USER");
+
+        MockHttpServletResponse allowed = call("/api/loans/1");
+        assertEquals("2", allowed.getHeader("RateLimit-Limit"));
+        assertEquals("1", allowed.getHeader("RateLimit-Remaining"));
+        assertEquals("2;w=60", allowed.getHeader("RateLimit-Policy"));
+        assertNull(allowed.getHeader("Retry-After"));
+
+        call("/api/loans/1");
+        MockHttpServletResponse rejected = call("/api/loans/1");
+        assertEquals(429, rejected.getStatus());
+        assertEquals("0", rejected.getHeader("RateLimit-Remaining"));
+        long retryAfter = Long.parseLong(rejected.getHeader("Retry-After"));
+        assertTrue(retryAfter > 0 && retryAfter <= 30, "Retry-After " + retryAfter);
+    }
+
+    @Test
+    void bucketStore_ShouldStayBoundedAndEvictIdleBuckets() {
+        RateLimitBucketStore store = new RateLimitBucketStore(10, 0, new SimpleMeterRegistry());
+        RateLimitPolicy policy = RateLimitPolicy.parse("1/PT1M");
+
+        for (int i = 0; i < 50; i++) {
+            store.tryConsume("ip:10.0.0." + i, policy);
+        }
+        assertTrue(store.size() <= 10, "size " + store.size());
+
+        store.evictIdle();
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void preAuthFilter_ShouldLimitCredentialEndpointsPerIp() throws Exception {
+        PreAuthRateLimitingFilter preAuthFilter = new PreAuthRateLimitingFilter(rateLimitConfig, bucketStore);
+        FilterChain chain = mock(FilterChain.class);
+
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+            request.setRemoteAddr("10.0.0.1");
+            preAuthFilter.doFilter(request, new MockHttpServletResponse(), chain);
+        }
+        MockHttpServletRequest otherIp = new MockHttpServletRequest("POST", "/api/auth/login");
+        otherIp.setRemoteAddr("10.0.0.2");
+        preAuthFilter.doFilter(otherIp, new MockHttpServletResponse(), chain);
+        MockHttpServletRequest otherPath = new MockHttpServletRequest("POST", "/api/loans/quote");
+        otherPath.setRemoteAddr("10.0.0.1");
+        preAuthFilter.doFilter(otherPath, new MockHttpServletResponse(), chain);
+
+        // Two logins from 10.0.0.1, one from 10.0.0.2 and the unrelated path pass; the third login is rejected
+        verify(chain, times(4)).doFilter(any(), any());
+    }
+
+    @Test
+    void credentialRateLimiter_ShouldLimitPerIdentity_IgnoringCase() {
+        CredentialRateLimiter limiter = new CredentialRateLimiter(rateLimitConfig, bucketStore);
+
+        limiter.checkIdentity("john@example.com");
+        limiter.checkIdentity(" John@Example.com");
+        TooManyRequestsException ex = assertThrows(TooManyRequestsException.class,
+                () -> limiter.checkIdentity("JOHN@example.com"));
+
+        assertTrue(ex.getRetryAfterSeconds() > 0);
+        limiter.checkIdentity("jane@example.com");
+    }
+
+    private void authenticate(String email, String authority) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                email, null, List.of(new SimpleGrantedAuthority(authority))));
+    }
+
+    private MockHttpServletResponse call(String path) throws Exception {
+        return call(path, "127.0.0.1");
+    }
+
+    private MockHttpServletResponse call(String path, String remoteAddr) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr(remoteAddr);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, mock(FilterChain.class));
+        return response;
+    }
+}
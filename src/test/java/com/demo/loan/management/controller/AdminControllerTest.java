@@ -1,11 +1,16 @@
 package com.demo.loan.management.controller;
 
+import com.demo.loan.management.dto.PortfolioSnapshotDTO;
+import com.demo.loan.management.service.PortfolioAnalyticsService;
 import com.demo.loan.management.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.http.ResponseEntity;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -17,6 +22,9 @@ class AdminControllerTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private PortfolioAnalyticsService portfolioAnalyticsService;
+
     @InjectMocks
     private AdminController adminController;
 
@@ -47,4 +55,29 @@ class AdminControllerTest {
         assertEquals("User deleted successfully", ((Map<?, ?>) Objects.requireNonNull(response.getBody())).get("message"));
         verify(userService, times(1)).deleteUser(userId);
     }
+
+    @Test
+    void testGetPortfolio() {
+        PortfolioSnapshotDTO snapshot = new PortfolioSnapshotDTO(LocalDate.now(), new BigDecimal("10272.84"), 12,
+                BigDecimal.ZERO.setScale(2), 0, List.of(), null);
+        when(portfolioAnalyticsService.snapshot()).thenReturn(snapshot);
+
+        ResponseEntity<PortfolioSnapshotDTO> response = adminController.getPortfolio();
+
+        assertEquals(200, response.getStatusCode().value());
+        assertSame(snapshot, response.getBody());
+        verify(portfolioAnalyticsService, never()).rebuild();
+    }
+
+    @Test
+    void testRebuildPortfolio() {
+        PortfolioSnapshotDTO snapshot = new PortfolioSnapshotDTO(LocalDate.now(), BigDecimal.ZERO.setScale(2), 0,
+                BigDecimal.ZERO.setScale(2), 0, List.of(), null);
+        when(portfolioAnalyticsService.rebuild()).thenReturn(snapshot);
+
+        ResponseEntity<PortfolioSnapshotDTO> response = adminController.rebuildPortfolio();
+
+        assertEquals(200, response.getStatusCode().value());
+        assertSame(snapshot, response.getBody());
+    }
 }
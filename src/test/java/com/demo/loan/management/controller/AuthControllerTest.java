@@ -1,11 +1,17 @@
 package com.demo.loan.management.controller;
 
+import com.demo.loan.management.config.CredentialRateLimiter;
 import com.demo.loan.management.dto.LoginRequestDTO;
+import com.demo.loan.management.dto.RefreshTokenRequestDTO;
 import com.demo.loan.management.dto.RegisterRequest;
 import com.demo.loan.management.dto.UserDTO;
+import com.demo.loan.management.exception.TooManyRequestsException;
 import com.demo.loan.management.model.Role;
 import com.demo.loan.management.model.User;
 import com.demo.loan.management.security.JwtUtil;
+import com.demo.loan.management.security.TokenDigest;
+import com.demo.loan.management.security.UserEpochRegistry;
+import com.demo.loan.management.security.VerifiedToken;
 import com.demo.loan.management.service.TokenBlacklistService;
 import com.demo.loan.management.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
@@ -18,6 +24,7 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 
+import java.time.Instant;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -42,6 +49,12 @@ class AuthControllerTest {
     @Mock
     private TokenBlacklistService tokenBlacklistService;
 
+    @Mock
+    private CredentialRateLimiter credentialRateLimiter;
+
+    @Mock
+    private UserEpochRegistry userEpochRegistry;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -89,27 +102,40 @@ class AuthControllerTest {
         user.setPassword("encodedPassword");
         user.setRole(Role.USER);
 
-        when(userService.getUserByEmail(request.getEmail())).thenReturn(Optional.of(user));
+        when(userService.loadUserByEmail(request.getEmail())).thenReturn(Optional.of(user));
 
         Authentication auth = mock(Authentication.class);
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(auth);
-        when(jwtUtil.generateToken(user.getEmail(), user.getRole().name())).thenReturn("mock-token");
+        when(jwtUtil.generateToken(user)).thenReturn("mock-token");
+        when(jwtUtil.generateRefreshToken(user)).thenReturn("mock-refresh-token");
 
         ResponseEntity<Map<String, Object>> response = authController.login(request);
 
         assertEquals(200, response.getStatusCode().value());
         assertEquals("mock-token", Objects.requireNonNull(response.getBody()).get("token"));
+        assertEquals("mock-refresh-token", response.getBody().get("refreshToken"));
         assertEquals("success", response.getBody().get("status"));
     }
 
+    @Test
+    void testLoginRateLimited_SkipsAuthentication() {
+        LoginRequestDTO request = new LoginRequestDTO("test@example.com", "password123");
+        doThrow(new TooManyRequestsException("Too many attempts for this account. Try again later.", 60))
+                .when(credentialRateLimiter).checkIdentity("test@example.com");
+
+        assertThrows(TooManyRequestsException.class, () -> authController.login(request));
+
+        verifyNoInteractions(authenticationManager, userService);
+    }
+
     @Test
     void testLogoutSuccess() {
         // Valid logout request
         String token = "Bearer mock-token";
 
         // Call logout method
-        ResponseEntity<Map<String, Object>> response = authController.logout(token);
+        ResponseEntity<Map<String, Object>> response = authController.logout(token, null);
 
         // Verify that blacklistToken method is called once
         verify(tokenBlacklistService, times(1)).blacklistToken("mock-token");
@@ -125,11 +151,86 @@ class AuthControllerTest {
         String invalidHeader = "InvalidHeader";
 
         // Call logout method
-        ResponseEntity<Map<String, Object>> response = authController.logout(invalidHeader);
+        ResponseEntity<Map<String, Object>> response = authController.logout(invalidHeader, null);
 
         // Assertions
         assertEquals(400, response.getStatusCode().value());
         assertEquals("error", Objects.requireNonNull(response.getBody()).get("status"));
         assertEquals("Invalid token format", response.getBody().get("error"));
     }
+
+    @Test
+    void testRefreshIssuesNewAccessToken() {
+        User user = User.builder().email("test@example.com").role(Role.USER).tokenEpoch(2L).build();
+        when(jwtUtil.verify("refresh-token")).thenReturn(Optional.of(token(2L, true)));
+        when(userService.loadUserByEmail("test@example.com")).thenReturn(Optional.of(user));
+        when(jwtUtil.generateToken(user)).thenReturn("new-access-token");
+        when(jwtUtil.getAccessTokenExpirationMs()).thenReturn(900000L);
+
+        ResponseEntity<Map<String, Object>> response = authController.refresh(new RefreshTokenRequestDTO("refresh-token"));
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("new-access-token", Objects.requireNonNull(response.getBody()).get("token"));
+        assertEquals(900L, response.getBody().get("expiresIn"));
+    }
+
+    @Test
+    void testRefreshRejected_WhenEpochWasBumped() {
+        User user = User.builder().email("test@example.com").role(Role.USER).tokenEpoch(3L).build();
+        when(jwtUtil.verify("refresh-token")).thenReturn(Optional.of(token(2L, true)));
+        when(userService.loadUserByEmail("test@example.com")).thenReturn(Optional.of(user));
+
+        ResponseEntity<Map<String, Object>> response = authController.refresh(new RefreshTokenRequestDTO("refresh-token"));
+
+        assertEquals(401, response.getStatusCode().value());
+        verify(jwtUtil, never()).generateToken(any(User.class));
+    }
+
+    @Test
+    void testRefreshRejected_WhenAnotherInstanceBumpedTheEpoch() {
+        when(jwtUtil.verify("refresh-token")).thenReturn(Optional.of(token(2L, true)));
+        when(userEpochRegistry.isStale("test@example.com", 2L)).thenReturn(true);
+
+        ResponseEntity<Map<String, Object>> response = authController.refresh(new RefreshTokenRequestDTO("refresh-token"));
+
+        assertEquals(401, response.getStatusCode().value());
+        verify(jwtUtil, never()).generateToken(any(User.class));
+        verify(userService, never()).getUserByEmail(anyString());
+    }
+
+    @Test
+    void testRefreshRejected_ForAccessToken() {
+        when(jwtUtil.verify("access-token")).thenReturn(Optional.of(token(0L, false)));
+
+        ResponseEntity<Map<String, Object>> response = authController.refresh(new RefreshTokenRequestDTO("access-token"));
+
+        assertEquals(401, response.getStatusCode().value());
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void testLogoutBlacklistsRefreshToken_WhenProvided() {
+        authController.logout("Bearer mock-token", new RefreshTokenRequestDTO("refresh-token"));
+
+        verify(tokenBlacklistService).blacklistToken("mock-token");
+        verify(tokenBlacklistService).blacklistToken("refresh-token");
+    }
+
+    @Test
+    void testLogoutAllBumpsEpoch() {
+        User user = User.builder().email("test@example.com").role(Role.USER).tokenEpoch(0L).build();
+        when(jwtUtil.verify("mock-token")).thenReturn(Optional.of(token(0L, false)));
+        when(userService.loadUserByEmail("test@example.com")).thenReturn(Optional.of(user));
+
+        ResponseEntity<Map<String, Object>> response = authController.logoutAll("Bearer mock-token");
+
+        assertEquals(200, response.getStatusCode().value());
+        verify(userService).revokeAllTokens("test@example.com");
+        verify(tokenBlacklistService, never()).blacklistToken(anyString());
+    }
+
+    private static VerifiedToken token(long epoch, boolean refresh) {
+        return new VerifiedToken("test@example.com", Role.USER, Instant.now(), Instant.now().plusSeconds(60), epoch,
+                TokenDigest.of("jti"), refresh);
+    }
 }
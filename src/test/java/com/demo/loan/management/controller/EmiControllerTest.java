@@ -1,5 +1,6 @@
 package com.demo.loan.management.controller;
 
+import com.demo.loan.management.dto.EmiHistoryDTO;
 import com.demo.loan.management.dto.EmiPaymentRequestDTO;
 import com.demo.loan.management.model.Emi;
 import com.demo.loan.management.service.EmiService;
@@ -7,6 +8,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.ResponseEntity;
 
+import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -64,6 +66,18 @@ class EmiControllerTest {
         verify(emiService).payEmi(emiId, requestDTO);
     }
 
+    @Test
+    void testPayInstallment_Success() {
+        EmiPaymentRequestDTO requestDTO = new EmiPaymentRequestDTO();
+        when(emiService.payInstallment(1L, 3, requestDTO)).thenReturn("EMI Payment Successful");
+
+        ResponseEntity<String> response = emiController.payInstallment(1L, 3, requestDTO);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("EMI payment successful", response.getBody());
+        verify(emiService).payInstallment(1L, 3, requestDTO);
+    }
+
     @Test
     void testGetEmisByLoanId() {
         Long loanId = 1L;
@@ -79,10 +93,11 @@ class EmiControllerTest {
 
     @Test
     void testGetEmiHistoryForUser() {
-        List<Emi> mockHistory = Collections.singletonList(new Emi());
+        List<EmiHistoryDTO> mockHistory = Collections.singletonList(
+                new EmiHistoryDTO(1L, 101L, "HOME", 1, new BigDecimal("856.07"), null, "PENDING", null, null));
         when(emiService.getEmiHistoryForUser()).thenReturn(mockHistory);
 
-        ResponseEntity<List<Emi>> response = emiController.getEmiHistoryForUser();
+        ResponseEntity<List<EmiHistoryDTO>> response = emiController.getEmiHistoryForUser();
 
         assertEquals(200, response.getStatusCode().value());
         assertEquals(mockHistory, response.getBody());
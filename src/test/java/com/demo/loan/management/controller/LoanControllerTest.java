@@ -2,6 +2,11 @@ package com.demo.loan.management.controller;
 
 import com.demo.loan.management.dto.LoanRequestDTO;
 import com.demo.loan.management.model.Loan;
+import com.demo.loan.management.dto.BulkLoanApprovalRequestDTO;
+import com.demo.loan.management.dto.CursorPageDTO;
+import com.demo.loan.management.dto.LoanApprovalResultDTO;
+import com.demo.loan.management.dto.LoanQuoteDTO;
+import com.demo.loan.management.service.LoanQuoteService;
 import com.demo.loan.management.service.LoanService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,12 +23,14 @@ import static org.mockito.Mockito.*;
 class LoanControllerTest {
 
     private LoanService loanService;
+    private LoanQuoteService loanQuoteService;
     private LoanController loanController;
 
     @BeforeEach
     void setUp() {
         loanService = mock(LoanService.class);
-        loanController = new LoanController(loanService);
+        loanQuoteService = mock(LoanQuoteService.class);
+        loanController = new LoanController(loanService, loanQuoteService);
     }
 
     @Test
@@ -45,13 +52,27 @@ class LoanControllerTest {
     @Test
     void testGetAllLoansIncludingPending() {
         List<Loan> mockLoans = Arrays.asList(new Loan(), new Loan());
-        when(loanService.getAllLoansIncludingPending()).thenReturn(mockLoans);
+        when(loanService.getAllLoansIncludingPending(null, null, null, null))
+                .thenReturn(new CursorPageDTO<>(mockLoans, null));
 
-        ResponseEntity<List<Loan>> response = loanController.getAllLoansIncludingPending();
+        ResponseEntity<List<Loan>> response = loanController.getAllLoansIncludingPending(null, null, null, null);
 
         assertEquals(200, response.getStatusCode().value());
         assertEquals(2, Objects.requireNonNull(response.getBody()).size());
-        verify(loanService).getAllLoansIncludingPending();
+        assertFalse(response.getHeaders().containsKey("X-Next-Cursor"));
+        verify(loanService).getAllLoansIncludingPending(null, null, null, null);
+    }
+
+    @Test
+    void testGetAllLoansIncludingPending_ShouldExposeNextCursor() {
+        List<Loan> mockLoans = List.of(new Loan());
+        when(loanService.getAllLoansIncludingPending(10L, 1, "PENDING", null))
+                .thenReturn(new CursorPageDTO<>(mockLoans, 11L));
+
+        ResponseEntity<List<Loan>> response = loanController.getAllLoansIncludingPending(10L, 1, "PENDING", null);
+
+        assertEquals("11", response.getHeaders().getFirst("X-Next-Cursor"));
+        assertEquals(mockLoans, response.getBody());
     }
 
     @Test
@@ -104,4 +125,35 @@ class LoanControllerTest {
         assertEquals(mockLoan, response.getBody());
         verify(loanService).approveLoan(loanId);
     }
+
+    @Test
+    void testQuoteLoan() {
+        BigDecimal amount = BigDecimal.valueOf(10000);
+        BigDecimal rate = BigDecimal.valueOf(5);
+        LoanQuoteDTO mockQuote = new LoanQuoteDTO(amount, rate, 12,
+                new BigDecimal("856.07"), new BigDecimal("10272.90"), new BigDecimal("272.90"));
+        when(loanQuoteService.quote(amount, rate, 12)).thenReturn(mockQuote);
+
+        ResponseEntity<LoanQuoteDTO> response = loanController.quoteLoan(amount, rate, 12);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(mockQuote, response.getBody());
+        verifyNoInteractions(loanService);
+    }
+
+    @Test
+    void testApproveLoans() {
+        List<Long> loanIds = List.of(1L, 2L);
+        List<LoanApprovalResultDTO> mockResults = List.of(
+                LoanApprovalResultDTO.failed(1L, "Loan is already approved."),
+                LoanApprovalResultDTO.failed(2L, "Loan not found with ID: 2"));
+        when(loanService.approveLoans(loanIds)).thenReturn(mockResults);
+
+        ResponseEntity<List<LoanApprovalResultDTO>> response =
+                loanController.approveLoans(new BulkLoanApprovalRequestDTO(loanIds));
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(mockResults, response.getBody());
+        verify(loanService).approveLoans(loanIds);
+    }
 }
@@ -1,23 +1,39 @@
 package com.demo.loan.management.controller;
 
+import com.demo.loan.management.config.CredentialRateLimiter;
+import com.demo.loan.management.config.RateLimitBucketStore;
+import com.demo.loan.management.config.RateLimitConfig;
 import com.demo.loan.management.dto.PasswordResetEmailRequestDto;
 import com.demo.loan.management.dto.PasswordResetOtpRequestDto;
 import com.demo.loan.management.dto.PasswordResetOtpResetRequestDto;
 import com.demo.loan.management.dto.PasswordResetTokenDto;
+import com.demo.loan.management.exception.GlobalExceptionHandler;
+import com.demo.loan.management.exception.ResourceNotFoundException;
 import com.demo.loan.management.service.PasswordResetService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class PasswordResetControllerTest {
 
     @Mock
     private PasswordResetService passwordResetService;
 
+    @Mock
+    private CredentialRateLimiter credentialRateLimiter;
+
     @InjectMocks
     private PasswordResetController passwordResetController;
 
@@ -64,13 +80,52 @@ class PasswordResetControllerTest {
     @Test
     void testResetPasswordWithOtp() {
         PasswordResetOtpResetRequestDto request = new PasswordResetOtpResetRequestDto();
+        request.setPhoneNumber("1234567890");
         request.setOtp("123456");
         request.setNewPassword("securePass");
 
         ResponseEntity<String> response = passwordResetController.resetPasswordWithOtp(request);
 
         assertEquals("Password successfully reset.", response.getBody());
-        verify(passwordResetService, times(1)).resetPasswordWithOTP(request.getOtp(), request.getNewPassword());
+        verify(passwordResetService, times(1)).resetPasswordWithOTP(request.getPhoneNumber(), request.getOtp(), request.getNewPassword());
+        verify(credentialRateLimiter).checkIdentity("1234567890");
+    }
+
+    @Test
+    void testResetPasswordWithToken_ChecksTokenLimit() {
+        PasswordResetTokenDto request = new PasswordResetTokenDto();
+        request.setToken("reset-token");
+        request.setNewPassword("newPass");
+
+        passwordResetController.resetPassword(request);
+
+        verify(credentialRateLimiter).checkIdentity("reset-token");
+    }
+
+    @Test
+    void testResetPasswordWithOtp_RejectsGuessesBeyondIdentityLimit() throws Exception {
+        RateLimitConfig rateLimitConfig = new RateLimitConfig("USER=10/PT1M", "", "/api/password-reset/", "100/PT1M", "3/PT15M");
+        CredentialRateLimiter realLimiter = new CredentialRateLimiter(rateLimitConfig,
+                new RateLimitBucketStore(1000, 600000, new SimpleMeterRegistry()));
+        MockMvc mockMvc = MockMvcBuilders
+                .standaloneSetup(new PasswordResetController(passwordResetService, realLimiter))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        doThrow(new ResourceNotFoundException("Invalid or expired OTP."))
+                .when(passwordResetService).resetPasswordWithOTP(eq("1234567890"), any(), any());
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            mockMvc.perform(post("/api/password-reset/reset-otp")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"phoneNumber\":\"1234567890\",\"otp\":\"00000" + attempt + "\",\"newPassword\":\"x\"}"))
+                    .andExpect(status().isNotFound());
+        }
+        mockMvc.perform(post("/api/password-reset/reset-otp")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"phoneNumber\":\"1234567890\",\"otp\":\"000009\",\"newPassword\":\"x\"}"))
+                .andExpect(status().isTooManyRequests());
+
+        verify(passwordResetService, times(3)).resetPasswordWithOTP(eq("1234567890"), any(), any());
     }
 
 }
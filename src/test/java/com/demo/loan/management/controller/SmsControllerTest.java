@@ -1,7 +1,7 @@
 package com.demo.loan.management.controller;
 
 import com.demo.loan.management.dto.SmsRequest;
-import com.demo.loan.management.service.SmsService;
+import com.demo.loan.management.service.SmsDispatcher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
@@ -11,7 +11,7 @@ import static org.mockito.Mockito.*;
 class SmsControllerTest {
 
     @Mock
-    private SmsService smsService;
+    private SmsDispatcher smsDispatcher;
 
     @InjectMocks
     private SmsController smsController;
@@ -27,11 +27,11 @@ class SmsControllerTest {
         request.setTo("+1234567890");
         request.setBody("Test message");
 
-        when(smsService.sendSms(request.getTo(), request.getBody()))
-                .thenReturn("SMS sent successfully");
+        when(smsDispatcher.send(request.getTo(), request.getBody()))
+                .thenReturn("delivery-1");
 
         String response = smsController.sendSms(request);
-        assertEquals("SMS sent successfully", response);
-        verify(smsService, times(1)).sendSms(request.getTo(), request.getBody());
+        assertEquals("delivery-1", response);
+        verify(smsDispatcher, times(1)).send(request.getTo(), request.getBody());
     }
 }
@@ -2,6 +2,8 @@ package com.demo.loan.management.controller;
 
 import com.demo.loan.management.dto.TransactionDTO;
 import com.demo.loan.management.model.Transaction;
+import com.demo.loan.management.service.TransactionExportService;
+import com.demo.loan.management.service.TransactionExportService.ExportFormat;
 import com.demo.loan.management.service.TransactionService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,6 +12,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
 
 import java.util.Collections;
 import java.util.List;
@@ -22,6 +25,8 @@ class TransactionControllerTest {
 
     @Mock
     private TransactionService transactionService;
+    @Mock
+    private TransactionExportService transactionExportService;
     @InjectMocks
     private TransactionController transactionController;
 
@@ -95,4 +100,15 @@ class TransactionControllerTest {
         assertEquals(transactions, response.getBody());
         verify(transactionService).getTransactionsByEmiId(emiId);
     }
+
+    @Test
+    void testExportTransactionsAsCsv() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        transactionController.exportTransactions("csv", response);
+
+        assertEquals("text/csv;charset=UTF-8", response.getContentType());
+        assertEquals("attachment; filename=\"transactions.csv\"", response.getHeader("Content-Disposition"));
+        verify(transactionExportService).export(ExportFormat.CSV, response.getOutputStream());
+    }
 }
@@ -1,5 +1,6 @@
 package com.demo.loan.management.controller;
 
+import com.demo.loan.management.config.CredentialRateLimiter;
 import com.demo.loan.management.dto.LoginRequestDTO;
 import com.demo.loan.management.dto.LoginResponseDTO;
 import com.demo.loan.management.model.Role;
@@ -34,6 +35,9 @@ class UserControllerTest {
     @Mock
     private JwtUtil jwtUtil;
 
+    @Mock
+    private CredentialRateLimiter credentialRateLimiter;
+
     @InjectMocks
     private UserController userController;
 
@@ -53,8 +57,8 @@ class UserControllerTest {
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(mock(org.springframework.security.core.Authentication.class));
         when(userDetailsService.loadUserByUsername("john@example.com")).thenReturn(mock(UserDetails.class));
-        when(userService.getUserByEmail("john@example.com")).thenReturn(Optional.of(user));
-        when(jwtUtil.generateToken(eq("john@example.com"), eq("USER"))).thenReturn("mocked-token");
+        when(userService.loadUserByEmail("john@example.com")).thenReturn(Optional.of(user));
+        when(jwtUtil.generateToken(user)).thenReturn("mocked-token");
         LoginResponseDTO response = userController.login(request);
         assertNotNull(response);
         assertEquals("mocked-token", response.getToken());
@@ -79,7 +83,7 @@ class UserControllerTest {
 
         when(authenticationManager.authenticate(any())).thenReturn(mock(org.springframework.security.core.Authentication.class));
         when(userDetailsService.loadUserByUsername("notfound@example.com")).thenReturn(mock(UserDetails.class));
-        when(userService.getUserByEmail("notfound@example.com")).thenReturn(Optional.empty());
+        when(userService.loadUserByEmail("notfound@example.com")).thenReturn(Optional.empty());
         RuntimeException exception = assertThrows(RuntimeException.class, () -> userController.login(request));
 
         assertEquals("User not found", exception.getMessage());
@@ -0,0 +1,73 @@
+package com.demo.loan.management.security;
+
+import com.demo.loan.management.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        encoder.shutdown();
+    }
+
+    @Test
+    void shouldHashAndVerifyOnPool_AndRecordTimings() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 2, 4, meterRegistry);
+
+        String hash = encoder.encode("password123");
+
+        assertTrue(encoder.matches("password123", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertEquals(3, meterRegistry.get("password.hashing.duration").timer().count());
+        assertEquals(3, meterRegistry.get("password.hashing.wait").timer().count());
+    }
+
+    @Test
+    void shouldFailFast_WhenQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slow = mock(PasswordEncoder.class);
+        when(slow.encode(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "hash";
+        });
+        encoder = new BoundedPasswordEncoder(slow, 1, 1, meterRegistry);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        while (encoder.queueSize() == 0) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(TooManyRequestsException.class, () -> encoder.encode("c"));
+        assertEquals(1.0, meterRegistry.get("password.hashing.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("hash", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hash", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void calibrateStrength_ShouldStayWithinBounds() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 1, 1, meterRegistry);
+
+        assertEquals(4, BoundedPasswordEncoder.calibrateStrength(0, 4, 8));
+        assertEquals(8, BoundedPasswordEncoder.calibrateStrength(Long.MAX_VALUE, 4, 8));
+    }
+}
@@ -0,0 +1,88 @@
+package com.demo.loan.management.security;
+
+import com.demo.loan.management.exception.BadRequestException;
+import com.demo.loan.management.exception.ResourceNotFoundException;
+import com.demo.loan.management.model.Role;
+import com.demo.loan.management.model.User;
+import com.demo.loan.management.service.UserCacheService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CurrentUserTest {
+
+    private static final String EMAIL = "user@example.com";
+
+    @Mock
+    private UserCacheService userCacheService;
+
+    private CurrentUser currentUser;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        SecurityContextHolder.clearContext();
+        currentUser = new CurrentUser(userCacheService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void getUser_ShouldResolveOncePerRequest() {
+        User user = User.builder().userId(1L).email(EMAIL).role(Role.USER).build();
+        when(userCacheService.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+        currentUser.set(EMAIL);
+
+        assertSame(user, currentUser.getUser());
+        assertSame(user, currentUser.getUser());
+        verify(userCacheService, times(1)).findByEmail(EMAIL);
+    }
+
+    @Test
+    void getUser_ShouldNotLookUp_WhenFilterAlreadyLoadedUser() {
+        User user = User.builder().userId(1L).email(EMAIL).role(Role.ADMIN).build();
+        currentUser.set(user);
+
+        assertSame(user, currentUser.getUser());
+        assertEquals(EMAIL, currentUser.getEmail());
+        verifyNoInteractions(userCacheService);
+    }
+
+    @Test
+    void getEmail_ShouldFallBackToSecurityContext() {
+        UserDetails principal = org.springframework.security.core.userdetails.User
+                .withUsername(EMAIL).password("").roles("USER").build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        assertEquals(EMAIL, currentUser.getEmail());
+    }
+
+    @Test
+    void getEmail_ShouldThrow_WhenNotAuthenticated() {
+        BadRequestException exception = assertThrows(BadRequestException.class, () -> currentUser.getEmail());
+
+        assertEquals("Invalid authentication. Please log in again.", exception.getMessage());
+    }
+
+    @Test
+    void getUser_ShouldThrow_WhenUserNoLongerExists() {
+        when(userCacheService.findByEmail(EMAIL)).thenReturn(Optional.empty());
+        currentUser.set(EMAIL);
+
+        assertThrows(ResourceNotFoundException.class, () -> currentUser.getUser());
+    }
+}
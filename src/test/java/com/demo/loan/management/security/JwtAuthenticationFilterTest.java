@@ -0,0 +1,198 @@
+package com.demo.loan.management.security;
+
+import com.demo.loan.management.model.Role;
+import com.demo.loan.management.model.User;
+import com.demo.loan.management.repository.TokenEpochChangeRepository;
+import com.demo.loan.management.repository.UserRepository;
+import com.demo.loan.management.service.TokenBlacklistService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.InsufficientAuthenticationException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JwtAuthenticationFilterTest {
+
+    private static final String EMAIL = "john@example.com";
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private TokenBlacklistService tokenBlacklistService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private FilterChain filterChain;
+
+    @Mock
+    private CurrentUser currentUser;
+
+    private JwtUtil jwtUtil;
+    private UserEpochRegistry userEpochRegistry;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        SecurityContextHolder.clearContext();
+        jwtUtil = new JwtUtil("test_secret_key_that_is_at_least_32_characters_long", 3600000, 86400000, 100, new SimpleMeterRegistry());
+        userEpochRegistry = new UserEpochRegistry(mock(TokenEpochChangeRepository.class), 3600000, 300000);
+        filter = new JwtAuthenticationFilter(jwtUtil, userDetailsService, tokenBlacklistService, userRepository, userEpochRegistry, currentUser, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldAuthenticateFromClaims_WithoutLoadingUser() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request(jwtUtil.generateToken(EMAIL, "ADMIN", 0L)), response, filterChain);
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals(EMAIL, ((UserDetails) authentication.getPrincipal()).getUsername());
+        assertEquals(List.of("ROLE_ADMIN"), authentication.getAuthorities().stream().map(Object::toString).toList());
+        verify(filterChain).doFilter(any(), eq(response));
+        verifyNoInteractions(userDetailsService, userRepository);
+        verify(currentUser).set(EMAIL);
+    }
+
+    @Test
+    void shouldRejectToken_WhenEpochWasBumped() throws Exception {
+        String token = jwtUtil.generateToken(EMAIL, "USER", 0L);
+        userEpochRegistry.recordChange(EMAIL, 1L);
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(
+                User.builder().email(EMAIL).password("hash").role(Role.USER).tokenEpoch(1L).build()));
+        MockHttpServletRequest request = request(token);
+
+        filter.doFilter(request, new MockHttpServletResponse(), filterChain);
+
+        assertRejected(request, "Token is no longer valid. Please log in again.");
+        verifyNoInteractions(currentUser);
+    }
+
+    @Test
+    void shouldAcceptTokenWithCurrentEpoch_AfterChange() throws Exception {
+        userEpochRegistry.recordChange(EMAIL, 1L);
+
+        filter.doFilter(request(jwtUtil.generateToken(EMAIL, "USER", 1L)), new MockHttpServletResponse(), filterChain);
+
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void shouldRejectToken_WhenUserWasDeleted() throws Exception {
+        String token = jwtUtil.generateToken(EMAIL, "USER", 0L);
+        userEpochRegistry.recordDeletion(EMAIL);
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.empty());
+        MockHttpServletRequest request = request(token);
+
+        filter.doFilter(request, new MockHttpServletResponse(), filterChain);
+
+        assertRejected(request, "Token is no longer valid. Please log in again.");
+    }
+
+    @Test
+    void shouldRejectBlacklistedToken_ByVerifiedRevocationKey() throws Exception {
+        when(tokenBlacklistService.isTokenBlacklisted(any(VerifiedToken.class))).thenReturn(true);
+        MockHttpServletRequest request = request(jwtUtil.generateToken(EMAIL, "USER", 0L));
+
+        filter.doFilter(request, new MockHttpServletResponse(), filterChain);
+
+        assertRejected(request, "Token is blacklisted. Please log in again.");
+        verify(tokenBlacklistService, never()).isTokenBlacklisted(anyString());
+    }
+
+    @Test
+    void shouldRejectRefreshToken_AsBearerToken() throws Exception {
+        User user = User.builder().email(EMAIL).password("hash").role(Role.USER).build();
+        MockHttpServletRequest request = request(jwtUtil.generateRefreshToken(user));
+
+        filter.doFilter(request, new MockHttpServletResponse(), filterChain);
+
+        assertRejected(request, "Refresh tokens cannot be used as access tokens.");
+    }
+
+    @Test
+    void shouldRejectTamperedToken() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        String token = jwtUtil.generateToken(EMAIL, "USER", 0L);
+
+        MockHttpServletRequest request = request(token.substring(0, token.length() - 2) + "xx");
+
+        filter.doFilter(request, response, filterChain);
+
+        assertRejected(request, "JWT token is invalid or has expired. Please log in again.");
+        verifyNoInteractions(tokenBlacklistService);
+    }
+
+    @Test
+    void shouldRejectExpiredToken() throws Exception {
+        JwtUtil shortLived = new JwtUtil("test_secret_key_that_is_at_least_32_characters_long", -1000, 86400000, 100, new SimpleMeterRegistry());
+        filter = new JwtAuthenticationFilter(shortLived, userDetailsService, tokenBlacklistService, userRepository, userEpochRegistry, currentUser, true);
+        MockHttpServletRequest request = request(shortLived.generateToken(EMAIL, "USER", 0L));
+
+        filter.doFilter(request, new MockHttpServletResponse(), filterChain);
+
+        assertRejected(request, "JWT token is invalid or has expired. Please log in again.");
+    }
+
+    @Test
+    void shouldLoadUser_WhenStatelessPrincipalIsDisabled() throws Exception {
+        filter = new JwtAuthenticationFilter(jwtUtil, userDetailsService, tokenBlacklistService, userRepository, userEpochRegistry, currentUser, false);
+        UserDetails userDetails = org.springframework.security.core.userdetails.User
+                .withUsername(EMAIL).password("hash").roles("USER").build();
+        when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(userDetails);
+
+        filter.doFilter(request(jwtUtil.generateToken(EMAIL, "USER", 0L)), new MockHttpServletResponse(), filterChain);
+
+        assertSame(userDetails, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+    }
+
+    @Test
+    void entryPoint_ShouldAnswer401WithTheReasonTheTokenWasNotAccepted() throws Exception {
+        MockHttpServletRequest request = request("not-a-jwt");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, filterChain);
+
+        new CustomAuthenticationEntryPoint().commence(request, response, new InsufficientAuthenticationException("Full authentication is required"));
+
+        assertEquals(401, response.getStatus());
+        assertTrue(response.getContentAsString().contains("JWT token is invalid or has expired"));
+    }
+
+    // The request goes on unauthenticated, so permitAll endpoints still serve it, with the reason kept for a 401
+    private void assertRejected(MockHttpServletRequest request, String reason) throws Exception {
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(reason, request.getAttribute(JwtAuthenticationFilter.AUTH_ERROR_ATTRIBUTE));
+        verify(filterChain).doFilter(eq(request), any());
+    }
+
+    private static MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/loans/1");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
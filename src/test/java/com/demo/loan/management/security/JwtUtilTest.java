@@ -0,0 +1,121 @@
+package com.demo.loan.management.security;
+
+import com.demo.loan.management.model.Role;
+import com.demo.loan.management.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "test_secret_key_that_is_at_least_32_characters_long";
+    private static final long REFRESH_LIFETIME_MS = 86400000;
+
+    private SimpleMeterRegistry meterRegistry;
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        jwtUtil = new JwtUtil(SECRET, 3600000, REFRESH_LIFETIME_MS, 2, meterRegistry);
+    }
+
+    @Test
+    void verify_ShouldReturnClaims_ForValidToken() {
+        String token = jwtUtil.generateToken("john@example.com", "ADMIN");
+
+        Optional<VerifiedToken> verified = jwtUtil.verify(token);
+
+        assertTrue(verified.isPresent());
+        assertEquals("john@example.com", verified.get().getSubject());
+        assertEquals(Role.ADMIN, verified.get().getRole());
+        assertNotNull(verified.get().getIssuedAt());
+        assertTrue(jwtUtil.validateToken(token, "john@example.com"));
+        assertFalse(jwtUtil.validateToken(token, "jane@example.com"));
+    }
+
+    @Test
+    void generateToken_ShouldCarryUserEpoch() {
+        User user = User.builder().email("john@example.com").role(Role.USER).tokenEpoch(3L).build();
+
+        VerifiedToken verified = jwtUtil.verify(jwtUtil.generateToken(user)).orElseThrow();
+
+        assertEquals(3L, verified.getEpoch());
+        assertEquals(0L, jwtUtil.verify(jwtUtil.generateToken("jane@example.com", "USER")).orElseThrow().getEpoch());
+    }
+
+    @Test
+    void generateToken_ShouldIssueDistinctJtiBasedRevocationKeys() {
+        String first = jwtUtil.generateToken("john@example.com", "USER");
+        String second = jwtUtil.generateToken("john@example.com", "USER");
+
+        TokenDigest firstKey = jwtUtil.verify(first).orElseThrow().getRevocationKey();
+
+        assertNotEquals(firstKey, jwtUtil.verify(second).orElseThrow().getRevocationKey());
+        assertNotEquals(TokenDigest.of(first), firstKey);
+        assertEquals(TokenDigest.HEX_LENGTH, firstKey.toHex().length());
+        assertEquals(firstKey, TokenDigest.fromHex(firstKey.toHex()));
+    }
+
+    @Test
+    void verify_ShouldParseOnce_AndServeRepeatsFromCache() {
+        String token = jwtUtil.generateToken("john@example.com", "USER");
+
+        VerifiedToken first = jwtUtil.verify(token).orElseThrow();
+        VerifiedToken second = jwtUtil.verify(token).orElseThrow();
+        jwtUtil.extractUsername(token);
+
+        assertSame(first, second);
+        assertEquals(1.0, meterRegistry.counter("cache.gets", "cache", "jwtTokens", "result", "miss").count());
+        assertEquals(2.0, meterRegistry.counter("cache.gets", "cache", "jwtTokens", "result", "hit").count());
+    }
+
+    @Test
+    void verify_ShouldRejectTamperedAndForeignTokens() {
+        String token = jwtUtil.generateToken("john@example.com", "USER");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        JwtUtil otherIssuer = new JwtUtil("another_secret_key_that_is_at_least_32_characters", 3600000, REFRESH_LIFETIME_MS, 2, new SimpleMeterRegistry());
+
+        assertTrue(jwtUtil.verify(tampered).isEmpty());
+        assertTrue(jwtUtil.verify(otherIssuer.generateToken("john@example.com", "USER")).isEmpty());
+        assertTrue(jwtUtil.verify("not-a-jwt").isEmpty());
+        assertTrue(jwtUtil.verify(null).isEmpty());
+        assertEquals(0, jwtUtil.cacheSize());
+    }
+
+    @Test
+    void verify_ShouldRejectExpiredTokens() {
+        JwtUtil expiringUtil = new JwtUtil(SECRET, -1000, REFRESH_LIFETIME_MS, 2, new SimpleMeterRegistry());
+        String expired = expiringUtil.generateToken("john@example.com", "USER");
+
+        assertTrue(jwtUtil.verify(expired).isEmpty());
+        assertTrue(jwtUtil.isTokenExpired(expired));
+        assertNull(jwtUtil.extractUsername(expired));
+    }
+
+    @Test
+    void generateRefreshToken_ShouldOutliveAccessTokenAndBeMarkedAsRefresh() {
+        User user = User.builder().email("john@example.com").role(Role.USER).tokenEpoch(3L).build();
+
+        VerifiedToken access = jwtUtil.verify(jwtUtil.generateToken(user)).orElseThrow();
+        VerifiedToken refresh = jwtUtil.verify(jwtUtil.generateRefreshToken(user)).orElseThrow();
+
+        assertFalse(access.isRefresh());
+        assertTrue(refresh.isRefresh());
+        assertEquals(3L, refresh.getEpoch());
+        assertTrue(refresh.getExpiresAt().isAfter(access.getExpiresAt()));
+    }
+
+    @Test
+    void verify_ShouldKeepCacheBounded() {
+        jwtUtil.verify(jwtUtil.generateToken("a@example.com", "USER"));
+        jwtUtil.verify(jwtUtil.generateToken("b@example.com", "USER"));
+        jwtUtil.verify(jwtUtil.generateToken("c@example.com", "USER"));
+
+        assertEquals(2, jwtUtil.cacheSize());
+    }
+}
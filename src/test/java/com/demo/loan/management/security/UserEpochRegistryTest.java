@@ -0,0 +1,125 @@
+package com.demo.loan.management.security;
+
+import com.demo.loan.management.model.TokenEpochChange;
+import com.demo.loan.management.repository.TokenEpochChangeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UserEpochRegistryTest {
+
+    private static final String EMAIL = "john@example.com";
+    private static final long RETENTION_MS = 900000;
+
+    @Mock
+    private TokenEpochChangeRepository changeRepository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void recordChange_ShouldPublishChangeAndApplyItLocally() {
+        UserEpochRegistry registry = new UserEpochRegistry(changeRepository, RETENTION_MS, 0);
+
+        registry.recordChange(EMAIL, 3L);
+
+        ArgumentCaptor<TokenEpochChange> saved = ArgumentCaptor.forClass(TokenEpochChange.class);
+        verify(changeRepository).save(saved.capture());
+        assertEquals(EMAIL, saved.getValue().getEmail());
+        assertEquals(3L, saved.getValue().getEpoch());
+        assertTrue(registry.isStale(EMAIL, 2L));
+        assertFalse(registry.isStale(EMAIL, 3L));
+    }
+
+    @Test
+    void poll_ShouldEnforceChangeRecordedByAnotherInstance() {
+        UserEpochRegistry first = new UserEpochRegistry(changeRepository, RETENTION_MS, 0);
+        UserEpochRegistry second = new UserEpochRegistry(changeRepository, RETENTION_MS, 0);
+        when(changeRepository.findByChangedAtAfter(any())).thenReturn(List.of());
+        second.warmUp();
+
+        first.recordDeletion(EMAIL);
+        ArgumentCaptor<TokenEpochChange> saved = ArgumentCaptor.forClass(TokenEpochChange.class);
+        verify(changeRepository).save(saved.capture());
+        assertFalse(second.isStale(EMAIL, 0L));
+
+        when(changeRepository.findByChangedAtAfter(any())).thenReturn(List.of(saved.getValue()));
+        second.poll();
+
+        assertTrue(second.isStale(EMAIL, 0L));
+    }
+
+    @Test
+    void warmUp_ShouldRestoreRecentChangesAfterRestart() {
+        when(changeRepository.findByChangedAtAfter(any())).thenReturn(List.of(
+                change(EMAIL, 2L, LocalDateTime.now().minusMinutes(5))));
+        UserEpochRegistry restarted = new UserEpochRegistry(changeRepository, RETENTION_MS, 0);
+
+        restarted.warmUp();
+
+        assertTrue(restarted.isStale(EMAIL, 1L));
+        verify(changeRepository).findByChangedAtAfter(argThat(since ->
+                since.isBefore(LocalDateTime.now().minusMinutes(14)) && since.isAfter(LocalDateTime.now().minusMinutes(16))));
+    }
+
+    @Test
+    void isStale_ShouldIgnoreChangesOlderThanTokenLifetime() {
+        when(changeRepository.findByChangedAtAfter(any())).thenReturn(List.of(
+                change(EMAIL, 2L, LocalDateTime.now().minusMinutes(20))));
+        UserEpochRegistry registry = new UserEpochRegistry(changeRepository, RETENTION_MS, 0);
+
+        registry.warmUp();
+
+        assertFalse(registry.isStale(EMAIL, 1L));
+    }
+
+    @Test
+    void isStale_ShouldKeepChangesForTheUserCacheTtlBeyondTokenLifetime() {
+        when(changeRepository.findByChangedAtAfter(any())).thenReturn(List.of(
+                change(EMAIL, 2L, LocalDateTime.now().minusMinutes(17))));
+        UserEpochRegistry registry = new UserEpochRegistry(changeRepository, RETENTION_MS, 300000);
+
+        registry.warmUp();
+
+        assertTrue(registry.isStale(EMAIL, 1L));
+    }
+
+    @Test
+    void poll_ShouldKeepCursor_WhenDatabaseIsUnavailable() {
+        UserEpochRegistry registry = new UserEpochRegistry(changeRepository, RETENTION_MS, 0);
+        when(changeRepository.findByChangedAtAfter(any())).thenReturn(List.of());
+        registry.warmUp();
+        when(changeRepository.findByChangedAtAfter(any())).thenThrow(new IllegalStateException("Connection refused"));
+
+        assertDoesNotThrow(registry::poll);
+
+        reset(changeRepository);
+        when(changeRepository.findByChangedAtAfter(any())).thenReturn(List.of(change(EMAIL, 1L, LocalDateTime.now())));
+        registry.poll();
+        assertTrue(registry.isStale(EMAIL, 0L));
+    }
+
+    @Test
+    void purgeExpired_ShouldRangeDeleteOldRows() {
+        UserEpochRegistry registry = new UserEpochRegistry(changeRepository, RETENTION_MS, 0);
+
+        registry.purgeExpired();
+
+        verify(changeRepository).deleteByChangedAtBefore(argThat(cutoff -> cutoff.isBefore(LocalDateTime.now().minusMinutes(14))));
+    }
+
+    private static TokenEpochChange change(String email, long epoch, LocalDateTime changedAt) {
+        return TokenEpochChange.builder().email(email).epoch(epoch).changedAt(changedAt).build();
+    }
+}
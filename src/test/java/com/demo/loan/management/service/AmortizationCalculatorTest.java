@@ -0,0 +1,95 @@
+package com.demo.loan.management.service;
+
+import com.demo.loan.management.dto.AmortizationScheduleDTO;
+import com.demo.loan.management.dto.InstallmentDTO;
+import com.demo.loan.management.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AmortizationCalculatorTest {
+
+    private final AmortizationCalculator calculator = new AmortizationCalculator();
+
+    @Test
+    void calculateEmi_ShouldMatchStandardFormula() {
+        BigDecimal emi = calculator.calculateEmi(new BigDecimal("10000"), new BigDecimal("5"), 12);
+
+        assertEquals(new BigDecimal("856.07"), emi);
+    }
+
+    @Test
+    void calculateEmi_ShouldMatchExactBigDecimalFormula_AcrossTenuresAndRates() {
+        BigDecimal principal = new BigDecimal("250000.00");
+        for (int tenure = 12; tenure <= 360; tenure += 12) {
+            for (String rate : new String[]{"0.5", "3.75", "7.5", "12", "24.99"}) {
+                BigDecimal annualRate = new BigDecimal(rate);
+                assertEquals(exactEmi(principal, annualRate, tenure),
+                        calculator.calculateEmi(principal, annualRate, tenure),
+                        "tenure=" + tenure + ", rate=" + rate);
+            }
+        }
+    }
+
+    @Test
+    void calculateEmi_ShouldSplitEvenly_WhenRateIsZero() {
+        BigDecimal emi = calculator.calculateEmi(new BigDecimal("1000"), BigDecimal.ZERO, 3);
+
+        assertEquals(new BigDecimal("333.33"), emi);
+    }
+
+    @Test
+    void buildSchedule_ShouldRepayPrincipalExactly() {
+        BigDecimal principal = new BigDecimal("500000.00");
+        AmortizationScheduleDTO schedule = calculator.buildSchedule(principal, new BigDecimal("8.25"), 360);
+
+        assertEquals(360, schedule.getInstallments().size());
+
+        BigDecimal principalPaid = BigDecimal.ZERO;
+        BigDecimal totalPaid = BigDecimal.ZERO;
+        for (InstallmentDTO installment : schedule.getInstallments()) {
+            assertEquals(installment.getPayment(), installment.getPrincipal().add(installment.getInterest()));
+            principalPaid = principalPaid.add(installment.getPrincipal());
+            totalPaid = totalPaid.add(installment.getPayment());
+        }
+
+        assertEquals(principal, principalPaid);
+        assertEquals(schedule.getTotalRepayable(), totalPaid);
+        assertEquals(schedule.getTotalRepayable().subtract(principal), schedule.getTotalInterest());
+        assertEquals(0, schedule.getInstallments().get(359).getBalance().signum());
+        assertEquals(schedule.getEmiAmount(), schedule.getInstallments().get(0).getPayment());
+    }
+
+    @Test
+    void calculateTotalRepayable_ShouldEqualScheduleTotal() {
+        BigDecimal principal = new BigDecimal("10000");
+        BigDecimal rate = new BigDecimal("5");
+
+        assertEquals(calculator.buildSchedule(principal, rate, 12).getTotalRepayable(),
+                calculator.calculateTotalRepayable(principal, rate, 12));
+    }
+
+    @Test
+    void calculateEmi_ShouldThrow_WhenTenureIsNotPositive() {
+        BadRequestException exception = assertThrows(BadRequestException.class, () ->
+                calculator.calculateEmi(new BigDecimal("10000"), new BigDecimal("5"), 0));
+
+        assertEquals("Loan tenure must be greater than 0.", exception.getMessage());
+    }
+
+    @Test
+    void calculateEmi_ShouldThrowBadRequest_WhenAmountOverflowsMinorUnits() {
+        assertThrows(BadRequestException.class, () ->
+                calculator.calculateEmi(new BigDecimal("1e30"), new BigDecimal("5"), 12));
+    }
+
+    private static BigDecimal exactEmi(BigDecimal principal, BigDecimal annualRate, int tenureMonths) {
+        BigDecimal monthlyRate = annualRate.divide(BigDecimal.valueOf(1200), 10, RoundingMode.HALF_UP);
+        BigDecimal growth = BigDecimal.ONE.add(monthlyRate).pow(tenureMonths);
+        return monthlyRate.multiply(principal).multiply(growth)
+                .divide(growth.subtract(BigDecimal.ONE), 2, RoundingMode.HALF_UP);
+    }
+}
@@ -18,6 +18,9 @@ class EmailServiceTest {
     @Mock
     private JavaMailSender javaMailSender;
 
+    @Mock
+    private MailBatchSender mailBatchSender;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -0,0 +1,155 @@
+package com.demo.loan.management.service;
+
+import com.demo.loan.management.model.EmiReminder;
+import com.demo.loan.management.repository.EmiReminderRepository;
+import com.demo.loan.management.repository.EmiRepository;
+import com.demo.loan.management.service.EmiReminderService.PendingReminder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EmiReminderJobTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 10);
+
+    @Mock
+    private EmiRepository emiRepository;
+
+    @Mock
+    private EmiReminderRepository emiReminderRepository;
+
+    @Mock
+    private EmiReminderService emiReminderService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private EmiReminderJob emiReminderJob;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        emiReminderJob = new EmiReminderJob(emiRepository, emiReminderRepository, emiReminderService,
+                meterRegistry, 3, 2, 3, 7, 90);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        emiReminderJob.shutdown();
+    }
+
+    @Test
+    void reminderWindow_ShouldBeDueSoonUntilDueDateThenOnePerOverdueInterval() {
+        assertEquals("DUE_SOON", EmiReminderJob.reminderWindow(TODAY.plusDays(3), TODAY, 7));
+        assertEquals("DUE_SOON", EmiReminderJob.reminderWindow(TODAY, TODAY, 7));
+        assertEquals("OVERDUE_0", EmiReminderJob.reminderWindow(TODAY.minusDays(1), TODAY, 7));
+        assertEquals("OVERDUE_0", EmiReminderJob.reminderWindow(TODAY.minusDays(7), TODAY, 7));
+        assertEquals("OVERDUE_1", EmiReminderJob.reminderWindow(TODAY.minusDays(8), TODAY, 7));
+    }
+
+    @Test
+    void dueDateSlices_ShouldSplitTheReminderWindowIntoContiguousSlices() {
+        List<LocalDateTime[]> slices = emiReminderJob.dueDateSlices(TODAY);
+
+        assertEquals(3, slices.size());
+        assertArrayEquals(new LocalDateTime[]{TODAY.minusDays(90).atStartOfDay(), TODAY.minusDays(58).atStartOfDay()}, slices.get(0));
+        assertArrayEquals(new LocalDateTime[]{TODAY.minusDays(58).atStartOfDay(), TODAY.minusDays(26).atStartOfDay()}, slices.get(1));
+        assertArrayEquals(new LocalDateTime[]{TODAY.minusDays(26).atStartOfDay(), TODAY.plusDays(4).atStartOfDay()}, slices.get(2));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void scanPartition_ShouldPageByKeysetAndSkipRemindersAlreadySent() {
+        LocalDateTime overdue = TODAY.minusDays(2).atStartOfDay();
+        LocalDateTime upcoming = TODAY.plusDays(2).atStartOfDay();
+        Object[] first = row(11L, overdue, 1L);
+        Object[] second = row(12L, upcoming, 1L);
+        Object[] third = row(13L, upcoming, 2L);
+        LocalDateTime until = TODAY.plusDays(4).atStartOfDay();
+        when(emiRepository.findUnpaidPageAfter(eq(until), eq(TODAY.minusDays(90).atStartOfDay()), eq(0L), any(Limit.class)))
+                .thenReturn(List.of(first, second));
+        when(emiRepository.findUnpaidPageAfter(eq(until), eq(upcoming), eq(12L), any(Limit.class)))
+                .thenReturn(List.<Object[]>of(third));
+        when(emiReminderRepository.findWindowsByEmiIds(List.of(11L, 12L)))
+                .thenReturn(List.<Object[]>of(new Object[]{11L, "OVERDUE_0"}));
+        when(emiReminderService.enqueue(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        int queued = emiReminderJob.scanPartition(TODAY.minusDays(90).atStartOfDay(), until, TODAY);
+
+        assertEquals(2, queued);
+        ArgumentCaptor<List<PendingReminder>> batches = ArgumentCaptor.forClass(List.class);
+        verify(emiReminderService, times(2)).enqueue(batches.capture());
+        assertEquals(List.of(12L), batches.getAllValues().get(0).stream().map(PendingReminder::emiId).toList());
+        PendingReminder reminder = batches.getAllValues().get(1).get(0);
+        assertEquals(13L, reminder.emiId());
+        assertEquals("DUE_SOON", reminder.window());
+        assertEquals("user2@example.com", reminder.email());
+        assertTrue(reminder.details().contains("Loan ID: 2"));
+        assertEquals(1.0, meterRegistry.get("emi.reminders").tag("result", "already-sent").counter().count());
+        assertEquals(2.0, meterRegistry.get("emi.reminders").tag("result", "queued").counter().count());
+    }
+
+    @Test
+    void sendReminders_ShouldScanEveryPartitionAndPurgeOldReminders() {
+        when(emiRepository.findUnpaidPageAfter(any(), any(), anyLong(), any(Limit.class)))
+                .thenReturn(List.of());
+
+        emiReminderJob.sendReminders();
+
+        LocalDate today = LocalDate.now();
+        verify(emiRepository).findUnpaidPageAfter(today.minusDays(58).atStartOfDay(), today.minusDays(90).atStartOfDay(), 0L, Limit.of(2));
+        verify(emiRepository).findUnpaidPageAfter(today.minusDays(26).atStartOfDay(), today.minusDays(58).atStartOfDay(), 0L, Limit.of(2));
+        verify(emiRepository).findUnpaidPageAfter(today.plusDays(4).atStartOfDay(), today.minusDays(26).atStartOfDay(), 0L, Limit.of(2));
+        verify(emiReminderRepository).deleteByCreatedAtBefore(LocalDate.now().minusDays(94).atStartOfDay());
+        verifyNoInteractions(emiReminderService);
+    }
+
+    @Test
+    void scanPartition_ShouldCarryOn_WhenAnotherRunRecordedTheBatch() {
+        when(emiRepository.findUnpaidPageAfter(any(), any(), anyLong(), any(Limit.class)))
+                .thenReturn(List.<Object[]>of(row(11L, TODAY.atStartOfDay(), 1L)));
+        when(emiReminderRepository.findWindowsByEmiIds(any())).thenReturn(List.of());
+        when(emiReminderService.enqueue(anyList())).thenThrow(new DataIntegrityViolationException("uk_emi_reminders_emi_window"));
+
+        assertEquals(0, emiReminderJob.scanPartition(TODAY.atStartOfDay(), TODAY.plusDays(4).atStartOfDay(), TODAY));
+        verify(emiReminderService, times(2)).enqueue(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void scanPartition_ShouldRetryTheRestOfThePage_WhenSomeRemindersWereRecordedConcurrently() {
+        when(emiRepository.findUnpaidPageAfter(any(), any(), anyLong(), any(Limit.class)))
+                .thenReturn(List.<Object[]>of(row(11L, TODAY.atStartOfDay(), 1L), row(12L, TODAY.atStartOfDay(), 2L)))
+                .thenReturn(List.of());
+        when(emiReminderRepository.findWindowsByEmiIds(any()))
+                .thenReturn(List.of())
+                .thenReturn(List.<Object[]>of(new Object[]{11L, EmiReminder.WINDOW_DUE_SOON}));
+        when(emiReminderService.enqueue(anyList()))
+                .thenThrow(new DataIntegrityViolationException("uk_emi_reminders_emi_window"))
+                .thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        assertEquals(1, emiReminderJob.scanPartition(TODAY.atStartOfDay(), TODAY.plusDays(4).atStartOfDay(), TODAY));
+
+        ArgumentCaptor<List<PendingReminder>> batches = ArgumentCaptor.forClass(List.class);
+        verify(emiReminderService, times(2)).enqueue(batches.capture());
+        assertEquals(List.of(12L), batches.getAllValues().get(1).stream().map(PendingReminder::emiId).toList());
+    }
+
+    private static Object[] row(Long emiId, LocalDateTime dueDate, Long loanId) {
+        return new Object[]{emiId, dueDate, new BigDecimal("856.07"), 1, loanId, "user" + loanId + "@example.com"};
+    }
+}
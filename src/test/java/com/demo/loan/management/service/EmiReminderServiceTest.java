@@ -0,0 +1,53 @@
+package com.demo.loan.management.service;
+
+import com.demo.loan.management.model.EmiReminder;
+import com.demo.loan.management.model.NotificationOutbox;
+import com.demo.loan.management.repository.EmiReminderRepository;
+import com.demo.loan.management.service.EmiReminderService.PendingReminder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EmiReminderServiceTest {
+
+    @Mock
+    private EmiReminderRepository emiReminderRepository;
+
+    @Mock
+    private NotificationOutboxService outboxService;
+
+    @InjectMocks
+    private EmiReminderService emiReminderService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void enqueue_ShouldQueueEmailAndRecordReminderForEachEmi() {
+        when(outboxService.enqueue(isNull(), eq("a@example.com"), eq("EMI Payment Reminder"), contains("Loan ID: 1")))
+                .thenReturn(NotificationOutbox.builder().id(100L).build());
+
+        int queued = emiReminderService.enqueue(List.of(new PendingReminder(11L, "DUE_SOON", "a@example.com", "Loan ID: 1")));
+
+        assertEquals(1, queued);
+        ArgumentCaptor<List<EmiReminder>> recorded = ArgumentCaptor.forClass(List.class);
+        verify(emiReminderRepository).saveAll(recorded.capture());
+        EmiReminder reminder = recorded.getValue().get(0);
+        assertEquals(11L, reminder.getEmiId());
+        assertEquals("DUE_SOON", reminder.getReminderWindow());
+        assertEquals(100L, reminder.getOutboxId());
+        assertNotNull(reminder.getCreatedAt());
+    }
+}
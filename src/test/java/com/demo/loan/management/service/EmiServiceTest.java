@@ -1,5 +1,6 @@
 package com.demo.loan.management.service;
 
+import com.demo.loan.management.dto.EmiHistoryDTO;
 import com.demo.loan.management.dto.EmiPaymentRequestDTO;
 import com.demo.loan.management.exception.BadRequestException;
 import com.demo.loan.management.exception.ResourceNotFoundException;
@@ -10,7 +11,7 @@ import com.demo.loan.management.model.User;
 import com.demo.loan.management.repository.EmiRepository;
 import com.demo.loan.management.repository.LoanRepository;
 import com.demo.loan.management.repository.TransactionRepository;
-import com.demo.loan.management.repository.UserRepository;
+import com.demo.loan.management.security.CurrentUser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
@@ -18,9 +19,11 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -41,7 +44,13 @@ class EmiServiceTest {
     private TransactionRepository transactionRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private UserCacheService userCacheService;
+
+    @Spy
+    private AmortizationCalculator amortizationCalculator = new AmortizationCalculator();
+
+    @Mock
+    private PortfolioAnalyticsService portfolioAnalyticsService;
 
     @Mock
     private SecurityContext securityContext;
@@ -57,6 +66,7 @@ class EmiServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(emiService, "currentUser", new CurrentUser(userCacheService));
 
         when(authentication.getPrincipal()).thenReturn(userDetails);
         when(userDetails.getUsername()).thenReturn(testEmail);
@@ -118,7 +128,7 @@ class EmiServiceTest {
         dto.setEmiAmount(BigDecimal.valueOf(1000));
         dto.setPaymentMethod("CARD");
 
-        when(userRepository.findByEmail(testEmail)).thenReturn(Optional.of(user));
+        when(userCacheService.findByEmail(testEmail)).thenReturn(Optional.of(user));
         when(emiRepository.findById(1001L)).thenReturn(Optional.of(emi));
         when(emiRepository.countByLoanLoanIdAndStatus(101L, "PENDING")).thenReturn(0L);
 
@@ -140,7 +150,7 @@ class EmiServiceTest {
         EmiPaymentRequestDTO dto = new EmiPaymentRequestDTO();
         dto.setEmiAmount(BigDecimal.valueOf(1000));
 
-        when(userRepository.findByEmail(testEmail)).thenReturn(Optional.of(user));
+        when(userCacheService.findByEmail(testEmail)).thenReturn(Optional.of(user));
         when(emiRepository.findById(1001L)).thenReturn(Optional.empty());
 
         // Act & Assert
@@ -164,7 +174,7 @@ class EmiServiceTest {
         EmiPaymentRequestDTO dto = new EmiPaymentRequestDTO();
         dto.setEmiAmount(BigDecimal.valueOf(1000));
 
-        when(userRepository.findByEmail(testEmail)).thenReturn(Optional.of(loggedInUser));
+        when(userCacheService.findByEmail(testEmail)).thenReturn(Optional.of(loggedInUser));
         when(emiRepository.findById(1001L)).thenReturn(Optional.of(emi));
 
         BadRequestException exception = assertThrows(BadRequestException.class,
@@ -176,20 +186,22 @@ class EmiServiceTest {
     @Test
     void getEmiHistoryForUser_ShouldReturnEmis() {
         User user = User.builder().userId(1L).email(testEmail).build();
-        Emi emi1 = Emi.builder().emiId(1L).build();
-        Emi emi2 = Emi.builder().emiId(2L).build();
+        EmiHistoryDTO emi1 = new EmiHistoryDTO(1L, 101L, "HOME", 1, new BigDecimal("856.07"), null, "PAID", "COMPLETED", null);
+        EmiHistoryDTO emi2 = new EmiHistoryDTO(2L, 101L, "HOME", 2, new BigDecimal("856.07"), null, "PENDING", null, null);
 
-        when(userRepository.findByEmail(testEmail)).thenReturn(Optional.of(user));
-        when(emiRepository.findByLoanUserUserId(1L)).thenReturn(List.of(emi1, emi2));
+        when(userCacheService.findByEmail(testEmail)).thenReturn(Optional.of(user));
+        when(emiRepository.findHistoryByUserId(1L)).thenReturn(List.of(emi1, emi2));
 
-        List<Emi> result = emiService.getEmiHistoryForUser();
+        List<EmiHistoryDTO> result = emiService.getEmiHistoryForUser();
 
         assertEquals(2, result.size());
+        assertEquals(101L, result.get(0).getLoanId());
+        verify(emiRepository, never()).findByLoanLoanId(any());
     }
 
     @Test
     void getEmiHistoryForUser_ShouldThrow_WhenUserNotFound() {
-        when(userRepository.findByEmail(testEmail)).thenReturn(Optional.empty());
+        when(userCacheService.findByEmail(testEmail)).thenReturn(Optional.empty());
 
         ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
                 () -> emiService.getEmiHistoryForUser());
@@ -210,4 +222,62 @@ class EmiServiceTest {
         assertEquals(2, result.size());
         assertEquals(1L, result.get(0).getEmiId());
     }
+
+    @Test
+    void getEmisByLoanId_ShouldDeriveUnpaidInstallments_ForVirtualSchedule() {
+        LocalDateTime approvedAt = LocalDateTime.of(2025, 1, 15, 10, 0);
+        Loan loan = virtualLoan(101L, approvedAt);
+        Emi paid = Emi.builder().emiId(7L).loan(loan).installmentNumber(2)
+                .emiAmount(new BigDecimal("856.07")).status("PAID").paymentStatus("COMPLETED").build();
+
+        when(emiRepository.findByLoanLoanId(101L)).thenReturn(List.of(paid));
+
+        List<Emi> result = emiService.getEmisByLoanId(101L);
+
+        assertEquals(12, result.size());
+        assertSame(paid, result.get(1));
+        assertNull(result.get(0).getEmiId());
+        assertEquals("PENDING", result.get(0).getStatus());
+        assertEquals(new BigDecimal("856.07"), result.get(0).getEmiAmount());
+        assertEquals(approvedAt.plusMonths(12), result.get(11).getDueDate());
+    }
+
+    @Test
+    void payInstallment_ShouldMaterializeAndPay_ForVirtualSchedule() {
+        User user = User.builder().userId(1L).email(testEmail).build();
+        Loan loan = virtualLoan(101L, LocalDateTime.now());
+        loan.setUser(user);
+
+        EmiPaymentRequestDTO dto = new EmiPaymentRequestDTO();
+        dto.setEmiAmount(new BigDecimal("856.07"));
+
+        when(userCacheService.findByEmail(testEmail)).thenReturn(Optional.of(user));
+        when(loanRepository.findById(101L)).thenReturn(Optional.of(loan));
+        when(emiRepository.findByLoanLoanIdAndInstallmentNumber(101L, 1)).thenReturn(Optional.empty());
+        when(emiRepository.save(any(Emi.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(emiRepository.countByLoanLoanIdAndStatus(101L, "PAID")).thenReturn(1L);
+
+        emiService.payInstallment(101L, 1, dto);
+
+        ArgumentCaptor<Emi> captor = ArgumentCaptor.forClass(Emi.class);
+        verify(emiRepository, times(2)).save(captor.capture());
+        Emi stored = captor.getValue();
+        assertEquals(1, stored.getInstallmentNumber());
+        assertEquals("PAID", stored.getStatus());
+        verify(transactionRepository).save(any(Transaction.class));
+        verify(portfolioAnalyticsService).recordPayment(eq(stored), eq(new BigDecimal("856.07")), any());
+        verify(loanRepository, never()).save(loan);
+    }
+
+    private Loan virtualLoan(Long loanId, LocalDateTime approvedAt) {
+        return Loan.builder()
+                .loanId(loanId)
+                .loanAmount(new BigDecimal("10000"))
+                .interestRate(new BigDecimal("5"))
+                .loanTenure(12)
+                .loanStatus("APPROVED")
+                .scheduleMode(Loan.SCHEDULE_VIRTUAL)
+                .approvedAt(approvedAt)
+                .build();
+    }
 }
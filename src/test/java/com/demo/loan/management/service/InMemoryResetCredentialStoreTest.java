@@ -0,0 +1,170 @@
+package com.demo.loan.management.service;
+
+import com.demo.loan.management.model.PasswordResetToken;
+import com.demo.loan.management.model.User;
+import com.demo.loan.management.repository.PasswordResetTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class InMemoryResetCredentialStoreTest {
+
+    @Mock
+    private PasswordResetTokenRepository tokenRepository;
+
+    // Rows of the mocked table by user ID, shared by every store instance in a test
+    private final Map<Long, PasswordResetToken> table = new HashMap<>();
+    private SimpleMeterRegistry meterRegistry;
+    private InMemoryResetCredentialStore store;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        store = new InMemoryResetCredentialStore(tokenRepository, meterRegistry, 4, 10, 8);
+        user = User.builder().userId(1L).email("user@example.com").phoneNumber("1234567890").build();
+        when(tokenRepository.save(any())).thenAnswer(invocation -> {
+            PasswordResetToken row = invocation.getArgument(0);
+            table.put(row.getUser().getUserId(), row);
+            return row;
+        });
+        doAnswer(invocation -> {
+            PasswordResetToken row = invocation.getArgument(0);
+            table.remove(row.getUser().getUserId(), row);
+            return null;
+        }).when(tokenRepository).delete(any());
+        when(tokenRepository.findByUser(any()))
+                .thenAnswer(invocation -> Optional.ofNullable(table.get(invocation.<User>getArgument(0).getUserId())));
+        when(tokenRepository.findByToken(any())).thenAnswer(invocation -> table.values().stream()
+                .filter(row -> row.getToken().equals(invocation.getArgument(0)))
+                .findFirst());
+    }
+
+    @Test
+    void save_ShouldWriteThroughAndServeLookupsFromMemory() {
+        PasswordResetToken credential = otp(user, "123456", LocalDateTime.now().plusMinutes(5));
+
+        store.save(credential);
+
+        verify(tokenRepository).save(credential);
+        assertSame(credential, store.findByToken(credential.getToken()).orElseThrow());
+        assertSame(credential, store.findByOtp(user, "123456").orElseThrow());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", "resetCredentials").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void findByOtp_ShouldBeScopedToTheUser() {
+        User other = User.builder().userId(2L).email("other@example.com").build();
+        store.save(otp(user, "123456", LocalDateTime.now().plusMinutes(5)));
+
+        assertTrue(store.findByOtp(other, "123456").isEmpty());
+        assertTrue(store.findByOtp(user, "654321").isEmpty());
+    }
+
+    @Test
+    void save_ShouldReplaceTheUsersPreviousCredential() {
+        PasswordResetToken first = otp(user, "111111", LocalDateTime.now().plusMinutes(5));
+        PasswordResetToken second = otp(user, "222222", LocalDateTime.now().plusMinutes(5));
+        store.save(first);
+
+        store.save(second);
+
+        InOrder inOrder = inOrder(tokenRepository);
+        inOrder.verify(tokenRepository).delete(first);
+        inOrder.verify(tokenRepository).flush();
+        inOrder.verify(tokenRepository).save(second);
+        assertTrue(store.findByToken(first.getToken()).isEmpty());
+        assertSame(second, store.findByOtp(user, "222222").orElseThrow());
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void findByOtp_ShouldFollowAnOtpReplacedOnAnotherInstance() {
+        InMemoryResetCredentialStore otherInstance = otherInstance();
+        store.save(otp(user, "111111", LocalDateTime.now().plusMinutes(5)));
+        PasswordResetToken replacement = otp(user, "222222", LocalDateTime.now().plusMinutes(5));
+        otherInstance.save(replacement);
+
+        assertTrue(store.findByOtp(user, "111111").isEmpty());
+        assertSame(replacement, store.findByOtp(user, "222222").orElseThrow());
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void findByToken_ShouldNotReplayACredentialUsedOnAnotherInstance() {
+        InMemoryResetCredentialStore otherInstance = otherInstance();
+        PasswordResetToken credential = new PasswordResetToken(user, "single-use", LocalDateTime.now().plusMinutes(15));
+        store.save(credential);
+        otherInstance.delete(otherInstance.findByToken("single-use").orElseThrow());
+
+        assertTrue(store.findByToken("single-use").isEmpty());
+        assertTrue(store.findByOtp(user, "123456").isEmpty());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void findByOtp_ShouldLoadACredentialIssuedBeforeRestart() {
+        PasswordResetToken row = otp(user, "123456", LocalDateTime.now().plusMinutes(5));
+        table.put(user.getUserId(), row);
+
+        assertTrue(store.findByOtp(user, "000000").isEmpty());
+        assertSame(row, store.findByOtp(user, "123456").orElseThrow());
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void findByToken_ShouldFallBackToTable_OnMiss() {
+        PasswordResetToken row = new PasswordResetToken(user, "persisted", LocalDateTime.now().plusMinutes(15));
+        table.put(user.getUserId(), row);
+
+        assertSame(row, store.findByToken("persisted").orElseThrow());
+    }
+
+    @Test
+    void expireDue_ShouldDropExpiredCredentials() throws InterruptedException {
+        store.save(new PasswordResetToken(user, "short-lived", LocalDateTime.now().plusNanos(20_000_000)));
+        store.save(new PasswordResetToken(User.builder().userId(2L).build(), "long-lived", LocalDateTime.now().plusMinutes(15)));
+        assertEquals(2, store.size());
+
+        Thread.sleep(50);
+        store.expireDue();
+
+        assertEquals(1, store.size());
+        assertTrue(store.findByToken("long-lived").isPresent());
+    }
+
+    @Test
+    void delete_ShouldRemoveFromMemoryAndTable() {
+        PasswordResetToken credential = otp(user, "123456", LocalDateTime.now().plusMinutes(5));
+        store.save(credential);
+
+        store.delete(credential);
+
+        verify(tokenRepository).delete(credential);
+        assertEquals(0, store.size());
+        assertTrue(store.findByOtp(user, "123456").isEmpty());
+    }
+
+    private InMemoryResetCredentialStore otherInstance() {
+        return new InMemoryResetCredentialStore(tokenRepository, new SimpleMeterRegistry(), 4, 10, 8);
+    }
+
+    private static PasswordResetToken otp(User user, String otp, LocalDateTime expiry) {
+        PasswordResetToken credential = new PasswordResetToken(user, "otp-" + otp, expiry);
+        credential.setOtp(otp);
+        return credential;
+    }
+}
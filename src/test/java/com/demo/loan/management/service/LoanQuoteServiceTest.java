@@ -0,0 +1,76 @@
+package com.demo.loan.management.service;
+
+import com.demo.loan.management.dto.LoanQuoteDTO;
+import com.demo.loan.management.exception.BadRequestException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LoanQuoteServiceTest {
+
+    private AmortizationCalculator amortizationCalculator;
+    private SimpleMeterRegistry meterRegistry;
+    private LoanQuoteService loanQuoteService;
+
+    @BeforeEach
+    void setUp() {
+        amortizationCalculator = spy(new AmortizationCalculator());
+        meterRegistry = new SimpleMeterRegistry();
+        loanQuoteService = new LoanQuoteService(amortizationCalculator, meterRegistry, 2,
+                new BigDecimal("1000000000"), new BigDecimal("100"), 600);
+    }
+
+    @Test
+    void quote_ShouldComputeEmiAndTotal() {
+        LoanQuoteDTO quote = loanQuoteService.quote(new BigDecimal("10000"), new BigDecimal("5"), 12);
+
+        assertEquals(new BigDecimal("856.07"), quote.getEmiAmount());
+        assertEquals(quote.getTotalRepayable().subtract(new BigDecimal("10000.00")), quote.getTotalInterest());
+    }
+
+    @Test
+    void quote_ShouldServeNormalizedRepeatsFromCache() {
+        LoanQuoteDTO first = loanQuoteService.quote(new BigDecimal("10000"), new BigDecimal("5"), 12);
+        LoanQuoteDTO second = loanQuoteService.quote(new BigDecimal("10000.00"), new BigDecimal("5.0"), 12);
+
+        assertSame(first, second);
+        verify(amortizationCalculator, times(1)).calculateEmi(any(), any(), anyInt());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void quote_ShouldEvictLeastRecentlyUsedEntry_WhenFull() {
+        LoanQuoteDTO first = loanQuoteService.quote(new BigDecimal("1000"), new BigDecimal("5"), 12);
+        loanQuoteService.quote(new BigDecimal("2000"), new BigDecimal("5"), 12);
+        loanQuoteService.quote(new BigDecimal("1000"), new BigDecimal("5"), 12); // touch first
+        loanQuoteService.quote(new BigDecimal("3000"), new BigDecimal("5"), 12); // evicts 2000
+
+        assertEquals(2, loanQuoteService.size());
+        assertSame(first, loanQuoteService.quote(new BigDecimal("1000"), new BigDecimal("5"), 12));
+        assertEquals(3.0, meterRegistry.get("cache.gets").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void quote_ShouldThrow_WhenAmountIsNotPositive() {
+        BadRequestException exception = assertThrows(BadRequestException.class, () ->
+                loanQuoteService.quote(BigDecimal.ZERO, new BigDecimal("5"), 12));
+
+        assertEquals("Invalid loan amount or interest rate.", exception.getMessage());
+    }
+
+    @Test
+    void quote_ShouldRejectTermsBeyondLimits_WithoutComputing() {
+        assertThrows(BadRequestException.class, () -> loanQuoteService.quote(new BigDecimal("10000"), new BigDecimal("5"), Integer.MAX_VALUE));
+        assertThrows(BadRequestException.class, () -> loanQuoteService.quote(new BigDecimal("1e30"), new BigDecimal("5"), 12));
+        assertThrows(BadRequestException.class, () -> loanQuoteService.quote(new BigDecimal("10000"), new BigDecimal("1e6"), 12));
+
+        verifyNoInteractions(amortizationCalculator);
+        assertEquals(0, loanQuoteService.size());
+    }
+}
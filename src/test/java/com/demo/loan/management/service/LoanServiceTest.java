@@ -1,5 +1,7 @@
 package com.demo.loan.management.service;
 
+import com.demo.loan.management.dto.CursorPageDTO;
+import com.demo.loan.management.dto.LoanApprovalResultDTO;
 import com.demo.loan.management.dto.LoanRequestDTO;
 import com.demo.loan.management.exception.BadRequestException;
 import com.demo.loan.management.exception.ResourceNotFoundException;
@@ -8,15 +10,20 @@ import com.demo.loan.management.model.Role;
 import com.demo.loan.management.model.User;
 import com.demo.loan.management.repository.EmiRepository;
 import com.demo.loan.management.repository.LoanRepository;
-import com.demo.loan.management.repository.UserRepository;
+import com.demo.loan.management.security.CurrentUser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -31,11 +38,20 @@ class LoanServiceTest {
     private LoanRepository loanRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private UserCacheService userCacheService;
 
     @Mock
     private EmiRepository emiRepository;
 
+    @Spy
+    private AmortizationCalculator amortizationCalculator = new AmortizationCalculator();
+
+    @Spy
+    private ForkJoinPool scheduleComputationPool = new ForkJoinPool(2);
+
+    @Mock
+    private PortfolioAnalyticsService portfolioAnalyticsService;
+
     @Mock
     private Authentication authentication;
 
@@ -47,6 +63,7 @@ class LoanServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(loanService, "currentUser", new CurrentUser(userCacheService));
 
         user = new User();
         user.setUserId(1L);
@@ -58,7 +75,8 @@ class LoanServiceTest {
         when(authentication.getPrincipal()).thenReturn(userDetails);
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(userCacheService.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        ReflectionTestUtils.setField(loanService, "maxBulkApprovalSize", 500);
     }
 
     @Test
@@ -115,7 +133,31 @@ class LoanServiceTest {
         assertEquals("APPROVED", result.getLoanStatus());
         assertTrue(result.getEmiAmount().compareTo(BigDecimal.ZERO) > 0);
         assertTrue(result.getTotalRepayable().compareTo(BigDecimal.ZERO) > 0);
-        verify(emiRepository, times(12)).save(any()); // 12 EMIs created
+        verify(emiRepository).saveAll(argThat(emis -> ((List<?>) emis).size() == 12)); // 12 EMIs created in one batch
+        verify(emiRepository, never()).save(any());
+        verify(portfolioAnalyticsService).recordApproval(eq(loan), argThat(schedule -> schedule.getInstallments().size() == 12));
+    }
+
+    @Test
+    void approveLoan_ShouldNotStoreEmis_WhenScheduleIsVirtual() {
+        user.setRole(Role.ADMIN);
+        ReflectionTestUtils.setField(loanService, "scheduleMode", "VIRTUAL");
+
+        Loan loan = new Loan();
+        loan.setLoanId(1L);
+        loan.setLoanAmount(new BigDecimal("10000"));
+        loan.setInterestRate(new BigDecimal("5"));
+        loan.setLoanTenure(12);
+        loan.setLoanStatus("PENDING");
+
+        when(loanRepository.findById(1L)).thenReturn(Optional.of(loan));
+        when(loanRepository.save(any(Loan.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Loan result = loanService.approveLoan(1L);
+
+        assertTrue(result.isVirtualSchedule());
+        assertNotNull(result.getApprovedAt());
+        verify(emiRepository, never()).saveAll(any());
     }
 
     @Test
@@ -144,6 +186,112 @@ class LoanServiceTest {
         assertEquals("Unauthorized: Only admins can approve loans.", exception.getMessage());
     }
 
+    @Test
+    void approveLoans_ShouldApproveValidLoansAndReportFailures() {
+        user.setRole(Role.ADMIN);
+
+        Loan pending = new Loan();
+        pending.setLoanId(1L);
+        pending.setLoanAmount(new BigDecimal("10000"));
+        pending.setInterestRate(new BigDecimal("5"));
+        pending.setLoanTenure(12);
+        pending.setLoanStatus("PENDING");
+
+        Loan alreadyApproved = new Loan();
+        alreadyApproved.setLoanId(2L);
+        alreadyApproved.setLoanStatus("APPROVED");
+
+        Loan invalidTenure = new Loan();
+        invalidTenure.setLoanId(3L);
+        invalidTenure.setLoanAmount(new BigDecimal("10000"));
+        invalidTenure.setInterestRate(new BigDecimal("5"));
+        invalidTenure.setLoanTenure(0);
+        invalidTenure.setLoanStatus("PENDING");
+
+        when(loanRepository.findAllById(List.of(1L, 2L, 3L, 4L)))
+                .thenReturn(List.of(pending, alreadyApproved, invalidTenure));
+
+        List<LoanApprovalResultDTO> results = loanService.approveLoans(List.of(1L, 2L, 3L, 4L, 1L));
+
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).isApproved());
+        assertEquals(new BigDecimal("856.07"), results.get(0).getEmiAmount());
+        assertEquals("Loan is already approved.", results.get(1).getMessage());
+        assertEquals("Loan tenure must be greater than 0.", results.get(2).getMessage());
+        assertEquals("Loan not found with ID: 4", results.get(3).getMessage());
+
+        assertEquals("APPROVED", pending.getLoanStatus());
+        assertEquals("PENDING", invalidTenure.getLoanStatus());
+        verify(emiRepository).saveAll(argThat(emis -> ((List<?>) emis).size() == 12));
+        verify(loanRepository).saveAll(List.of(pending));
+        verify(portfolioAnalyticsService, times(1)).recordApproval(eq(pending), any());
+        verify(userCacheService, times(1)).findByEmail(user.getEmail());
+    }
+
+    @Test
+    void approveLoans_ShouldThrow_WhenUserNotAdmin() {
+        BadRequestException exception = assertThrows(BadRequestException.class, () ->
+                loanService.approveLoans(List.of(1L)));
+
+        assertEquals("Unauthorized: Only admins can approve loans.", exception.getMessage());
+        verify(loanRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void getAllLoansIncludingPending_ShouldReturnKeysetPageWithCursor() {
+        user.setRole(Role.ADMIN);
+
+        Loan first = new Loan();
+        first.setLoanId(11L);
+        Loan second = new Loan();
+        second.setLoanId(12L);
+        Loan extra = new Loan();
+        extra.setLoanId(13L);
+
+        when(loanRepository.findPageAfter(eq(10L), eq("PENDING"), isNull(), any()))
+                .thenReturn(new ArrayList<>(List.of(first, second, extra)));
+
+        CursorPageDTO<Loan> page = loanService.getAllLoansIncludingPending(10L, 2, "PENDING", " ");
+
+        assertEquals(List.of(first, second), page.getItems());
+        assertEquals(12L, page.getNextCursor());
+        verify(loanRepository).findPageAfter(10L, "PENDING", null, Limit.of(3));
+        verify(loanRepository, never()).findAll();
+    }
+
+    @Test
+    void getAllLoansIncludingPending_ShouldClampPageSizeAndEndWithoutCursor() {
+        user.setRole(Role.ADMIN);
+
+        when(loanRepository.findPageAfter(eq(0L), isNull(), isNull(), any())).thenReturn(List.of(new Loan()));
+
+        CursorPageDTO<Loan> page = loanService.getAllLoansIncludingPending(null, 10_000, null, null);
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+        verify(loanRepository).findPageAfter(0L, null, null, Limit.of(201));
+    }
+
+    @Test
+    void getAllLoansIncludingPending_ShouldReturnDefaultPage_WhenNoCursorOrSizeIsGiven() {
+        user.setRole(Role.ADMIN);
+
+        List<Loan> rows = new ArrayList<>();
+        for (long id = 1; id <= 51; id++) {
+            Loan loan = new Loan();
+            loan.setLoanId(id);
+            rows.add(loan);
+        }
+        when(loanRepository.findPageAfter(eq(0L), isNull(), isNull(), any())).thenReturn(rows);
+
+        CursorPageDTO<Loan> page = loanService.getAllLoansIncludingPending(null, null, null, null);
+
+        assertEquals(50, page.getItems().size());
+        assertEquals(50L, page.getNextCursor());
+        verify(loanRepository, times(1)).findPageAfter(0L, null, null, Limit.of(51));
+        verify(loanRepository, never()).findAll();
+    }
+
     @Test
     void getLoanById_ShouldReturnLoan_WhenExists() {
         Loan loan = new Loan();
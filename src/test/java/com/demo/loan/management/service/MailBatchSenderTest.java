@@ -0,0 +1,175 @@
+package com.demo.loan.management.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MailBatchSenderTest {
+
+    private FakeSmtpServer smtpServer;
+    private SimpleMeterRegistry meterRegistry;
+    private MailBatchSender mailBatchSender;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        smtpServer = new FakeSmtpServer("rejected@example.com");
+        JavaMailSenderImpl javaMailSender = new JavaMailSenderImpl();
+        javaMailSender.setHost("localhost");
+        javaMailSender.setPort(smtpServer.port());
+        Properties properties = new Properties();
+        properties.put("mail.smtp.from", "loans@example.com");
+        properties.put("mail.smtp.timeout", "5000");
+        javaMailSender.setJavaMailProperties(properties);
+
+        meterRegistry = new SimpleMeterRegistry();
+        mailBatchSender = new MailBatchSender(javaMailSender, meterRegistry, 2, 3);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mailBatchSender.shutdown();
+        smtpServer.close();
+    }
+
+    @Test
+    void sendAll_ShouldReuseOneConnectionPerChunk() {
+        List<SimpleMailMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            messages.add(EmailService.message("user" + i + "@example.com", "Reminder", "Body " + i));
+        }
+
+        Map<Integer, Exception> failures = mailBatchSender.sendAll(messages);
+
+        assertTrue(failures.isEmpty());
+        assertEquals(7, smtpServer.messages.get());
+        // 7 messages at 3 per connection
+        assertEquals(3, smtpServer.connections.get());
+        assertEquals(7.0, meterRegistry.get("mail.messages").tag("result", "sent").counter().count());
+        assertEquals(3, meterRegistry.get("mail.session").timer().count());
+    }
+
+    @Test
+    void sendAll_ShouldReportRejectedMessagesByPosition() {
+        List<SimpleMailMessage> messages = List.of(
+                EmailService.message("first@example.com", "Subject", "Body"),
+                EmailService.message("rejected@example.com", "Subject", "Body"),
+                EmailService.message("third@example.com", "Subject", "Body"));
+
+        Map<Integer, Exception> failures = mailBatchSender.sendAll(messages);
+
+        assertEquals(List.of(1), List.copyOf(failures.keySet()));
+        assertEquals(2, smtpServer.messages.get());
+        assertEquals(1.0, meterRegistry.get("mail.messages").tag("result", "failed").counter().count());
+    }
+
+    @Test
+    void sendAll_ShouldFailEveryMessage_WhenServerIsDown() throws IOException {
+        smtpServer.close();
+
+        Map<Integer, Exception> failures = mailBatchSender.sendAll(List.of(
+                EmailService.message("first@example.com", "Subject", "Body"),
+                EmailService.message("second@example.com", "Subject", "Body")));
+
+        assertEquals(2, failures.size());
+    }
+
+    /**
+     * Just enough SMTP to accept messages, counting connections and delivered messages; RCPT TO for the rejected
+     * address gets a 550.
+     */
+    private static final class FakeSmtpServer implements AutoCloseable {
+
+        final AtomicInteger connections = new AtomicInteger();
+        final AtomicInteger messages = new AtomicInteger();
+        private final ServerSocket serverSocket;
+        private final String rejectedRecipient;
+
+        FakeSmtpServer(String rejectedRecipient) throws IOException {
+            this.rejectedRecipient = rejectedRecipient;
+            this.serverSocket = new ServerSocket(0);
+            Thread acceptor = new Thread(this::acceptLoop, "fake-smtp");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int port() {
+            return serverSocket.getLocalPort();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+
+        private void acceptLoop() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    connections.incrementAndGet();
+                    Thread session = new Thread(() -> serve(socket), "fake-smtp-session");
+                    session.setDaemon(true);
+                    session.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(Socket socket) {
+            try (socket;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                 PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII)) {
+                reply(out, "220 fake SMTP ready");
+                String line;
+                boolean rejected = false;
+                while ((line = in.readLine()) != null) {
+                    String command = line.toUpperCase();
+                    if (command.startsWith("RCPT TO") && line.contains(rejectedRecipient)) {
+                        rejected = true;
+                        reply(out, "550 No such user");
+                    } else if (command.startsWith("DATA")) {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            // Discard the message body
+                        }
+                        messages.incrementAndGet();
+                        reply(out, "250 OK");
+                    } else if (command.startsWith("QUIT")) {
+                        reply(out, "221 Bye");
+                        return;
+                    } else if (command.startsWith("RSET") || command.startsWith("MAIL FROM")) {
+                        rejected = false;
+                        reply(out, "250 OK");
+                    } else {
+                        reply(out, rejected ? "503 Bad sequence" : "250 OK");
+                    }
+                }
+            } catch (IOException e) {
+                // Client went away
+            }
+        }
+
+        private static void reply(PrintWriter out, String line) {
+            out.print(line + "\r\n");
+            out.flush();
+        }
+    }
+}
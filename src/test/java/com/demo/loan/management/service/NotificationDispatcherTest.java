@@ -0,0 +1,84 @@
+package com.demo.loan.management.service;
+
+import com.demo.loan.management.model.NotificationOutbox;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NotificationDispatcherTest {
+
+    @Mock
+    private NotificationOutboxService outboxService;
+
+    @Mock
+    private EmailService emailService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private NotificationDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new NotificationDispatcher(outboxService, emailService, meterRegistry, 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void dispatchPending_ShouldDrainFullBatchesAndRecordFailures() {
+        NotificationOutbox first = row(1L, "a@example.com");
+        NotificationOutbox second = row(2L, "b@example.com");
+        NotificationOutbox third = row(3L, "c@example.com");
+        when(outboxService.claimBatch(2)).thenReturn(List.of(first, second), List.of(third));
+        when(emailService.sendEmails(anyList()))
+                .thenReturn(Map.of(1, new MailSendException("Connection refused")))
+                .thenReturn(Map.of());
+
+        dispatcher.dispatchPending();
+
+        verify(outboxService, times(2)).claimBatch(2);
+        ArgumentCaptor<List<SimpleMailMessage>> messages = ArgumentCaptor.forClass(List.class);
+        verify(emailService, times(2)).sendEmails(messages.capture());
+        assertArrayEquals(new String[]{"b@example.com"}, messages.getAllValues().get(0).get(1).getTo());
+        ArgumentCaptor<Map<Long, String>> failures = ArgumentCaptor.forClass(Map.class);
+        verify(outboxService).recordOutcomes(eq(List.of(first, second)), failures.capture());
+        assertEquals(Map.of(2L, "Connection refused"), failures.getValue());
+        assertEquals(2.0, meterRegistry.get("notification.outbox.dispatched").tag("result", "sent").counter().count());
+    }
+
+    @Test
+    void dispatchPending_ShouldStop_WhenNothingIsDue() {
+        when(outboxService.claimBatch(2)).thenReturn(List.of());
+
+        dispatcher.dispatchPending();
+
+        verifyNoInteractions(emailService);
+        verify(outboxService, never()).recordOutcomes(any(), any());
+    }
+
+    private static NotificationOutbox row(Long id, String recipient) {
+        return NotificationOutbox.builder()
+                .id(id)
+                .recipient(recipient)
+                .subject("Subject")
+                .body("Body")
+                .status(NotificationOutbox.STATUS_SENDING)
+                .attempts(1)
+                .nextAttemptAt(LocalDateTime.now())
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
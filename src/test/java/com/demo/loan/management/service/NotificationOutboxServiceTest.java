@@ -0,0 +1,94 @@
+package com.demo.loan.management.service;
+
+import com.demo.loan.management.model.Notification;
+import com.demo.loan.management.model.NotificationOutbox;
+import com.demo.loan.management.repository.NotificationOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class NotificationOutboxServiceTest {
+
+    @Mock
+    private NotificationOutboxRepository outboxRepository;
+
+    private NotificationOutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        outboxService = new NotificationOutboxService(outboxRepository, 300000, 3, 1000, 5000);
+        when(outboxRepository.save(any(NotificationOutbox.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void enqueue_ShouldStorePendingRowDueNow() {
+        Notification notification = new Notification();
+
+        NotificationOutbox row = outboxService.enqueue(notification, "user@example.com", "Subject", "Body");
+
+        assertSame(notification, row.getNotification());
+        assertEquals(NotificationOutbox.STATUS_PENDING, row.getStatus());
+        assertEquals(0, row.getAttempts());
+        assertFalse(row.getNextAttemptAt().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    void claimBatch_ShouldLeaseRowsAndCountAttempt() {
+        NotificationOutbox row = row(1L, NotificationOutbox.STATUS_PENDING, 0);
+        when(outboxRepository.findDueForUpdate(any(), any(), any())).thenReturn(List.of(row));
+
+        List<NotificationOutbox> batch = outboxService.claimBatch(10);
+
+        assertEquals(List.of(row), batch);
+        assertEquals(NotificationOutbox.STATUS_SENDING, row.getStatus());
+        assertEquals(1, row.getAttempts());
+        assertTrue(row.getNextAttemptAt().isAfter(LocalDateTime.now().plusMinutes(4)));
+    }
+
+    @Test
+    void recordOutcomes_ShouldMarkDeliveredInBulkAndScheduleRetries() {
+        NotificationOutbox sent = row(1L, NotificationOutbox.STATUS_SENDING, 1);
+        NotificationOutbox retry = row(2L, NotificationOutbox.STATUS_SENDING, 2);
+        NotificationOutbox exhausted = row(3L, NotificationOutbox.STATUS_SENDING, 3);
+
+        outboxService.recordOutcomes(List.of(sent, retry, exhausted), Map.of(2L, "Connection refused", 3L, "Mailbox full"));
+
+        verify(outboxRepository).markDelivered(eq(List.of(1L)), eq(NotificationOutbox.STATUS_SENT), any());
+        verify(outboxRepository).saveAll(List.of(retry, exhausted));
+        assertEquals(NotificationOutbox.STATUS_PENDING, retry.getStatus());
+        assertEquals("Connection refused", retry.getLastError());
+        assertTrue(retry.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertEquals(NotificationOutbox.STATUS_FAILED, exhausted.getStatus());
+    }
+
+    @Test
+    void backoff_ShouldDoubleUpToCap() {
+        assertEquals(1000, outboxService.backoffMs(1));
+        assertEquals(2000, outboxService.backoffMs(2));
+        assertEquals(4000, outboxService.backoffMs(3));
+        assertEquals(5000, outboxService.backoffMs(4));
+    }
+
+    private static NotificationOutbox row(Long id, String status, int attempts) {
+        return NotificationOutbox.builder()
+                .id(id)
+                .recipient("user@example.com")
+                .subject("Subject")
+                .body("Body")
+                .status(status)
+                .attempts(attempts)
+                .nextAttemptAt(LocalDateTime.now())
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -3,7 +3,6 @@ package com.demo.loan.management.service;
 import com.demo.loan.management.model.Notification;
 import com.demo.loan.management.model.User;
 import com.demo.loan.management.repository.NotificationRepository;
-import com.demo.loan.management.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
@@ -24,10 +23,10 @@ class NotificationServiceTest {
     private NotificationRepository notificationRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private UserCacheService userCacheService;
 
     @Mock
-    private EmailService emailService;
+    private NotificationOutboxService notificationOutboxService;
 
     @BeforeEach
     void setUp() {
@@ -49,14 +48,14 @@ class NotificationServiceTest {
         savedNotification.setMessage("Test message");
         savedNotification.setUser(user);
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userCacheService.findById(userId)).thenReturn(Optional.of(user));
         when(notificationRepository.save(any(Notification.class))).thenReturn(savedNotification);
 
         Notification result = notificationService.createNotification(userId, inputNotification);
 
         assertNotNull(result);
         assertEquals("Test message", result.getMessage());
-        verify(emailService).sendEmail(eq("test@example.com"), eq("New Notification"), eq("Test message"));
+        verify(notificationOutboxService).enqueue(eq(savedNotification), eq("test@example.com"), eq("New Notification"), eq("Test message"));
     }
 
     @Test
@@ -130,7 +129,7 @@ class NotificationServiceTest {
         user.setEmail("loanuser@example.com");
         user.setFirstName("Alex");
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userCacheService.findById(userId)).thenReturn(Optional.of(user));
         when(notificationRepository.save(any(Notification.class))).thenAnswer(invocation -> {
             Notification n = invocation.getArgument(0);
             n.setNotificationId(1L); // Simulate DB-generated ID
@@ -145,7 +144,8 @@ class NotificationServiceTest {
         assertEquals("Congratulations! Your loan has been approved.", result.getMessage());
         assertEquals(user, result.getUser());
 
-        verify(emailService).sendEmail(
+        verify(notificationOutboxService).enqueue(
+                eq(result),
                 eq("loanuser@example.com"),
                 eq("Loan Approved"),
                 contains("Dear Alex")
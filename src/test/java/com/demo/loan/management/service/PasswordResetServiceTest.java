@@ -3,19 +3,22 @@ package com.demo.loan.management.service;
 import com.demo.loan.management.exception.ResourceNotFoundException;
 import com.demo.loan.management.model.PasswordResetToken;
 import com.demo.loan.management.model.User;
-import com.demo.loan.management.repository.PasswordResetTokenRepository;
 import com.demo.loan.management.repository.UserRepository;
+import com.demo.loan.management.security.UserEpochRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,16 +28,22 @@ public class PasswordResetServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private PasswordResetTokenRepository tokenRepository;
+    private UserCacheService userCacheService;
+
+    @Mock
+    private ResetCredentialStore credentialStore;
 
     @Mock
     private EmailService emailService;
 
     @Mock
-    private SmsService smsService;
+    private SmsDispatcher smsDispatcher;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
 
     @Mock
-    private BCryptPasswordEncoder passwordEncoder;
+    private UserEpochRegistry userEpochRegistry;
 
     @InjectMocks
     private PasswordResetService passwordResetService;
@@ -45,6 +54,7 @@ public class PasswordResetServiceTest {
     @BeforeEach
     public void setUp() {
         user = new User();
+        user.setUserId(1L);
         user.setEmail("test@example.com");
         user.setPhoneNumber("1234567890");
         user.setPassword("oldPassword");
@@ -67,11 +77,10 @@ public class PasswordResetServiceTest {
     @Test
     public void initiateResetByEmail_Success_ShouldSendEmail() {
         when(userRepository.findByEmail(any())).thenReturn(Optional.of(user));
-        when(tokenRepository.findByUser(any())).thenReturn(Optional.empty());
 
         passwordResetService.initiateResetByEmail(user.getEmail());
 
-        verify(tokenRepository, times(1)).save(any(PasswordResetToken.class));
+        verify(credentialStore, times(1)).save(any(PasswordResetToken.class));
         verify(emailService, times(1)).sendEmail(any(), any(), any());
     }
 
@@ -90,85 +99,93 @@ public class PasswordResetServiceTest {
     @Test
     public void initiateResetByOTP_Success_ShouldSendSms() {
         when(userRepository.findByPhoneNumber(any())).thenReturn(Optional.of(user));
-        when(tokenRepository.findByUser(any())).thenReturn(Optional.empty());
 
         passwordResetService.initiateResetByOTP(user.getPhoneNumber());
 
-        verify(tokenRepository, times(1)).save(any(PasswordResetToken.class));
-        verify(smsService, times(1)).sendSms(any(), any());
+        verify(credentialStore, times(1)).save(argThat(credential ->
+                credential.getUser() == user && credential.getOtp() != null && credential.getOtp().length() == 6));
+        verify(smsDispatcher, times(1)).send(eq("1234567890"), argThat(body -> body.startsWith("Your OTP")));
     }
 
     @Test
     public void resetPassword_InvalidToken_ShouldThrowException() {
-        when(tokenRepository.findByToken(any())).thenReturn(Optional.empty());
+        when(credentialStore.findByToken(any())).thenReturn(Optional.empty());
 
         // This should throw ResourceNotFoundException
         try {
             passwordResetService.resetPassword("invalidToken", "newPassword");
         } catch (ResourceNotFoundException e) {
-            verify(tokenRepository, times(1)).findByToken("invalidToken");
+            verify(credentialStore, times(1)).findByToken("invalidToken");
         }
     }
 
     @Test
     public void resetPassword_TokenExpired_ShouldThrowException() {
         resetToken.setExpiryTime(LocalDateTime.now().minusMinutes(1));
-        when(tokenRepository.findByToken(any())).thenReturn(Optional.of(resetToken));
+        when(credentialStore.findByToken(any())).thenReturn(Optional.of(resetToken));
 
         // This should throw RuntimeException for expired token
         try {
             passwordResetService.resetPassword("resetToken", "newPassword");
         } catch (RuntimeException e) {
-            verify(tokenRepository, times(1)).findByToken("resetToken");
+            verify(credentialStore, times(1)).findByToken("resetToken");
         }
     }
 
     @Test
     public void resetPassword_Success_ShouldUpdatePassword() {
         resetToken.setExpiryTime(LocalDateTime.now().plusMinutes(15));
-        when(tokenRepository.findByToken(any())).thenReturn(Optional.of(resetToken));
+        when(credentialStore.findByToken(any())).thenReturn(Optional.of(resetToken));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         when(passwordEncoder.encode(any())).thenReturn("newEncryptedPassword");
 
         passwordResetService.resetPassword("resetToken", "newPassword");
 
         verify(userRepository, times(1)).save(any(User.class));
-        verify(tokenRepository, times(1)).delete(any(PasswordResetToken.class));
+        verify(userCacheService, times(1)).invalidate(user);
+        verify(credentialStore, times(1)).delete(resetToken);
+        assertEquals(1L, user.getTokenEpoch());
+        verify(userEpochRegistry).recordChange("test@example.com", 1L);
     }
 
     @Test
     public void resetPasswordWithOTP_InvalidOtp_ShouldThrowException() {
-        when(tokenRepository.findByOtp(any())).thenReturn(Optional.empty());
+        when(userRepository.findByPhoneNumber("1234567890")).thenReturn(Optional.of(user));
+        when(credentialStore.findByOtp(any(), any())).thenReturn(Optional.empty());
 
-        // This should throw ResourceNotFoundException
-        try {
-            passwordResetService.resetPasswordWithOTP("invalidOtp", "newPassword");
-        } catch (ResourceNotFoundException e) {
-            verify(tokenRepository, times(1)).findByOtp("invalidOtp");
-        }
+        assertThrows(ResourceNotFoundException.class,
+                () -> passwordResetService.resetPasswordWithOTP("1234567890", "invalidOtp", "newPassword"));
+        verify(credentialStore, times(1)).findByOtp(user, "invalidOtp");
+        verify(userRepository, never()).save(any());
     }
 
     @Test
     public void resetPasswordWithOTP_ExpiredOtp_ShouldThrowException() {
         resetToken.setExpiryTime(LocalDateTime.now().minusMinutes(1));
-        when(tokenRepository.findByOtp(any())).thenReturn(Optional.of(resetToken));
+        when(userRepository.findByPhoneNumber("1234567890")).thenReturn(Optional.of(user));
+        when(credentialStore.findByOtp(user, "expiredOtp")).thenReturn(Optional.of(resetToken));
 
         // This should throw RuntimeException for expired OTP
         try {
-            passwordResetService.resetPasswordWithOTP("expiredOtp", "newPassword");
+            passwordResetService.resetPasswordWithOTP("1234567890", "expiredOtp", "newPassword");
         } catch (RuntimeException e) {
-            verify(tokenRepository, times(1)).findByOtp("expiredOtp");
+            verify(credentialStore, times(1)).findByOtp(user, "expiredOtp");
         }
     }
 
     @Test
     public void resetPasswordWithOTP_Success_ShouldUpdatePassword() {
         resetToken.setExpiryTime(LocalDateTime.now().plusMinutes(5));
-        when(tokenRepository.findByOtp(any())).thenReturn(Optional.of(resetToken));
+        when(userRepository.findByPhoneNumber("1234567890")).thenReturn(Optional.of(user));
+        when(credentialStore.findByOtp(user, "validOtp")).thenReturn(Optional.of(resetToken));
         when(passwordEncoder.encode(any())).thenReturn("newEncryptedPassword");
 
-        passwordResetService.resetPasswordWithOTP("validOtp", "newPassword");
+        passwordResetService.resetPasswordWithOTP("1234567890", "validOtp", "newPassword");
 
         verify(userRepository, times(1)).save(any(User.class));
-        verify(tokenRepository, times(1)).delete(any(PasswordResetToken.class));
+        verify(userCacheService, times(1)).invalidate(user);
+        verify(credentialStore, times(1)).delete(resetToken);
+        assertEquals(1L, user.getTokenEpoch());
+        verify(userEpochRegistry).recordChange("test@example.com", 1L);
     }
 }
@@ -0,0 +1,157 @@
+package com.demo.loan.management.service;
+
+import com.demo.loan.management.dto.AmortizationScheduleDTO;
+import com.demo.loan.management.dto.DelinquencyBucketDTO;
+import com.demo.loan.management.dto.PortfolioSnapshotDTO;
+import com.demo.loan.management.model.Emi;
+import com.demo.loan.management.model.Loan;
+import com.demo.loan.management.repository.EmiRepository;
+import com.demo.loan.management.repository.LoanRepository;
+import com.demo.loan.management.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PortfolioAnalyticsServiceTest {
+
+    @Mock
+    private EmiRepository emiRepository;
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private final AmortizationCalculator amortizationCalculator = new AmortizationCalculator();
+
+    private PortfolioAnalyticsService portfolioAnalyticsService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        portfolioAnalyticsService = new PortfolioAnalyticsService(
+                emiRepository, loanRepository, transactionRepository, amortizationCalculator, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void recordApproval_ShouldAddScheduleToOutstanding() {
+        Loan loan = approvedLoan(1L, LocalDateTime.now());
+        AmortizationScheduleDTO schedule = schedule(loan);
+
+        portfolioAnalyticsService.recordApproval(loan, schedule);
+
+        PortfolioSnapshotDTO snapshot = portfolioAnalyticsService.snapshot();
+        assertEquals(new BigDecimal("10272.89"), snapshot.getTotalOutstanding());
+        assertEquals(12, snapshot.getOutstandingInstallments());
+        snapshot.getDelinquencyBuckets().forEach(bucket -> assertEquals(0, bucket.getInstallments()));
+    }
+
+    @Test
+    void recordApproval_ShouldBucketOverdueInstallmentsByDaysPastDue() {
+        // Approved a bit over four months ago: installments 1-4 are 1-30, 31-60, 61-90 and 91+ days overdue
+        Loan loan = approvedLoan(1L, LocalDateTime.now().minusMonths(4).minusDays(15));
+
+        portfolioAnalyticsService.recordApproval(loan, schedule(loan));
+
+        List<DelinquencyBucketDTO> buckets = portfolioAnalyticsService.snapshot().getDelinquencyBuckets();
+        assertEquals(List.of("1-30", "31-60", "61-90", "91+"), buckets.stream().map(DelinquencyBucketDTO::getLabel).toList());
+        buckets.forEach(bucket -> assertEquals(1, bucket.getInstallments(), bucket.getLabel()));
+        assertEquals(new BigDecimal("856.07"), buckets.get(0).getAmount());
+        assertNull(buckets.get(3).getMaxDaysPastDue());
+    }
+
+    @Test
+    void recordPayment_ShouldMoveInstallmentFromOutstandingToCollected() {
+        Loan loan = approvedLoan(1L, LocalDateTime.now().minusMonths(1).minusDays(5));
+        portfolioAnalyticsService.recordApproval(loan, schedule(loan));
+
+        Emi first = Emi.builder().loan(loan).installmentNumber(1).emiAmount(new BigDecimal("856.07"))
+                .dueDate(loan.getApprovedAt().plusMonths(1)).build();
+        portfolioAnalyticsService.recordPayment(first, new BigDecimal("856.07"), LocalDateTime.now());
+
+        PortfolioSnapshotDTO snapshot = portfolioAnalyticsService.snapshot();
+        assertEquals(new BigDecimal("9416.82"), snapshot.getTotalOutstanding());
+        assertEquals(11, snapshot.getOutstandingInstallments());
+        assertEquals(new BigDecimal("856.07"), snapshot.getCollectedThisMonth());
+        assertEquals(1, snapshot.getPaymentsThisMonth());
+        assertEquals(0, snapshot.getDelinquencyBuckets().get(0).getInstallments());
+    }
+
+    @Test
+    void recordPayment_ShouldWaitForCommit_WhenTransactionIsActive() {
+        Emi emi = Emi.builder().emiAmount(new BigDecimal("100.00")).build();
+        TransactionSynchronizationManager.initSynchronization();
+
+        portfolioAnalyticsService.recordPayment(emi, new BigDecimal("100.00"), LocalDateTime.now());
+        assertEquals(0, portfolioAnalyticsService.snapshot().getPaymentsThisMonth());
+
+        List<TransactionSynchronization> synchronizations = new ArrayList<>(TransactionSynchronizationManager.getSynchronizations());
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        assertEquals(new BigDecimal("100.00"), portfolioAnalyticsService.snapshot().getCollectedThisMonth());
+    }
+
+    @Test
+    void rebuild_ShouldReplaceAggregatesFromDatabase() {
+        portfolioAnalyticsService.recordPayment(Emi.builder().emiAmount(BigDecimal.TEN).build(), BigDecimal.TEN, LocalDateTime.now());
+
+        LocalDate overdue = LocalDate.now().minusDays(10);
+        Loan virtual = approvedLoan(2L, LocalDateTime.now());
+        virtual.setScheduleMode(Loan.SCHEDULE_VIRTUAL);
+        YearMonth thisMonth = YearMonth.now();
+
+        when(emiRepository.sumUnpaidByDueDate()).thenReturn(List.<Object[]>of(new Object[]{overdue, 2L, new BigDecimal("500.00")}));
+        when(loanRepository.findByScheduleModeAndLoanStatusAndLoanIdGreaterThanOrderByLoanIdAsc(
+                eq(Loan.SCHEDULE_VIRTUAL), eq("APPROVED"), eq(0L), any())).thenReturn(List.of(virtual));
+        when(emiRepository.findInstallmentNumbersByLoanIds(List.of(2L))).thenReturn(List.<Object[]>of(new Object[]{2L, 1}));
+        when(transactionRepository.sumSuccessfulByMonthSince(any())).thenReturn(
+                List.<Object[]>of(new Object[]{thisMonth.getYear(), thisMonth.getMonthValue(), 3L, new BigDecimal("750.00")}));
+
+        PortfolioSnapshotDTO snapshot = portfolioAnalyticsService.rebuild();
+
+        // 2 stored overdue rows plus installments 2-12 of the virtual loan (installment 1 is stored)
+        assertEquals(13, snapshot.getOutstandingInstallments());
+        assertEquals(new BigDecimal("500.00").add(new BigDecimal("10272.89")).subtract(new BigDecimal("856.07")),
+                snapshot.getTotalOutstanding());
+        assertEquals(2, snapshot.getDelinquencyBuckets().get(0).getInstallments());
+        assertEquals(new BigDecimal("750.00"), snapshot.getCollectedThisMonth());
+        assertEquals(3, snapshot.getPaymentsThisMonth());
+        assertNotNull(snapshot.getLastRebuiltAt());
+    }
+
+    private Loan approvedLoan(Long loanId, LocalDateTime approvedAt) {
+        return Loan.builder()
+                .loanId(loanId)
+                .loanAmount(new BigDecimal("10000"))
+                .interestRate(new BigDecimal("5"))
+                .loanTenure(12)
+                .loanStatus("APPROVED")
+                .approvedAt(approvedAt)
+                .build();
+    }
+
+    private AmortizationScheduleDTO schedule(Loan loan) {
+        return amortizationCalculator.buildSchedule(loan.getLoanAmount(), loan.getInterestRate(), loan.getLoanTenure());
+    }
+}
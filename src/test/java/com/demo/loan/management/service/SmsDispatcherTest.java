@@ -0,0 +1,198 @@
+package com.demo.loan.management.service;
+
+import com.demo.loan.management.dto.SmsDeliveryDTO;
+import com.demo.loan.management.exception.TooManyRequestsException;
+import com.twilio.exception.ApiConnectionException;
+import com.twilio.exception.ApiException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SmsDispatcherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SmsDispatcher smsDispatcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (smsDispatcher != null) {
+            smsDispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void send_ShouldReturnBeforeProviderAccepts() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        StubSmsSender stub = new StubSmsSender();
+        smsDispatcher = dispatcher((to, body) -> {
+            awaitQuietly(release);
+            return stub.sendSms(to, body);
+        }, 2, 3);
+
+        String deliveryId = smsDispatcher.send("+15550100", "Your OTP is 123456");
+
+        assertNotEquals(SmsDispatcher.STATUS_SENT, smsDispatcher.status(deliveryId).orElseThrow().getStatus());
+        release.countDown();
+        SmsDeliveryDTO delivery = awaitSettled(deliveryId);
+        assertEquals(SmsDispatcher.STATUS_SENT, delivery.getStatus());
+        assertEquals("stub-1", delivery.getProviderMessageId());
+        assertEquals("Your OTP is 123456", stub.sentMessages().get(0).body());
+    }
+
+    @Test
+    void send_ShouldRetryUntilProviderAccepts() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        smsDispatcher = dispatcher((to, body) -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new ApiException("Service unavailable", 503);
+            }
+            return "SM123";
+        }, 2, 3);
+
+        SmsDeliveryDTO delivery = awaitSettled(smsDispatcher.send("+15550100", "Hello"));
+
+        assertEquals(SmsDispatcher.STATUS_SENT, delivery.getStatus());
+        assertEquals(3, delivery.getAttempts());
+        assertEquals(2.0, meterRegistry.get("sms.dispatched").tag("result", "retry").counter().count());
+    }
+
+    @Test
+    void send_ShouldFailAfterMaxAttempts() throws InterruptedException {
+        smsDispatcher = dispatcher((to, body) -> {
+            throw new ApiConnectionException("Connection timed out", new SocketTimeoutException());
+        }, 2, 3);
+
+        SmsDeliveryDTO delivery = awaitSettled(smsDispatcher.send("+15550100", "Hello"));
+
+        assertEquals(SmsDispatcher.STATUS_FAILED, delivery.getStatus());
+        assertEquals(3, delivery.getAttempts());
+        assertEquals("Connection timed out", delivery.getLastError());
+        assertEquals(1.0, meterRegistry.get("sms.dispatched").tag("result", "failed").counter().count());
+    }
+
+    @Test
+    void send_ShouldNotRetryClientErrors() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        smsDispatcher = dispatcher((to, body) -> {
+            calls.incrementAndGet();
+            throw new ApiException("Invalid 'To' phone number", 400);
+        }, 2, 3);
+
+        SmsDeliveryDTO delivery = awaitSettled(smsDispatcher.send("not-a-number", "Hello"));
+
+        assertEquals(SmsDispatcher.STATUS_FAILED, delivery.getStatus());
+        assertEquals(1, delivery.getAttempts());
+        assertEquals(1, calls.get());
+        assertEquals("Invalid 'To' phone number", delivery.getLastError());
+        assertEquals(0.0, meterRegistry.get("sms.dispatched").tag("result", "retry").counter().count());
+    }
+
+    @Test
+    void send_ShouldRejectOnceTheQueueIsFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        smsDispatcher = new SmsDispatcher((to, body) -> {
+            awaitQuietly(release);
+            return "SM" + to;
+        }, meterRegistry, 1, 1, 2, 1, 5, 60000);
+
+        String first = smsDispatcher.send("1", "Hello");
+        smsDispatcher.send("2", "Hello");
+
+        assertThrows(TooManyRequestsException.class, () -> smsDispatcher.send("3", "Hello"));
+        assertEquals(1.0, meterRegistry.get("sms.dispatched").tag("result", "rejected").counter().count());
+        release.countDown();
+        awaitSettled(first);
+        Thread.sleep(20);
+        assertEquals(SmsDispatcher.STATUS_SENT, awaitSettled(smsDispatcher.send("4", "Hello")).getStatus());
+    }
+
+    @Test
+    void isTransient_ShouldOnlyAcceptProviderOutagesAndTimeouts() {
+        assertTrue(SmsDispatcher.isTransient(new ApiException("Service unavailable", 503)));
+        assertTrue(SmsDispatcher.isTransient(new ApiException("Too many requests", 429)));
+        assertTrue(SmsDispatcher.isTransient(new IllegalStateException(new SocketTimeoutException())));
+        assertFalse(SmsDispatcher.isTransient(new ApiException("Unauthorized", 401)));
+        assertFalse(SmsDispatcher.isTransient(new IllegalArgumentException("Bad input")));
+    }
+
+    @Test
+    void send_ShouldCapConcurrentProviderCalls() throws InterruptedException {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        smsDispatcher = dispatcher((to, body) -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            return "SM" + to;
+        }, 3, 1);
+
+        List<String> deliveryIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            deliveryIds.add(smsDispatcher.send(String.valueOf(i), "Hello"));
+        }
+        for (String deliveryId : deliveryIds) {
+            assertEquals(SmsDispatcher.STATUS_SENT, awaitSettled(deliveryId).getStatus());
+        }
+
+        assertTrue(maxInFlight.get() <= 3, "at most 3 concurrent calls, saw " + maxInFlight.get());
+    }
+
+    @Test
+    void backoffMs_ShouldDoubleUpToMaximum() {
+        smsDispatcher = new SmsDispatcher(new StubSmsSender(), meterRegistry, 1, 10, 100, 1000, 5000, 60000);
+
+        assertEquals(1000, smsDispatcher.backoffMs(1));
+        assertEquals(2000, smsDispatcher.backoffMs(2));
+        assertEquals(4000, smsDispatcher.backoffMs(3));
+        assertEquals(5000, smsDispatcher.backoffMs(4));
+    }
+
+    @Test
+    void purgeSettled_ShouldForgetOldDeliveries() throws InterruptedException {
+        smsDispatcher = new SmsDispatcher(new StubSmsSender(), meterRegistry, 1, 1, 100, 1, 1, 0);
+
+        String deliveryId = smsDispatcher.send("+15550100", "Hello");
+        awaitSettled(deliveryId);
+        Thread.sleep(5);
+        smsDispatcher.purgeSettled();
+
+        assertTrue(smsDispatcher.status(deliveryId).isEmpty());
+    }
+
+    private SmsDispatcher dispatcher(SmsSender sender, int maxConcurrent, int maxAttempts) {
+        return new SmsDispatcher(sender, meterRegistry, maxConcurrent, maxAttempts, 100, 1, 5, 60000);
+    }
+
+    private SmsDeliveryDTO awaitSettled(String deliveryId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            SmsDeliveryDTO delivery = smsDispatcher.status(deliveryId).orElseThrow();
+            if (SmsDispatcher.STATUS_SENT.equals(delivery.getStatus()) || SmsDispatcher.STATUS_FAILED.equals(delivery.getStatus())) {
+                return delivery;
+            }
+            Thread.sleep(5);
+        }
+        return fail("SMS " + deliveryId + " did not settle");
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
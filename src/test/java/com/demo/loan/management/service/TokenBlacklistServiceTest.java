@@ -2,58 +2,188 @@ package com.demo.loan.management.service;
 
 import com.demo.loan.management.model.BlacklistedToken;
 import com.demo.loan.management.repository.BlacklistedTokenRepository;
+import com.demo.loan.management.security.JwtUtil;
+import com.demo.loan.management.security.TokenDigest;
+import com.demo.loan.management.security.VerifiedToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
-import java.util.Optional;
+import org.springframework.dao.InvalidDataAccessResourceUsageException;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 public class TokenBlacklistServiceTest {
 
-    @InjectMocks
+    private static final long TOKEN_LIFETIME_MS = 3600000;
+    private static final long REFRESH_LIFETIME_MS = 86400000;
+
     private TokenBlacklistService tokenBlacklistService;
 
     @Mock
     private BlacklistedTokenRepository blacklistedTokenRepository;
 
+    private JwtUtil jwtUtil;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        jwtUtil = new JwtUtil("test_secret_key_that_is_at_least_32_characters_long", TOKEN_LIFETIME_MS, REFRESH_LIFETIME_MS, 100, new SimpleMeterRegistry());
+        tokenBlacklistService = new TokenBlacklistService(blacklistedTokenRepository, jwtUtil, TOKEN_LIFETIME_MS, 1000);
+    }
+
+    @Test
+    void testBlacklistToken_SavesJtiKeyAndTokenExpiry() {
+        String token = jwtUtil.generateToken("john@example.com", "USER");
+        VerifiedToken verified = jwtUtil.verify(token).orElseThrow();
+
+        tokenBlacklistService.blacklistToken(token);
+
+        verify(blacklistedTokenRepository, times(1)).save(argThat(savedToken ->
+                savedToken.getTokenKey().equals(verified.getRevocationKey().toHex())
+                        && savedToken.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().equals(verified.getExpiresAt())
+                        && savedToken.getBlacklistedAt() != null));
     }
 
     @Test
-    void testBlacklistToken_SavesToken() {
+    void testBlacklistToken_FallsBackToDigestForUnverifiableToken() {
         String token = "sample.jwt.token";
 
         tokenBlacklistService.blacklistToken(token);
 
         verify(blacklistedTokenRepository, times(1)).save(argThat(savedToken ->
-                savedToken.getToken().equals(token) && savedToken.getBlacklistedAt() != null));
+                savedToken.getTokenKey().equals(TokenDigest.of(token).toHex())
+                        && savedToken.getExpiresAt().isAfter(LocalDateTime.now())));
+        assertTrue(tokenBlacklistService.isTokenBlacklisted(token));
     }
 
     @Test
-    void testIsTokenBlacklisted_ReturnsTrueIfPresent() {
-        String token = "blacklisted.jwt.token";
+    void testBlacklistToken_SavesOnlyOnce() {
+        String token = jwtUtil.generateToken("john@example.com", "USER");
 
-        when(blacklistedTokenRepository.findByToken(token)).thenReturn(Optional.of(new BlacklistedToken()));
+        tokenBlacklistService.blacklistToken(token);
+        tokenBlacklistService.blacklistToken(token);
+
+        verify(blacklistedTokenRepository, times(1)).save(any());
+    }
 
-        boolean result = tokenBlacklistService.isTokenBlacklisted(token);
+    @Test
+    void testIsTokenBlacklisted_ReturnsTrueIfPresent() {
+        String token = jwtUtil.generateToken("john@example.com", "USER");
 
-        assertTrue(result);
-        verify(blacklistedTokenRepository).findByToken(token);
+        tokenBlacklistService.blacklistToken(token);
+
+        assertTrue(tokenBlacklistService.isTokenBlacklisted(token));
+        assertTrue(tokenBlacklistService.isTokenBlacklisted(jwtUtil.verify(token).orElseThrow()));
+        verify(blacklistedTokenRepository, never()).findByExpiresAtAfter(any());
     }
 
     @Test
     void testIsTokenBlacklisted_ReturnsFalseIfNotPresent() {
-        String token = "valid.jwt.token";
-
-        when(blacklistedTokenRepository.findByToken(token)).thenReturn(Optional.empty());
+        tokenBlacklistService.blacklistToken(jwtUtil.generateToken("john@example.com", "USER"));
 
-        boolean result = tokenBlacklistService.isTokenBlacklisted(token);
+        boolean result = tokenBlacklistService.isTokenBlacklisted(jwtUtil.generateToken("john@example.com", "USER"));
 
         assertFalse(result);
-        verify(blacklistedTokenRepository).findByToken(token);
+    }
+
+    @Test
+    void testWarmUp_LoadsUnexpiredRowsFromTable() {
+        String token = jwtUtil.generateToken("john@example.com", "USER");
+        String key = jwtUtil.verify(token).orElseThrow().getRevocationKey().toHex();
+        BlacklistedToken row = new BlacklistedToken(1L, key, LocalDateTime.now().plusMinutes(30), LocalDateTime.now().minusMinutes(5));
+        when(blacklistedTokenRepository.findByExpiresAtAfter(any())).thenReturn(List.of(row));
+
+        tokenBlacklistService.warmUp();
+
+        assertTrue(tokenBlacklistService.isTokenBlacklisted(token));
+        assertFalse(tokenBlacklistService.isTokenBlacklisted(jwtUtil.generateToken("john@example.com", "USER")));
+    }
+
+    @Test
+    void testWarmUp_MigratesLegacyRowsForUnexpiredTokens() {
+        String token = jwtUtil.generateToken("john@example.com", "USER");
+        VerifiedToken verified = jwtUtil.verify(token).orElseThrow();
+        Timestamp blacklistedAt = Timestamp.valueOf(LocalDateTime.now().minusMinutes(5));
+        when(blacklistedTokenRepository.findLegacyRows()).thenReturn(List.of(
+                new Object[]{token, blacklistedAt},
+                new Object[]{"expired.or.garbage", blacklistedAt}));
+        when(blacklistedTokenRepository.findByExpiresAtAfter(any())).thenReturn(List.of());
+
+        tokenBlacklistService.warmUp();
+
+        verify(blacklistedTokenRepository, times(1)).save(argThat(savedToken ->
+                savedToken.getTokenKey().equals(verified.getRevocationKey().toHex())
+                        && savedToken.getBlacklistedAt().equals(blacklistedAt.toLocalDateTime())));
+        verify(blacklistedTokenRepository).deleteLegacyRows();
+        assertTrue(tokenBlacklistService.isTokenBlacklisted(token));
+    }
+
+    @Test
+    void testWarmUp_StillLoads_WhenLegacyTableIsMissing() {
+        String token = jwtUtil.generateToken("john@example.com", "USER");
+        String key = jwtUtil.verify(token).orElseThrow().getRevocationKey().toHex();
+        when(blacklistedTokenRepository.findLegacyRows()).thenThrow(new InvalidDataAccessResourceUsageException("Table 'blacklisted_token' doesn't exist"));
+        when(blacklistedTokenRepository.findByExpiresAtAfter(any())).thenReturn(List.of(
+                new BlacklistedToken(1L, key, LocalDateTime.now().plusMinutes(30), LocalDateTime.now())));
+
+        tokenBlacklistService.warmUp();
+
+        assertTrue(tokenBlacklistService.isTokenBlacklisted(token));
+        verify(blacklistedTokenRepository, never()).deleteLegacyRows();
+    }
+
+    @Test
+    void testPoll_PicksUpRevocationsFromOtherInstances() {
+        String token = jwtUtil.generateToken("john@example.com", "USER");
+        String key = jwtUtil.verify(token).orElseThrow().getRevocationKey().toHex();
+        when(blacklistedTokenRepository.findByExpiresAtAfter(any())).thenReturn(List.of());
+        tokenBlacklistService.warmUp();
+        assertFalse(tokenBlacklistService.isTokenBlacklisted(token));
+
+        when(blacklistedTokenRepository.findByBlacklistedAtAfter(any())).thenReturn(List.of(
+                new BlacklistedToken(1L, key, LocalDateTime.now().plusMinutes(30), LocalDateTime.now())));
+        tokenBlacklistService.poll();
+
+        assertTrue(tokenBlacklistService.isTokenBlacklisted(token));
+    }
+
+    @Test
+    void testPoll_KeepsCursor_WhenTheTableCannotBeRead() {
+        when(blacklistedTokenRepository.findByExpiresAtAfter(any())).thenReturn(List.of());
+        tokenBlacklistService.warmUp();
+        when(blacklistedTokenRepository.findByBlacklistedAtAfter(any()))
+                .thenThrow(new InvalidDataAccessResourceUsageException("Connection refused"))
+                .thenReturn(List.of());
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+
+        tokenBlacklistService.poll();
+        tokenBlacklistService.poll();
+
+        verify(blacklistedTokenRepository, times(2)).findByBlacklistedAtAfter(since.capture());
+        assertEquals(since.getAllValues().get(0), since.getAllValues().get(1));
+    }
+
+    @Test
+    void testPurgeExpired_DropsExpiredEntriesAndRows() {
+        BlacklistedToken stale = new BlacklistedToken(1L, TokenDigest.of("stale").toHex(),
+                LocalDateTime.now().minusMinutes(1), LocalDateTime.now().minusHours(1));
+        BlacklistedToken recent = new BlacklistedToken(2L, TokenDigest.of("recent.jwt.token").toHex(),
+                LocalDateTime.now().plusMinutes(30), LocalDateTime.now().minusMinutes(5));
+        when(blacklistedTokenRepository.findByExpiresAtAfter(any())).thenReturn(List.of(stale, recent));
+        when(blacklistedTokenRepository.deleteByExpiresAtBefore(any())).thenReturn(1);
+        tokenBlacklistService.warmUp();
+
+        tokenBlacklistService.purgeExpired();
+
+        assertEquals(1, tokenBlacklistService.size());
+        assertTrue(tokenBlacklistService.isTokenBlacklisted("recent.jwt.token"));
+        verify(blacklistedTokenRepository).deleteByExpiresAtBefore(any());
     }
 }
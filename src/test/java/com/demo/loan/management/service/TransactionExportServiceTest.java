@@ -0,0 +1,92 @@
+package com.demo.loan.management.service;
+
+import com.demo.loan.management.dto.TransactionExportRow;
+import com.demo.loan.management.exception.BadRequestException;
+import com.demo.loan.management.repository.TransactionRepository;
+import com.demo.loan.management.service.TransactionExportService.ExportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class TransactionExportServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private TransactionExportService transactionExportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        transactionExportService = new TransactionExportService(transactionRepository, objectMapper);
+    }
+
+    @Test
+    void exportNdjson_ShouldWriteOneObjectPerLineAndCloseStream() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(transactionRepository.streamExportRows())
+                .thenReturn(Stream.of(row(1L, "UPI"), row(2L, "CARD")).onClose(() -> closed.set(true)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = transactionExportService.export(ExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, count);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"transactionId\":1,\"emiId\":10,\"loanId\":100,"));
+        assertTrue(lines[0].contains("\"transactionDate\":\"2025-03-01T10:15:00\""));
+        assertTrue(lines[1].contains("\"paymentMethod\":\"CARD\""));
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void exportCsv_ShouldWriteHeaderAndEscapeValues() throws Exception {
+        when(transactionRepository.streamExportRows()).thenReturn(Stream.of(row(1L, "NET \"BANKING\", HDFC")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = transactionExportService.export(ExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1, count);
+        assertEquals("transactionId,emiId,loanId,transactionAmount,paymentMethod,transactionDate,transactionStatus", lines[0]);
+        assertEquals("1,10,100,856.07,\"NET \"\"BANKING\"\", HDFC\",2025-03-01T10:15,SUCCESS", lines[1]);
+    }
+
+    @Test
+    void exportNdjson_WithNoTransactions_ShouldWriteNothing() throws Exception {
+        when(transactionRepository.streamExportRows()).thenReturn(Stream.empty());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(0, transactionExportService.export(ExportFormat.NDJSON, out));
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    void exportFormat_ShouldRejectUnknownValues() {
+        assertEquals(ExportFormat.CSV, ExportFormat.from(" Csv "));
+        assertThrows(BadRequestException.class, () -> ExportFormat.from("xml"));
+    }
+
+    private static TransactionExportRow row(Long transactionId, String paymentMethod) {
+        return new TransactionExportRow(transactionId, transactionId * 10, 100L, new BigDecimal("856.07"),
+                paymentMethod, LocalDateTime.of(2025, 3, 1, 10, 15), "SUCCESS");
+    }
+}
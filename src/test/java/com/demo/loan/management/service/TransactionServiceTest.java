@@ -26,6 +26,9 @@ public class TransactionServiceTest {
     @Mock
     private EmiRepository emiRepository;
 
+    @Mock
+    private PortfolioAnalyticsService portfolioAnalyticsService;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -76,6 +79,7 @@ public class TransactionServiceTest {
         assertEquals("PAID", emi.getStatus());
         assertEquals("SUCCESS", emi.getPaymentStatus());
         assertNotNull(emi.getPaidOn());
+        verify(portfolioAnalyticsService).recordPayment(eq(emi), eq(BigDecimal.valueOf(1500.0)), any());
     }
 
     @Test
@@ -0,0 +1,104 @@
+package com.demo.loan.management.service;
+
+import com.demo.loan.management.model.Role;
+import com.demo.loan.management.model.User;
+import com.demo.loan.management.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserCacheServiceTest {
+
+    private static final String EMAIL = "john@example.com";
+
+    @Mock
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserCacheService userCacheService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        userCacheService = new UserCacheService(userRepository, meterRegistry, 100, 60000);
+        user = User.builder().userId(1L).email(EMAIL).password("hash").role(Role.USER).build();
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void findByEmail_ShouldLoadOnce_AndServeEmailAndIdLookupsFromCache() {
+        assertEquals(EMAIL, userCacheService.findByEmail(EMAIL).orElseThrow().getEmail());
+        assertEquals(EMAIL, userCacheService.findByEmail(EMAIL).orElseThrow().getEmail());
+        assertEquals(EMAIL, userCacheService.findById(1L).orElseThrow().getEmail());
+
+        verify(userRepository, times(1)).findByEmail(EMAIL);
+        verify(userRepository, never()).findById(any());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", "users").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "users").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void findByEmail_ShouldHandOutCopies() {
+        userCacheService.findByEmail(EMAIL).orElseThrow().setRole(Role.ADMIN);
+
+        assertEquals(Role.USER, userCacheService.findByEmail(EMAIL).orElseThrow().getRole());
+    }
+
+    @Test
+    void findByEmail_ShouldNotCacheMissingUsers() {
+        when(userRepository.findByEmail("new@example.com")).thenReturn(Optional.empty());
+
+        assertTrue(userCacheService.findByEmail("new@example.com").isEmpty());
+        assertTrue(userCacheService.findByEmail("new@example.com").isEmpty());
+
+        verify(userRepository, times(2)).findByEmail("new@example.com");
+    }
+
+    @Test
+    void findByEmail_ShouldReload_AfterTtl() {
+        userCacheService = new UserCacheService(userRepository, meterRegistry, 100, 0);
+
+        userCacheService.findByEmail(EMAIL);
+        userCacheService.findByEmail(EMAIL);
+
+        verify(userRepository, times(2)).findByEmail(EMAIL);
+    }
+
+    @Test
+    void invalidate_ShouldDropBothKeys_AndAgainAfterCommit() {
+        userCacheService.findByEmail(EMAIL);
+        TransactionSynchronizationManager.initSynchronization();
+
+        userCacheService.invalidate(user);
+        assertEquals(0, userCacheService.size());
+
+        // A read inside the transaction would cache the old row, but the after-commit eviction drops it
+        userCacheService.findByEmail(EMAIL);
+        List<TransactionSynchronization> synchronizations = new ArrayList<>(TransactionSynchronizationManager.getSynchronizations());
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertEquals(0, userCacheService.size());
+    }
+}
@@ -3,6 +3,8 @@ package com.demo.loan.management.service;
 import com.demo.loan.management.model.Role;
 import com.demo.loan.management.model.User;
 import com.demo.loan.management.repository.UserRepository;
+import com.demo.loan.management.security.CurrentUser;
+import com.demo.loan.management.security.UserEpochRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -13,6 +15,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.List;
 import java.util.Optional;
@@ -25,12 +28,19 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserCacheService userCacheService;
+
+    @Mock
+    private UserEpochRegistry userEpochRegistry;
+
     @InjectMocks
     private UserService userService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(userService, "currentUser", new CurrentUser(userCacheService));
         SecurityContextHolder.clearContext();
     }
 
@@ -50,7 +60,7 @@ class UserServiceTest {
         Authentication authentication = new UsernamePasswordAuthenticationToken(adminDetails, null, authorities);
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        when(userRepository.findByEmail("admin@example.com")).thenReturn(Optional.of(user));
+        when(userCacheService.findByEmail("admin@example.com")).thenReturn(Optional.of(user));
         when(userRepository.existsById(1L)).thenReturn(true);
 
         // When
@@ -76,7 +86,7 @@ class UserServiceTest {
         Authentication authentication = new UsernamePasswordAuthenticationToken(userDetails, null, authorities);
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
+        when(userCacheService.findByEmail("user@example.com")).thenReturn(Optional.of(user));
         SecurityException exception = assertThrows(SecurityException.class, () -> userService.deleteUser(1L));
 
         assertEquals("Only admins can delete users", exception.getMessage());
@@ -98,7 +108,7 @@ class UserServiceTest {
         Authentication authentication = new UsernamePasswordAuthenticationToken(adminDetails, null, authorities);
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        when(userRepository.findByEmail("admin@example.com")).thenReturn(Optional.of(adminUser));
+        when(userCacheService.findByEmail("admin@example.com")).thenReturn(Optional.of(adminUser));
         when(userRepository.existsById(1L)).thenReturn(false);
 
 
@@ -107,4 +117,17 @@ class UserServiceTest {
         assertEquals("User with ID 1 does not exist.", exception.getMessage());
         verify(userRepository, never()).deleteById(anyLong());
     }
+
+    @Test
+    void testRevokeAllTokens_BumpsEpoch() {
+        User user = User.builder().userId(1L).email("user@example.com").role(Role.USER).tokenEpoch(4L).build();
+        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
+
+        userService.revokeAllTokens("user@example.com");
+
+        assertEquals(5L, user.getTokenEpoch());
+        verify(userRepository).save(user);
+        verify(userCacheService).invalidate(user);
+        verify(userEpochRegistry).recordChange("user@example.com", 5L);
+    }
 }